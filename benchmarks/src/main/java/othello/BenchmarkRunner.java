@@ -0,0 +1,32 @@
+package othello;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks with the GC profiler, so every score comes with the
+ * bytes allocated per operation (gc.alloc.rate.norm) and the allocation rate.
+ *
+ */
+public class BenchmarkRunner {
+
+	/**
+	 * Run main to run every benchmark, or the ones matching the arguments.
+	 *
+	 * @param args any of the usual JMH options, like a benchmark name pattern
+	 * @throws RunnerException            if a benchmark fails
+	 * @throws CommandLineOptionException if args are not JMH options
+	 */
+	public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+		CommandLineOptions options = new CommandLineOptions(args);
+		OptionsBuilder builder = new OptionsBuilder();
+		if (options.getIncludes().isEmpty()) {
+			builder.include("othello\\..*Benchmark");
+		}
+		new Runner(builder.parent(options).addProfiler(GCProfiler.class).build()).run();
+	}
+}
@@ -0,0 +1,121 @@
+package othello;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * The Board operations the players and the controllers use, on Positions.COUNT
+ * mid-game positions. Each operation runs once on every position, so a score
+ * is the time for all of them.
+ *
+ * The boards keep the moves they find until the next move, so the positions
+ * would otherwise only ever find them once. The benchmarks of operations that
+ * find moves make a move and take it back in every position first, which is
+ * just what move() does: its score is the part to take off theirs.
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BoardBenchmark {
+
+	@Param({ "OthelloBoard", "OthelloBitBoard" })
+	public String board;
+
+	@Param({ "20", "30", "40" })
+	public int plies;
+
+	private Board[] boards;
+	private char[] players;
+	private int[] rows, cols; // a valid move in each position
+
+	@Setup
+	public void setUp() {
+		int[][] games = Positions.games(this.plies);
+		this.boards = new Board[games.length];
+		this.players = new char[games.length];
+		this.rows = new int[games.length];
+		this.cols = new int[games.length];
+		int[] squares = new int[64];
+		for (int i = 0; i < games.length; i++) {
+			Othello othello = Positions.play(this.board, games[i]);
+			this.boards[i] = othello.board;
+			this.players[i] = othello.getWhosTurn();
+			othello.board.getMoves(this.players[i], squares);
+			this.rows[i] = squares[0] / 8;
+			this.cols[i] = squares[0] % 8;
+		}
+	}
+
+	/**
+	 * Make the valid move in position i and take it back, so the position is the
+	 * same but its moves have to be found again.
+	 */
+	private void moveAndUndo(int i) {
+		long undo = this.boards[i].makeMove(this.rows[i], this.cols[i], this.players[i]);
+		this.boards[i].undoMove(this.rows[i], this.cols[i], this.players[i], undo);
+	}
+
+	/**
+	 * move(), and taking it back so the positions stay the same: makeMove is
+	 * move keeping what it takes to undo it.
+	 */
+	@Benchmark
+	public void move() {
+		for (int i = 0; i < this.boards.length; i++) {
+			moveAndUndo(i);
+		}
+	}
+
+	/**
+	 * validMove on the valid move, finding the moves each time.
+	 */
+	@Benchmark
+	public int validMove() {
+		int valid = 0;
+		for (int i = 0; i < this.boards.length; i++) {
+			moveAndUndo(i);
+			if (this.boards[i].validMove(this.rows[i], this.cols[i], this.players[i])) {
+				valid++;
+			}
+		}
+		return valid;
+	}
+
+	/**
+	 * hasMove, finding the moves each time.
+	 */
+	@Benchmark
+	public void hasMove(Blackhole blackhole) {
+		for (int i = 0; i < this.boards.length; i++) {
+			moveAndUndo(i);
+			blackhole.consume(this.boards[i].hasMove());
+		}
+	}
+
+	/**
+	 * greediestMove, finding the moves each time.
+	 */
+	@Benchmark
+	public void greediestMove(Blackhole blackhole) {
+		for (int i = 0; i < this.boards.length; i++) {
+			moveAndUndo(i);
+			blackhole.consume(this.boards[i].greediestMove(this.players[i]));
+		}
+	}
+
+	@Benchmark
+	public int getCount() {
+		int count = 0;
+		for (Board board : this.boards) {
+			count += board.getCount(OthelloBoard.P1) + board.getCount(OthelloBoard.P2)
+					+ board.getCount(OthelloBoard.EMPTY);
+		}
+		return count;
+	}
+}
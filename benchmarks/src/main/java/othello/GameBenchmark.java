@@ -0,0 +1,33 @@
+package othello;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Whole games, in games per second: Random against Greedy through the
+ * controller, the way the RandomVSGreedy simulation plays them, and the random
+ * playouts of RandomPlayout for comparison.
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GameBenchmark {
+
+	private long seed;
+	private final FastRandom rand = new FastRandom(1);
+
+	@Benchmark
+	public char randomVSGreedy() {
+		return new OthelloControllerRandomVSGreedy(this.seed++).play();
+	}
+
+	@Benchmark
+	public char randomPlayout() {
+		return RandomPlayout.playGame(this.rand);
+	}
+}
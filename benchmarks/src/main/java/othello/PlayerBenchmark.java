@@ -0,0 +1,93 @@
+package othello;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * PlayerRandom.getMove and PlayerGreedy.getMove, on Positions.COUNT mid-game
+ * positions. Each player moves once in every position, so a score is the time
+ * for all of them.
+ *
+ * Each player first makes a move in its position and takes it back, so the
+ * board has to find its moves again rather than keep them from the last time;
+ * move() is the part of the scores that takes.
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PlayerBenchmark {
+
+	@Param({ "OthelloBoard", "OthelloBitBoard" })
+	public String board;
+
+	@Param({ "20", "40" })
+	public int plies;
+
+	private Player[] random, greedy;
+	private Board[] boards;
+	private char[] players;
+	private int[] rows, cols; // a valid move in each position
+
+	@Setup
+	public void setUp() {
+		int[][] games = Positions.games(this.plies);
+		this.random = new Player[games.length];
+		this.greedy = new Player[games.length];
+		this.boards = new Board[games.length];
+		this.players = new char[games.length];
+		this.rows = new int[games.length];
+		this.cols = new int[games.length];
+		int[] squares = new int[64];
+		for (int i = 0; i < games.length; i++) {
+			Othello othello = Positions.play(this.board, games[i]);
+			this.random[i] = new PlayerRandom(othello, othello.getWhosTurn(), i);
+			this.greedy[i] = new PlayerGreedy(othello, othello.getWhosTurn());
+			this.boards[i] = othello.board;
+			this.players[i] = othello.getWhosTurn();
+			othello.board.getMoves(this.players[i], squares);
+			this.rows[i] = squares[0] / 8;
+			this.cols[i] = squares[0] % 8;
+		}
+	}
+
+	/**
+	 * Make the valid move in position i and take it back, so the position is the
+	 * same but its moves have to be found again.
+	 */
+	private void moveAndUndo(int i) {
+		long undo = this.boards[i].makeMove(this.rows[i], this.cols[i], this.players[i]);
+		this.boards[i].undoMove(this.rows[i], this.cols[i], this.players[i], undo);
+	}
+
+	/**
+	 * Only the move and undo made before each getMove.
+	 */
+	@Benchmark
+	public void move() {
+		for (int i = 0; i < this.boards.length; i++) {
+			moveAndUndo(i);
+		}
+	}
+
+	@Benchmark
+	public void randomGetMove(Blackhole blackhole) {
+		for (int i = 0; i < this.random.length; i++) {
+			moveAndUndo(i);
+			blackhole.consume(this.random[i].getMove());
+		}
+	}
+
+	@Benchmark
+	public void greedyGetMove(Blackhole blackhole) {
+		for (int i = 0; i < this.greedy.length; i++) {
+			moveAndUndo(i);
+			blackhole.consume(this.greedy[i].getMove());
+		}
+	}
+}
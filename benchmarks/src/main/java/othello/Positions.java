@@ -0,0 +1,56 @@
+package othello;
+
+import java.util.Random;
+
+/**
+ * The fixed mid-game positions the benchmarks run on: the same random games,
+ * from the same seeds, every time.
+ *
+ */
+final class Positions {
+
+	static final int COUNT = 8;
+
+	private Positions() {
+	}
+
+	/**
+	 *
+	 * @param plies the number of moves into each game
+	 * @return the squares of the first plies moves of COUNT games, row * 8 + col.
+	 */
+	static int[][] games(int plies) {
+		int[][] games = new int[COUNT][];
+		int[] squares = new int[64];
+		for (int i = 0; i < COUNT; i++) {
+			Random rand = new Random(i);
+			Othello othello = new Othello();
+			games[i] = new int[plies];
+			for (int ply = 0; ply < plies; ply++) {
+				int count = othello.board.getMoves(othello.getWhosTurn(), squares);
+				games[i][ply] = squares[rand.nextInt(count)];
+				othello.move(games[i][ply] / 8, games[i][ply] % 8);
+			}
+		}
+		return games;
+	}
+
+	/**
+	 *
+	 * @param board "OthelloBoard" or "OthelloBitBoard"
+	 * @param game  the squares of the moves to make
+	 * @return a game on a new board of that kind, after the moves of game.
+	 */
+	static Othello play(String board, int[] game) {
+		Othello othello = new Othello();
+		if (board.equals("OthelloBoard")) {
+			othello.board = new OthelloBoard(Othello.DIMENSION);
+		}
+		for (int square : game) {
+			if (!othello.move(square / 8, square % 8)) {
+				throw new IllegalStateException("invalid move " + square);
+			}
+		}
+		return othello;
+	}
+}
@@ -0,0 +1,297 @@
+package othello;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * A negamax alpha-beta search of the moves on an OthelloBitBoard, using
+ * principal variation search: the first move at each position is searched with
+ * the full (alpha, beta) window, and the rest with a null window around alpha,
+ * searched again with the full window only when they turn out to be better.
+ *
+ * Positions at the end of the search are scored by a PatternEvaluator, whose
+ * patterns are updated along with the board as moves are tried and taken back.
+ *
+ * Results are kept in a TranspositionTable, and the best move stored there is
+ * tried first. The other moves are tried corners first, and at larger depths in
+ * order of how few moves they leave the opponent.
+ *
+ * An AlphaBetaSearch belongs to one thread. PlayerSearch deepens the search one
+ * move at a time, and decides when to stop.
+ *
+ */
+class AlphaBetaSearch {
+
+	public static final int INFINITY = 32000;
+	public static final int WIN = 16000; // final scores are +/-WIN plus the token difference
+
+	private static final int MAX_PLY = 128;
+	private static final int CHECK_INTERVAL = 4096; // nodes between looks at the limits
+
+	// How promising a move is before searching it, by square
+	private static final int[] SQUARE_ORDER = {
+			9, 1, 6, 5, 5, 6, 1, 9,
+			1, 0, 3, 3, 3, 3, 0, 1,
+			6, 3, 5, 4, 4, 5, 3, 6,
+			5, 3, 4, 0, 0, 4, 3, 5,
+			5, 3, 4, 0, 0, 4, 3, 5,
+			6, 3, 5, 4, 4, 5, 3, 6,
+			1, 0, 3, 3, 3, 3, 0, 1,
+			9, 1, 6, 5, 5, 6, 1, 9};
+
+	private final TranspositionTable table;
+	private final AtomicBoolean stop;
+	private OthelloBitBoard board;
+	private final PatternEvaluator evaluator = new PatternEvaluator();
+
+	// Limits, only looked at when this search decides when to stop
+	private boolean limited;
+	private long deadline, nodeLimit;
+
+	private boolean aborted;
+	private long nodes;
+	private int bestMove;
+
+	// Moves and their ordering scores, one list per ply so nothing is allocated while searching
+	private final int[][] moves = new int[MAX_PLY][64];
+	private final int[][] moveScores = new int[MAX_PLY][64];
+
+	/**
+	 * Constructs a new AlphaBetaSearch.
+	 *
+	 * @param table the table of results, which may be shared with other searches
+	 * @param stop  set to stop the search, which may be shared with other searches
+	 */
+	AlphaBetaSearch(TranspositionTable table, AtomicBoolean stop) {
+		this.table = table;
+		this.stop = stop;
+	}
+
+	/**
+	 * Get ready to search board, which is not copied.
+	 *
+	 * @param board     the position to search
+	 * @param limited   whether this search sets stop once deadline or nodeLimit is passed
+	 * @param deadline  the System.nanoTime() to stop at
+	 * @param nodeLimit the number of nodes to stop at
+	 */
+	void reset(OthelloBitBoard board, boolean limited, long deadline, long nodeLimit) {
+		this.board = board;
+		this.evaluator.set(board.getMask(OthelloBoard.P1), board.getMask(OthelloBoard.P2));
+		this.limited = limited;
+		this.deadline = deadline;
+		this.nodeLimit = nodeLimit;
+		this.aborted = false;
+		this.nodes = 0;
+		this.bestMove = TranspositionTable.NO_MOVE;
+	}
+
+	/**
+	 * Search the moves of player to depth.
+	 *
+	 * @param player P1 or P2, who must have a move
+	 * @param depth  the number of moves to look ahead, at least 1
+	 * @return the score of the position for player, meaningless if isAborted().
+	 */
+	int searchRoot(char player, int depth) {
+		return search(player, depth, -INFINITY, INFINITY, 0);
+	}
+
+	/**
+	 *
+	 * @return whether the last searchRoot was stopped before it finished.
+	 */
+	boolean isAborted() {
+		return this.aborted;
+	}
+
+	/**
+	 *
+	 * @return the square of the best move found by the last searchRoot.
+	 */
+	int getBestMove() {
+		return this.bestMove;
+	}
+
+	/**
+	 *
+	 * @return the number of positions visited since reset.
+	 */
+	long getNodes() {
+		return this.nodes;
+	}
+
+	private void checkLimits() {
+		if (this.limited && (this.nodes >= this.nodeLimit || System.nanoTime() - this.deadline >= 0)) {
+			this.stop.set(true);
+		}
+		this.aborted = this.stop.get();
+	}
+
+	private int search(char player, int depth, int alpha, int beta, int ply) {
+		if (++this.nodes % CHECK_INTERVAL == 0) {
+			checkLimits();
+		}
+		if (this.aborted) {
+			return 0;
+		}
+		char other = OthelloBoard.otherPlayer(player);
+		long own = this.board.getMask(player), opp = this.board.getMask(other);
+		if (depth == 0 || ply == MAX_PLY - 1) {
+			return evaluate(player, own, opp);
+		}
+
+		long key = this.board.getKey(player);
+		long data = this.table.probe(key);
+		int tableMove = TranspositionTable.NO_MOVE;
+		if (data != 0) {
+			tableMove = TranspositionTable.move(data);
+			if (ply > 0 && TranspositionTable.depth(data) >= depth) {
+				int score = TranspositionTable.score(data);
+				int bound = TranspositionTable.bound(data);
+				if (bound == TranspositionTable.EXACT || (bound == TranspositionTable.LOWER && score >= beta)
+						|| (bound == TranspositionTable.UPPER && score <= alpha)) {
+					return score;
+				}
+			}
+		}
+
+		long moveMask = OthelloBitBoard.moves(own, opp);
+		if (moveMask == 0) {
+			if (OthelloBitBoard.moves(opp, own) == 0) {
+				return finalScore(own, opp);
+			}
+			// player passes, the position stays the same and other moves again
+			return -search(other, depth, -beta, -alpha, ply + 1);
+		}
+
+		int count = orderMoves(moveMask, own, opp, tableMove, depth, ply);
+		int originalAlpha = alpha, best = -INFINITY, bestMove = TranspositionTable.NO_MOVE;
+		for (int i = 0; i < count; i++) {
+			int square = nextMove(ply, i, count);
+			long flips = this.board.play(square, player);
+			this.evaluator.play(square, player, flips);
+			int score;
+			if (i == 0) {
+				score = -search(other, depth - 1, -beta, -alpha, ply + 1);
+			} else {
+				score = -search(other, depth - 1, -alpha - 1, -alpha, ply + 1);
+				if (score > alpha && score < beta) {
+					score = -search(other, depth - 1, -beta, -alpha, ply + 1);
+				}
+			}
+			this.board.undo(square, player, flips);
+			this.evaluator.undo(square, player, flips);
+			if (this.aborted) {
+				return 0;
+			}
+			if (score > best) {
+				best = score;
+				bestMove = square;
+				if (score > alpha) {
+					alpha = score;
+					if (alpha >= beta) {
+						break;
+					}
+				}
+			}
+		}
+
+		int bound = best <= originalAlpha ? TranspositionTable.UPPER
+				: (best >= beta ? TranspositionTable.LOWER : TranspositionTable.EXACT);
+		this.table.store(key, bestMove, depth, bound, best);
+		if (ply == 0) {
+			this.bestMove = bestMove;
+		}
+		return best;
+	}
+
+	/**
+	 * Put the moves in moveMask into the move list for ply, with a score for how
+	 * promising each one is.
+	 *
+	 * @return the number of moves.
+	 */
+	private int orderMoves(long moveMask, long own, long opp, int tableMove, int depth, int ply) {
+		int[] list = this.moves[ply], scores = this.moveScores[ply];
+		int count = 0;
+		for (; moveMask != 0; moveMask &= moveMask - 1) {
+			int square = Long.numberOfTrailingZeros(moveMask);
+			int score;
+			if (square == tableMove) {
+				score = Integer.MAX_VALUE;
+			} else {
+				score = SQUARE_ORDER[square];
+				if (depth > 2) {
+					// Fastest first: the fewer moves left to the opponent, the better
+					long flips = OthelloBitBoard.flips(square, own, opp);
+					long opponentMoves = OthelloBitBoard.moves(opp & ~flips, own | flips | (1L << square));
+					score -= 16 * Long.bitCount(opponentMoves);
+				}
+			}
+			list[count] = square;
+			scores[count] = score;
+			count++;
+		}
+		return count;
+	}
+
+	/**
+	 * Swap the most promising of the moves from index i on into place i.
+	 *
+	 * @return the square of that move.
+	 */
+	private int nextMove(int ply, int i, int count) {
+		int[] list = this.moves[ply], scores = this.moveScores[ply];
+		int best = i;
+		for (int j = i + 1; j < count; j++) {
+			if (scores[j] > scores[best]) {
+				best = j;
+			}
+		}
+		int square = list[best], score = scores[best];
+		list[best] = list[i];
+		scores[best] = scores[i];
+		list[i] = square;
+		scores[i] = score;
+		return square;
+	}
+
+	/**
+	 *
+	 * @return the score of a finished game for own: WIN plus the token
+	 *         difference for a win, -WIN plus the difference for a loss, 0 for a
+	 *         draw.
+	 */
+	static int finalScore(long own, long opp) {
+		return finalScore(Long.bitCount(own) - Long.bitCount(opp));
+	}
+
+	/**
+	 *
+	 * @param difference the final token difference for a player
+	 * @return the score of the finished game for that player, as finalScore.
+	 */
+	static int finalScore(int difference) {
+		if (difference > 0) {
+			return WIN + difference;
+		} else if (difference < 0) {
+			return -WIN + difference;
+		} else {
+			return 0;
+		}
+	}
+
+	/**
+	 * A quick estimate of how good the position is for player, whose tokens are
+	 * own: the patterns on the board, and having more moves than the opponent. A
+	 * finished game gets its final score.
+	 */
+	private int evaluate(char player, long own, long opp) {
+		long ownMoves = OthelloBitBoard.moves(own, opp), oppMoves = OthelloBitBoard.moves(opp, own);
+		if ((ownMoves | oppMoves) == 0) {
+			return finalScore(own, opp);
+		}
+		int mobility = Long.bitCount(ownMoves) - Long.bitCount(oppMoves);
+		return this.evaluator.evaluate(player) + 10 * mobility;
+	}
+}
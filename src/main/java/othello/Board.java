@@ -0,0 +1,194 @@
+package othello;
+
+/**
+ * The operations Othello and the players need from a board, independent of how
+ * the tokens are stored. OthelloBoard keeps a char[][] of any dimension,
+ * OthelloBitBoard keeps the standard 8x8 game in a pair of 64-bit masks, and
+ * OthelloBigBoard keeps a game of any dimension in a pair of bitsets.
+ *
+ * Tokens, players and the result of hasMove() use the constants declared in
+ * OthelloBoard (P1, P2, EMPTY and BOTH).
+ *
+ */
+public interface Board {
+
+	/**
+	 * Return whether a move for player P1, or P2, at position row, col is valid.
+	 *
+	 * @param row
+	 * @param col
+	 * @param player P1, or P2
+	 * @return whether the move is valid.
+	 */
+	boolean validMove(int row, int col, char player);
+
+	/**
+	 * Make a move for player at position (row,col) according to Othello rules,
+	 * making appropriate modifications to the board. Nothing is changed if this is
+	 * not a valid move.
+	 *
+	 * @param row    starting row, in {0,...,dim-1} (typically {0,...,7})
+	 * @param col    starting col, in {0,...,dim-1} (typically {0,...,7})
+	 * @param player P1 or P2
+	 * @return true if player moved successfully at (row,col), false otherwise
+	 */
+	boolean move(int row, int col, char player);
+
+	/**
+	 * Copy the squares, row * dim + col, where player has a valid move into
+	 * squares, in row, then column order. The valid moves of both players are
+	 * found together and kept until the board changes, so validMove, hasMove and
+	 * getMoves all share the same work.
+	 *
+	 * @param player  P1 or P2
+	 * @param squares an array with room for dim * dim squares
+	 * @return the number of squares copied.
+	 */
+	int getMoves(char player, int[] squares);
+
+	/**
+	 * Make a move for player at (row,col), just like move, returning a record of
+	 * the tokens that changed. Passing the record to undoMove puts the board back
+	 * exactly as it was, so moves can be tried out without copying the board. The
+	 * format of the record is up to each Board.
+	 *
+	 * @param row    starting row, in {0,...,dim-1} (typically {0,...,7})
+	 * @param col    starting col, in {0,...,dim-1} (typically {0,...,7})
+	 * @param player P1 or P2
+	 * @return the record to pass to undoMove, 0 if this is not a valid move, in
+	 *         which case nothing is changed.
+	 */
+	long makeMove(int row, int col, char player);
+
+	/**
+	 * Take back a move made by makeMove. Moves must be taken back in the reverse
+	 * order they were made.
+	 *
+	 * @param row    the row of the move
+	 * @param col    the col of the move
+	 * @param player the player who made the move
+	 * @param undo   the record returned by makeMove(row, col, player)
+	 */
+	void undoMove(int row, int col, char player, long undo);
+
+	/**
+	 *
+	 * @return whether P1,P2 or BOTH have a move somewhere on the board, EMPTY if
+	 *         neither do.
+	 */
+	char hasMove();
+
+	/**
+	 * Returns where the move which maximizes the number of tokens owned by this player is,
+	 * along with how many tokens are gained as a result, all stored in an array of form
+	 * {row, col, tokens gained after move}. Ties are broken by the smallest row, then
+	 * the smallest column. The board is left unchanged.
+	 *
+	 * @param player P1, or P2
+	 * @return an array made of {row, col, tokens gained after move} for the greediest move.
+	 */
+	int[] greediestMove(char player);
+
+	/**
+	 * The same move as greediestMove, without making an array for it.
+	 *
+	 * @param player P1, or P2
+	 * @return the square of the greediest move, row * dim + col, or -1 if player
+	 *         has no move.
+	 */
+	int greediestSquare(char player);
+
+	/**
+	 * Counts are kept up to date as tokens are placed and flipped, so this takes
+	 * constant time.
+	 *
+	 * @param player P1, P2 or EMPTY
+	 * @return the number of tokens on the board for player, or the number of
+	 *         EMPTY squares
+	 */
+	int getCount(char player);
+
+	/**
+	 *
+	 * @return whether there are no EMPTY squares left on the board.
+	 */
+	boolean isFull();
+
+	/**
+	 * The Zobrist key of the position, built from the keys in Zobrist. It is kept
+	 * up to date as tokens are placed and flipped, so it costs nothing to ask for,
+	 * and is the same for the same position on any Board of the same dimension.
+	 *
+	 * @param toMove the player to move next, P1 or P2
+	 * @return the Zobrist key of this position with toMove to move.
+	 */
+	long getKey(char toMove);
+
+	/**
+	 *
+	 * @param row starting row, in {0,...,dim-1} (typically {0,...,7})
+	 * @param col starting col, in {0,...,dim-1} (typically {0,...,7})
+	 * @return P1,P2 or EMPTY, EMPTY is returned for an invalid (row,col)
+	 */
+	char get(int row, int col);
+
+	/**
+	 *
+	 * @return the dimension of the board.
+	 */
+	int getDimension();
+
+	/**
+	 * @param board the board to draw
+	 * @return a string representation of board, just the play area, with no
+	 *         additional information.
+	 */
+	static String render(Board board) {
+		int dim = board.getDimension();
+		StringBuilder s = new StringBuilder();
+
+		// Column headers (top)
+		s.append("   ");
+		for (int col = 0; col < dim; col++) {
+			s.append(String.format(" %d  ", col));
+		}
+		s.append('\n');
+
+		// Top border
+		s.append("  +");
+		for (int col = 0; col < dim; col++) {
+			s.append("---+");
+		}
+		s.append('\n');
+
+		// Rows
+		for (int row = 0; row < dim; row++) {
+			// Left row label
+			s.append(String.format("%2d|", row));
+
+			// Cells
+			for (int col = 0; col < dim; col++) {
+				s.append(' ').append(board.get(row, col)).append(" |");
+			}
+
+			// Right row label
+			s.append(String.format("%2d\n", row));
+
+			// Row border
+			s.append("  +");
+			for (int col = 0; col < dim; col++) {
+				s.append("---+");
+			}
+			s.append('\n');
+		}
+
+		// Column headers (bottom)
+		s.append("   ");
+		for (int col = 0; col < dim; col++) {
+			s.append(String.format(" %d  ", col));
+		}
+		s.append('\n');
+
+		return s.toString();
+	}
+}
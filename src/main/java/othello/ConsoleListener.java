@@ -0,0 +1,56 @@
+package othello;
+
+/**
+ * ConsoleListener prints a game to the console as it is played: the board, how
+ * many tokens each player has and who moves next before every move, each move
+ * as it is made, and the final board and the winner.
+ *
+ */
+public class ConsoleListener implements GameListener {
+
+	@Override
+	public void gameStarted(Othello othello) {
+		report(othello);
+	}
+
+	@Override
+	public void moveMade(Othello othello, char player, Move move) {
+		reportMove(player, move);
+		if (!othello.isGameOver() && !othello.isPass()) {
+			report(othello);
+		}
+	}
+
+	@Override
+	public void passed(Othello othello, char player) {
+		System.out.println(player + " has no move and passes\n");
+		report(othello);
+	}
+
+	@Override
+	public void gameEnded(Othello othello, char winner) {
+		String s = othello.getBoardString() + OthelloBoard.P1 + ":"
+				+ othello.getCount(OthelloBoard.P1) + " "
+				+ OthelloBoard.P2 + ":" + othello.getCount(OthelloBoard.P2)
+				+ "  " + winner + " won\n";
+		System.out.println(s);
+	}
+
+	/**
+	 * Print the move just made. Override to print more about it.
+	 *
+	 * @param player the player who made the move
+	 * @param move   the move made
+	 */
+	protected void reportMove(char player, Move move) {
+		System.out.println(player + " makes move " + move + "\n");
+	}
+
+	protected void report(Othello othello) {
+		String s = othello.getBoardString() + OthelloBoard.P1 + ":"
+				+ othello.getCount(OthelloBoard.P1) + " "
+				+ OthelloBoard.P2 + ":" + othello.getCount(OthelloBoard.P2) + "  "
+				+ othello.getWhosTurn() + " moves next";
+		System.out.println(s);
+	}
+}
@@ -0,0 +1,421 @@
+package othello;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * EndgameSolver plays out every line to the end of the game, to find the exact
+ * final score of a position with few empty squares left, and a move that gets
+ * it. Scores are token differences for the player to move; as in Othello,
+ * squares still empty at the end count for no one.
+ *
+ * The solver works on the two masks of an OthelloBitBoard, and allocates
+ * nothing while solving. How it orders the moves depends on how many squares
+ * are empty:
+ * <ul>
+ * <li>from SORT_EMPTIES up, fastest first: the moves leaving the opponent the
+ * fewest replies are tried first, after the best move kept in the
+ * TranspositionTable, if any,</li>
+ * <li>below that, by parity: moves into quadrants with an odd number of empty
+ * squares go first, since having the last move in a region is usually
+ * good,</li>
+ * <li>for the last 3 empty squares, moves are not generated at all, each empty
+ * square is just tried, and the last square is counted out directly.</li>
+ * </ul>
+ *
+ * winLossDraw only asks whether the position is won, lost or drawn, with a
+ * null window around 0, which is much faster than finding the exact score.
+ * solve starts with the same question and then searches for the exact score
+ * only on the side of 0 that the answer allows.
+ *
+ * An EndgameSolver belongs to one thread.
+ *
+ */
+class EndgameSolver {
+
+	private static final int SORT_EMPTIES = 7; // from here up, moves are sorted fastest first
+	private static final int TABLE_EMPTIES = 10; // from here up, results are kept in the table
+	private static final int CHECK_INTERVAL = 4096; // nodes between looks at the limits
+	private static final int INFINITY = 127;
+	private static final long CORNERS = 0x8100000000000081L;
+	private static final long[] QUADRANTS = { 0x000000000f0f0f0fL, 0x00000000f0f0f0f0L, 0x0f0f0f0f00000000L,
+			0xf0f0f0f000000000L };
+	// Keeps the solver's keys apart from the Zobrist keys AlphaBetaSearch stores under
+	private static final long SALT = Zobrist.mix(0x456e6467616d65L); // "Endgame"
+
+	private final TranspositionTable table;
+	private final AtomicBoolean stop;
+
+	// Limits, only looked at when this solver decides when to stop
+	private boolean limited;
+	private long deadline, nodeLimit;
+
+	private boolean aborted;
+	private long nodes, nextCheck;
+	private int bestMove;
+
+	// Moves and their ordering scores, one list per number of empty squares
+	private final int[][] moves = new int[65][64];
+	private final int[][] moveScores = new int[65][64];
+
+	/**
+	 * Constructs a new EndgameSolver.
+	 *
+	 * @param table the table of results, which may be shared with other searches,
+	 *              or null to keep none
+	 * @param stop  set to stop the solver, which may be shared with other searches
+	 */
+	EndgameSolver(TranspositionTable table, AtomicBoolean stop) {
+		this.table = table;
+		this.stop = stop;
+	}
+
+	/**
+	 * Get ready to solve a new position.
+	 *
+	 * @param limited   whether this solver sets stop once deadline or nodeLimit is passed
+	 * @param deadline  the System.nanoTime() to stop at
+	 * @param nodeLimit the number of nodes to stop at
+	 */
+	void reset(boolean limited, long deadline, long nodeLimit) {
+		this.limited = limited;
+		this.deadline = deadline;
+		this.nodeLimit = nodeLimit;
+		this.aborted = false;
+		this.nodes = 0;
+		this.nextCheck = CHECK_INTERVAL;
+		this.bestMove = TranspositionTable.NO_MOVE;
+	}
+
+	/**
+	 * Find the exact final score of the position, and the best move.
+	 *
+	 * @param own the tokens of the player to move, who must have a move
+	 * @param opp the tokens of the other player
+	 * @return the final token difference for own with best play, meaningless if
+	 *         isAborted().
+	 */
+	int solve(long own, long opp) {
+		int empties = Long.bitCount(~(own | opp));
+		int score = sorted(own, opp, -1, 1, empties, true);
+		if (this.aborted || score == 0) {
+			return score;
+		} else if (score > 0) {
+			return sorted(own, opp, 0, INFINITY, empties, true);
+		} else {
+			return sorted(own, opp, -INFINITY, 0, empties, true);
+		}
+	}
+
+	/**
+	 * Find whether the position is won, lost or drawn, and a move that keeps it so.
+	 *
+	 * @param own the tokens of the player to move, who must have a move
+	 * @param opp the tokens of the other player
+	 * @return 1 for a win for own, -1 for a loss, 0 for a draw, meaningless if
+	 *         isAborted().
+	 */
+	int winLossDraw(long own, long opp) {
+		return Integer.signum(sorted(own, opp, -1, 1, Long.bitCount(~(own | opp)), true));
+	}
+
+	/**
+	 *
+	 * @return whether the last solve or winLossDraw was stopped before it finished.
+	 */
+	boolean isAborted() {
+		return this.aborted;
+	}
+
+	/**
+	 *
+	 * @return the square of the best move found by the last solve or winLossDraw.
+	 */
+	int getBestMove() {
+		return this.bestMove;
+	}
+
+	/**
+	 *
+	 * @return the number of positions visited since reset.
+	 */
+	long getNodes() {
+		return this.nodes;
+	}
+
+	private void checkLimits() {
+		this.nextCheck = this.nodes + CHECK_INTERVAL;
+		if (this.limited && (this.nodes >= this.nodeLimit || System.nanoTime() - this.deadline >= 0)) {
+			this.stop.set(true);
+		}
+		this.aborted = this.stop.get();
+	}
+
+	/**
+	 * Solve with the move ordering suited to the number of empty squares.
+	 */
+	private int solve(long own, long opp, int alpha, int beta, int empties) {
+		if (empties >= SORT_EMPTIES) {
+			return sorted(own, opp, alpha, beta, empties, false);
+		} else if (empties > 3) {
+			return parity(own, opp, alpha, beta, empties);
+		} else if (empties > 1) {
+			return lastFew(own, opp, alpha, beta, ~(own | opp), false);
+		} else if (empties == 1) {
+			return lastOne(own, opp, Long.numberOfTrailingZeros(~(own | opp)));
+		} else {
+			this.nodes++;
+			return difference(own, opp);
+		}
+	}
+
+	/**
+	 * Solve trying the moves fastest first, keeping results in the table.
+	 *
+	 * @param root whether this is the position being solved, whose best move is
+	 *             recorded
+	 */
+	private int sorted(long own, long opp, int alpha, int beta, int empties, boolean root) {
+		if (++this.nodes >= this.nextCheck) {
+			checkLimits();
+		}
+		if (this.aborted) {
+			return 0;
+		}
+		long moveMask = OthelloBitBoard.moves(own, opp);
+		if (moveMask == 0) {
+			if (root) {
+				throw new IllegalArgumentException("the player to move has no move");
+			}
+			if (OthelloBitBoard.moves(opp, own) == 0) {
+				return difference(own, opp);
+			}
+			return -sorted(opp, own, -beta, -alpha, empties, false);
+		}
+
+		long key = 0;
+		int tableMove = TranspositionTable.NO_MOVE;
+		boolean useTable = this.table != null && empties >= TABLE_EMPTIES;
+		if (useTable) {
+			key = key(own, opp);
+			long data = this.table.probe(key);
+			if (data != 0) {
+				tableMove = TranspositionTable.move(data);
+				if (!root) {
+					int score = TranspositionTable.score(data);
+					int bound = TranspositionTable.bound(data);
+					if (bound == TranspositionTable.EXACT || (bound == TranspositionTable.LOWER && score >= beta)
+							|| (bound == TranspositionTable.UPPER && score <= alpha)) {
+						return score;
+					}
+				}
+			}
+		}
+
+		int count = orderMoves(moveMask, own, opp, tableMove, empties);
+		int originalAlpha = alpha, best = -INFINITY, bestMove = TranspositionTable.NO_MOVE;
+		for (int i = 0; i < count; i++) {
+			int square = nextMove(empties, i, count);
+			long flips = OthelloBitBoard.flips(square, own, opp);
+			long newOwn = opp & ~flips, newOpp = own | flips | (1L << square);
+			int score;
+			if (i == 0) {
+				score = -solve(newOwn, newOpp, -beta, -alpha, empties - 1);
+			} else {
+				score = -solve(newOwn, newOpp, -alpha - 1, -alpha, empties - 1);
+				if (score > alpha && score < beta) {
+					score = -solve(newOwn, newOpp, -beta, -alpha, empties - 1);
+				}
+			}
+			if (this.aborted) {
+				return 0;
+			}
+			if (score > best) {
+				best = score;
+				bestMove = square;
+				if (score > alpha) {
+					alpha = score;
+					if (alpha >= beta) {
+						break;
+					}
+				}
+			}
+		}
+
+		if (useTable) {
+			int bound = best <= originalAlpha ? TranspositionTable.UPPER
+					: (best >= beta ? TranspositionTable.LOWER : TranspositionTable.EXACT);
+			this.table.store(key, bestMove, empties, bound, best);
+		}
+		if (root) {
+			this.bestMove = bestMove;
+		}
+		return best;
+	}
+
+	/**
+	 * Solve trying the moves into quadrants with an odd number of empty squares
+	 * first.
+	 */
+	private int parity(long own, long opp, int alpha, int beta, int empties) {
+		this.nodes++;
+		long moveMask = OthelloBitBoard.moves(own, opp);
+		if (moveMask == 0) {
+			if (OthelloBitBoard.moves(opp, own) == 0) {
+				return difference(own, opp);
+			}
+			return -parity(opp, own, -beta, -alpha, empties);
+		}
+		long odd = oddQuadrants(~(own | opp));
+		int best = -INFINITY;
+		long squares = moveMask & odd;
+		for (int pass = 0; pass < 2; pass++, squares = moveMask & ~odd) {
+			for (; squares != 0; squares &= squares - 1) {
+				int square = Long.numberOfTrailingZeros(squares);
+				long flips = OthelloBitBoard.flips(square, own, opp);
+				int score = -solve(opp & ~flips, own | flips | (1L << square), -beta, -alpha, empties - 1);
+				if (score > best) {
+					best = score;
+					if (score >= beta) {
+						return score;
+					}
+					alpha = Math.max(alpha, score);
+				}
+			}
+		}
+		return best;
+	}
+
+	/**
+	 * Solve 2 or 3 empty squares, trying each of them without generating moves.
+	 *
+	 * @param empty  the empty squares
+	 * @param passed whether the other player has just passed
+	 */
+	private int lastFew(long own, long opp, int alpha, int beta, long empty, boolean passed) {
+		this.nodes++;
+		long odd = oddQuadrants(empty);
+		int best = -INFINITY;
+		long squares = empty & odd;
+		for (int pass = 0; pass < 2; pass++, squares = empty & ~odd) {
+			for (; squares != 0; squares &= squares - 1) {
+				int square = Long.numberOfTrailingZeros(squares);
+				long flips = OthelloBitBoard.flips(square, own, opp);
+				if (flips == 0) {
+					continue;
+				}
+				long newOwn = opp & ~flips, newOpp = own | flips | (1L << square);
+				long left = empty & ~(1L << square);
+				int score = -(left == (left & -left) ? lastOne(newOwn, newOpp, Long.numberOfTrailingZeros(left))
+						: lastFew(newOwn, newOpp, -beta, -alpha, left, false));
+				if (score > best) {
+					best = score;
+					if (score >= beta) {
+						return score;
+					}
+					alpha = Math.max(alpha, score);
+				}
+			}
+		}
+		if (best == -INFINITY) {
+			if (passed) {
+				return difference(own, opp);
+			}
+			return -lastFew(opp, own, -beta, -alpha, empty, true);
+		}
+		return best;
+	}
+
+	/**
+	 * Count out the last empty square: own takes it if it can, otherwise opp does.
+	 */
+	private int lastOne(long own, long opp, int square) {
+		this.nodes++;
+		long flips = OthelloBitBoard.flips(square, own, opp);
+		if (flips != 0) {
+			return difference(own | flips | (1L << square), opp & ~flips);
+		}
+		flips = OthelloBitBoard.flips(square, opp, own);
+		if (flips != 0) {
+			return difference(own & ~flips, opp | flips | (1L << square));
+		}
+		return difference(own, opp);
+	}
+
+	/**
+	 * Put the moves in moveMask into the move list for empties, scored by how few
+	 * replies they leave the opponent, with a little extra for parity.
+	 *
+	 * @return the number of moves.
+	 */
+	private int orderMoves(long moveMask, long own, long opp, int tableMove, int empties) {
+		int[] list = this.moves[empties], scores = this.moveScores[empties];
+		long odd = oddQuadrants(~(own | opp));
+		int count = 0;
+		for (; moveMask != 0; moveMask &= moveMask - 1) {
+			int square = Long.numberOfTrailingZeros(moveMask);
+			int score;
+			if (square == tableMove) {
+				score = Integer.MAX_VALUE;
+			} else {
+				long flips = OthelloBitBoard.flips(square, own, opp);
+				long opponentMoves = OthelloBitBoard.moves(opp & ~flips, own | flips | (1L << square));
+				// A corner left to the opponent counts as two replies
+				score = -16 * (Long.bitCount(opponentMoves) + Long.bitCount(opponentMoves & CORNERS));
+				if ((odd & (1L << square)) != 0) {
+					score += 4;
+				}
+			}
+			list[count] = square;
+			scores[count] = score;
+			count++;
+		}
+		return count;
+	}
+
+	/**
+	 * Swap the most promising of the moves from index i on into place i.
+	 *
+	 * @return the square of that move.
+	 */
+	private int nextMove(int empties, int i, int count) {
+		int[] list = this.moves[empties], scores = this.moveScores[empties];
+		int best = i;
+		for (int j = i + 1; j < count; j++) {
+			if (scores[j] > scores[best]) {
+				best = j;
+			}
+		}
+		int square = list[best], score = scores[best];
+		list[best] = list[i];
+		scores[best] = scores[i];
+		list[i] = square;
+		scores[i] = score;
+		return square;
+	}
+
+	/**
+	 *
+	 * @return the quadrants of the board holding an odd number of the empty squares.
+	 */
+	private static long oddQuadrants(long empty) {
+		long odd = 0;
+		for (long quadrant : QUADRANTS) {
+			if ((Long.bitCount(empty & quadrant) & 1) != 0) {
+				odd |= quadrant;
+			}
+		}
+		return odd;
+	}
+
+	private static int difference(long own, long opp) {
+		return Long.bitCount(own) - Long.bitCount(opp);
+	}
+
+	/**
+	 *
+	 * @return the key to store the position under, with own to move.
+	 */
+	private static long key(long own, long opp) {
+		return Zobrist.mix(Zobrist.mix(own ^ SALT) ^ opp);
+	}
+}
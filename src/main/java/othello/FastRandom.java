@@ -0,0 +1,68 @@
+package othello;
+
+/**
+ * FastRandom is a xorshift random number generator: a few shifts and xors per
+ * number, with no locking or allocation, much faster than java.util.Random.
+ * It is good enough to choose random moves, not for anything that needs
+ * strong randomness. Like java.util.Random it is not safe to share between
+ * threads; give each thread its own.
+ *
+ */
+public final class FastRandom {
+
+	private long state;
+
+	/**
+	 * Constructs a new FastRandom, giving the same numbers every time for the
+	 * same seed.
+	 *
+	 * @param seed any long, 0 included
+	 */
+	public FastRandom(long seed) {
+		setSeed(seed);
+	}
+
+	/**
+	 * Start the numbers over from seed.
+	 *
+	 * @param seed any long, 0 included
+	 */
+	public void setSeed(long seed) {
+		// Spread the bits of seed, so that nearby seeds give unrelated numbers;
+		// xorshift is stuck at 0, so that is not a state
+		long state = Zobrist.mix(seed);
+		this.state = state == 0 ? 1 : state;
+	}
+
+	/**
+	 *
+	 * @return a random long.
+	 */
+	public long nextLong() {
+		long x = this.state;
+		x ^= x << 13;
+		x ^= x >>> 7;
+		x ^= x << 17;
+		this.state = x;
+		return x;
+	}
+
+	/**
+	 *
+	 * @param bound at least 1
+	 * @return a random int in {0,...,bound-1}.
+	 */
+	public int nextInt(int bound) {
+		// The top 32 bits scaled to bound, with no division
+		return (int) (((nextLong() >>> 32) * bound) >>> 32);
+	}
+
+	/**
+	 *
+	 * @param mask a non-zero mask
+	 * @return one of the set bits of mask, each as likely, as a square.
+	 */
+	public int nextSquare(long mask) {
+		return RandomPlayout.select(mask, nextInt(Long.bitCount(mask)));
+	}
+}
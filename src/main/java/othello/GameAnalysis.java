@@ -0,0 +1,457 @@
+package othello;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * GameAnalysis works out statistics of a stream of games written by a
+ * GameRecordWriter: how they ended, by how many tokens, how long they were,
+ * how often players passed, and how each opening did. The statistics come out
+ * as a table, as CSV or JSON: each row is a group of games, like the games
+ * won by 12 tokens, with how many there were and how many of them P1 won, P2
+ * won, and were drawn. Games that did not finish are counted, but not won or
+ * drawn.
+ *
+ * Threads take blocks of games from the reader (see
+ * GameRecordReader.readBlock(GameRecordReader)), replay them on bitboards, and
+ * count into their own arrays of counts, which are only added up once every
+ * game is counted.
+ *
+ */
+public class GameAnalysis {
+
+	/**
+	 * The statistics to work out.
+	 */
+	public enum Statistic {
+		/** How all the games ended. */
+		RESULTS,
+		/** The games by final token difference, P1 tokens minus P2 tokens. */
+		DIFFERENCES,
+		/** The games by number of moves. */
+		LENGTHS,
+		/** The games by number of passes. */
+		PASSES,
+		/** The games by their first moves, up to reflection. */
+		OPENINGS
+	}
+
+	public static final int MAX_OPENING_MOVES = 9;
+
+	// The reflections that leave the start position as it is, for naming openings
+	private static final int[] START_TRANSFORMS;
+	static {
+		int[] transforms = new int[Symmetry.TRANSFORMS];
+		int count = 0;
+		for (int t = 0; t < Symmetry.TRANSFORMS; t++) {
+			if (Symmetry.transform(RandomPlayout.START_P1, t) == RandomPlayout.START_P1
+					&& Symmetry.transform(RandomPlayout.START_P2, t) == RandomPlayout.START_P2) {
+				transforms[count++] = t;
+			}
+		}
+		START_TRANSFORMS = Arrays.copyOf(transforms, count);
+	}
+
+	private static final int P1_WIN = 0, P2_WIN = 1, DRAW = 2, UNFINISHED = -1;
+
+	private EnumSet<Statistic> statistics = EnumSet.allOf(Statistic.class);
+	private int threads = Runtime.getRuntime().availableProcessors();
+	private int openingMoves = 2;
+
+	private Counts counts = new Counts();
+	private long elapsedNanos;
+
+	/**
+	 * The counts of one thread, or all of them added up. Each group of games is
+	 * 4 counts: games, P1 wins, P2 wins and draws.
+	 */
+	private static final class Counts {
+		final long[] results = new long[4];
+		final long[] differences = new long[129 * 4]; // -64 to 64
+		final long[] lengths = new long[61 * 4];
+		final long[] passes = new long[61 * 4];
+		final Map<Long, long[]> openings = new HashMap<>();
+		long moves, passCount;
+
+		static void count(long[] counts, int group, int outcome) {
+			counts[4 * group]++;
+			if (outcome != UNFINISHED) {
+				counts[4 * group + 1 + outcome]++;
+			}
+		}
+
+		static void add(long[] to, long[] from) {
+			for (int i = 0; i < to.length; i++) {
+				to[i] += from[i];
+			}
+		}
+
+		void add(Counts other) {
+			add(this.results, other.results);
+			add(this.differences, other.differences);
+			add(this.lengths, other.lengths);
+			add(this.passes, other.passes);
+			for (Map.Entry<Long, long[]> opening : other.openings.entrySet()) {
+				add(this.openings.computeIfAbsent(opening.getKey(), key -> new long[4]), opening.getValue());
+			}
+			this.moves += other.moves;
+			this.passCount += other.passCount;
+		}
+	}
+
+	/**
+	 *
+	 * @param statistics the statistics to work out and write; all of them by
+	 *                   default
+	 */
+	public void setStatistics(Statistic... statistics) {
+		this.statistics = EnumSet.noneOf(Statistic.class);
+		this.statistics.addAll(List.of(statistics));
+	}
+
+	/**
+	 *
+	 * @param threads the number of threads to replay games on, at least 1; the
+	 *                number of processors by default
+	 */
+	public void setThreads(int threads) {
+		this.threads = Math.max(1, threads);
+	}
+
+	/**
+	 *
+	 * @param openingMoves the number of first moves that make an opening, from 1
+	 *                     to MAX_OPENING_MOVES; 2 by default
+	 */
+	public void setOpeningMoves(int openingMoves) {
+		if (openingMoves < 1 || openingMoves > MAX_OPENING_MOVES) {
+			throw new IllegalArgumentException("openings of " + openingMoves + " moves");
+		}
+		this.openingMoves = openingMoves;
+	}
+
+	/**
+	 * Count every game left in reader, replacing the counts of the last run.
+	 *
+	 * @param reader the games
+	 * @throws IOException if the games can't be read, or are not valid; any
+	 *                     other failure of a thread is thrown as it is
+	 */
+	public void run(GameRecordReader reader) throws IOException {
+		AtomicReference<Throwable> failure = new AtomicReference<>();
+		Counts[] counts = new Counts[this.threads];
+		Thread[] workers = new Thread[this.threads];
+		long start = System.nanoTime();
+		for (int i = 0; i < workers.length; i++) {
+			int worker = i;
+			workers[i] = new Thread(() -> {
+				try (GameRecordReader blocks = new GameRecordReader(reader)) {
+					counts[worker] = count(reader, blocks, failure);
+				} catch (Throwable e) {
+					failure.compareAndSet(null, e);
+				}
+			}, "analysis " + (i + 1));
+			workers[i].start();
+		}
+		for (int i = 0; i < workers.length; i++) {
+			try {
+				workers[i].join();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return;
+			}
+		}
+		if (failure.get() instanceof IOException e) {
+			throw e;
+		} else if (failure.get() instanceof RuntimeException e) {
+			throw e;
+		} else if (failure.get() instanceof Error e) {
+			throw e;
+		} else if (failure.get() != null) {
+			throw new IOException(failure.get());
+		}
+		this.counts = new Counts();
+		for (Counts c : counts) {
+			this.counts.add(c);
+		}
+		this.elapsedNanos = System.nanoTime() - start;
+	}
+
+	/**
+	 * Count the games of blocks from reader until there are none left, or
+	 * another thread fails.
+	 */
+	private Counts count(GameRecordReader reader, GameRecordReader blocks, AtomicReference<Throwable> failure)
+			throws IOException {
+		Counts counts = new Counts();
+		int[] squares = new int[64];
+		boolean openings = this.statistics.contains(Statistic.OPENINGS);
+		while (failure.get() == null && reader.readBlock(blocks)) {
+			for (int length = blocks.read(squares); length >= 0; length = blocks.read(squares)) {
+				count(squares, length, counts, openings);
+			}
+		}
+		return counts;
+	}
+
+	/**
+	 * Replay a game, and count it.
+	 */
+	private void count(int[] squares, int length, Counts counts, boolean openings) {
+		long own = RandomPlayout.START_P1, opp = RandomPlayout.START_P2;
+		boolean p1ToMove = true;
+		int passes = 0;
+		for (int i = 0; i < length; i++) {
+			if (OthelloBitBoard.moves(own, opp) == 0) {
+				long swap = own;
+				own = opp;
+				opp = swap;
+				p1ToMove = !p1ToMove;
+				passes++;
+			}
+			int square = squares[i];
+			long flips = OthelloBitBoard.flips(square, own, opp);
+			long swap = own | flips | (1L << square);
+			own = opp & ~flips;
+			opp = swap;
+			p1ToMove = !p1ToMove;
+		}
+
+		int outcome = UNFINISHED, difference = 0;
+		if (OthelloBitBoard.moves(own, opp) == 0 && OthelloBitBoard.moves(opp, own) == 0) {
+			difference = Long.bitCount(own) - Long.bitCount(opp);
+			if (!p1ToMove) {
+				difference = -difference;
+			}
+			outcome = difference > 0 ? P1_WIN : (difference < 0 ? P2_WIN : DRAW);
+			Counts.count(counts.differences, difference + 64, outcome);
+		}
+		Counts.count(counts.results, 0, outcome);
+		Counts.count(counts.lengths, length, outcome);
+		Counts.count(counts.passes, passes, outcome);
+		if (openings && length > 0) {
+			Counts.count(counts.openings.computeIfAbsent(opening(squares, length), key -> new long[4]), 0, outcome);
+		}
+		counts.moves += length;
+		counts.passCount += passes;
+	}
+
+	/**
+	 *
+	 * @return the first moves of a game, reflected the way that puts them first
+	 *         in order, packed 7 bits a move, first moves highest.
+	 */
+	private long opening(int[] squares, int length) {
+		int moves = Math.min(length, this.openingMoves);
+		long opening = Long.MAX_VALUE;
+		for (int t : START_TRANSFORMS) {
+			long packed = 0;
+			for (int i = 0; i < moves; i++) {
+				packed = packed << 7 | (Symmetry.transformSquare(squares[i], t) + 1);
+			}
+			opening = Math.min(opening, packed);
+		}
+		return opening;
+	}
+
+	private static String name(long opening) {
+		StringBuilder name = new StringBuilder();
+		for (; opening != 0; opening >>>= 7) {
+			int square = (int) (opening & 0x7f) - 1;
+			name.insert(0, "" + (char) ('a' + square % 8) + (char) ('1' + square / 8));
+		}
+		return name.toString();
+	}
+
+	/**
+	 * A group of games: its key, and its 4 counts at index in counts.
+	 */
+	private static final class Row {
+		final String key;
+		final long[] counts;
+		final int index;
+
+		Row(String key, long[] counts, int index) {
+			this.key = key;
+			this.counts = counts;
+			this.index = index;
+		}
+	}
+
+	/**
+	 *
+	 * @return the groups of games of statistic with any games, in order.
+	 */
+	private List<Row> rows(Statistic statistic) {
+		List<Row> rows = new ArrayList<>();
+		switch (statistic) {
+		case RESULTS -> rows.add(new Row("all", this.counts.results, 0));
+		case DIFFERENCES -> groups(rows, this.counts.differences, -64);
+		case LENGTHS -> groups(rows, this.counts.lengths, 0);
+		case PASSES -> groups(rows, this.counts.passes, 0);
+		case OPENINGS -> this.counts.openings.entrySet().stream().sorted(Map.Entry.comparingByKey())
+				.forEach(opening -> rows.add(new Row(name(opening.getKey()), opening.getValue(), 0)));
+		}
+		return rows;
+	}
+
+	private static void groups(List<Row> rows, long[] counts, int firstKey) {
+		for (int group = 0; 4 * group < counts.length; group++) {
+			if (counts[4 * group] != 0) {
+				rows.add(new Row(Integer.toString(group + firstKey), counts, 4 * group));
+			}
+		}
+	}
+
+	/**
+	 *
+	 * @return the statistics of the last run as CSV, a row for each group of
+	 *         games: statistic,key,games,p1_wins,p2_wins,draws
+	 */
+	public String toCsv() {
+		StringBuilder csv = new StringBuilder("statistic,key,games,p1_wins,p2_wins,draws\n");
+		for (Statistic statistic : this.statistics) {
+			for (Row row : rows(statistic)) {
+				csv.append(statistic.name().toLowerCase(Locale.ROOT)).append(',').append(row.key);
+				for (int i = 0; i < 4; i++) {
+					csv.append(',').append(row.counts[row.index + i]);
+				}
+				csv.append('\n');
+			}
+		}
+		return csv.toString();
+	}
+
+	/**
+	 *
+	 * @return the statistics of the last run as JSON: the number of games, moves
+	 *         and passes, and an array of groups of games for each statistic.
+	 */
+	public String toJson() {
+		StringBuilder json = new StringBuilder("{\n  \"games\": " + getGames() + ",\n  \"moves\": "
+				+ this.counts.moves + ",\n  \"passes\": " + this.counts.passCount);
+		for (Statistic statistic : this.statistics) {
+			json.append(",\n  \"").append(statistic.name().toLowerCase(Locale.ROOT)).append("\": [");
+			String separator = "\n";
+			for (Row row : rows(statistic)) {
+				json.append(separator).append("    {\"key\": \"").append(row.key).append("\", \"games\": ")
+						.append(row.counts[row.index]).append(", \"p1Wins\": ").append(row.counts[row.index + 1])
+						.append(", \"p2Wins\": ").append(row.counts[row.index + 2]).append(", \"draws\": ")
+						.append(row.counts[row.index + 3]).append('}');
+				separator = ",\n";
+			}
+			json.append("\n  ]");
+		}
+		return json.append("\n}\n").toString();
+	}
+
+	/**
+	 *
+	 * @return the number of games counted in the last run.
+	 */
+	public long getGames() {
+		return this.counts.results[0];
+	}
+
+	/**
+	 *
+	 * @return the number of games P1 won in the last run.
+	 */
+	public long getP1Wins() {
+		return this.counts.results[1];
+	}
+
+	/**
+	 *
+	 * @return the number of games P2 won in the last run.
+	 */
+	public long getP2Wins() {
+		return this.counts.results[2];
+	}
+
+	/**
+	 *
+	 * @return the number of drawn games in the last run.
+	 */
+	public long getDraws() {
+		return this.counts.results[3];
+	}
+
+	/**
+	 *
+	 * @return the number of moves of the games counted in the last run.
+	 */
+	public long getMoves() {
+		return this.counts.moves;
+	}
+
+	/**
+	 *
+	 * @return the number of passes in the games counted in the last run.
+	 */
+	public long getPasses() {
+		return this.counts.passCount;
+	}
+
+	/**
+	 *
+	 * @return the games counted per second in the last run.
+	 */
+	public long getGamesPerSecond() {
+		return this.elapsedNanos == 0 ? 0 : getGames() * 1000000000L / this.elapsedNanos;
+	}
+
+	/**
+	 *
+	 * @return a line about the last run, for printing.
+	 */
+	public String getStatistics() {
+		return getGames() + " games in " + this.elapsedNanos / 1000000 + " ms on " + this.threads + " threads, "
+				+ getGamesPerSecond() + " games/s";
+	}
+
+	/**
+	 * Run main to work out the statistics of a file of games, and print them.
+	 *
+	 * @param args the file of games, then optionally the format (csv or json,
+	 *             csv by default), the statistics (like "results,openings", all
+	 *             by default), the number of threads, and the number of moves
+	 *             that make an opening
+	 * @throws IOException if the file can't be read, or is not a game record
+	 */
+	public static void main(String[] args) throws IOException {
+		if (args.length < 1) {
+			System.out.println("usage: GameAnalysis games.bin [csv|json] [results,differences,lengths,passes,openings]"
+					+ " [threads] [opening moves]");
+			return;
+		}
+		GameAnalysis analysis = new GameAnalysis();
+		if (args.length > 2) {
+			String[] names = args[2].split(",");
+			Statistic[] statistics = new Statistic[names.length];
+			for (int i = 0; i < names.length; i++) {
+				statistics[i] = Statistic.valueOf(names[i].trim().toUpperCase(Locale.ROOT));
+			}
+			analysis.setStatistics(statistics);
+		}
+		if (args.length > 3) {
+			analysis.setThreads(Integer.parseInt(args[3]));
+		}
+		if (args.length > 4) {
+			analysis.setOpeningMoves(Integer.parseInt(args[4]));
+		}
+		try (GameRecordReader reader = new GameRecordReader(Path.of(args[0]))) {
+			analysis.run(reader);
+		}
+		System.out.print(args.length > 1 && args[1].equalsIgnoreCase("json") ? analysis.toJson() : analysis.toCsv());
+		System.err.println(analysis.getStatistics());
+	}
+}
@@ -0,0 +1,162 @@
+package othello;
+
+import java.io.IOException;
+
+/**
+ * The coding of one game shared by GameRecordWriter, GameRecordReader and
+ * GameDatabase: the number of moves (COUNT_BITS bits), then each move as its
+ * index among the moves the player could make, in row, then column order, in
+ * as few bits as hold the largest index. Passes are not coded, as the same
+ * player just moves again. Bits are packed first ones lowest, and a game ends
+ * on a byte boundary.
+ *
+ */
+final class GameCoder {
+
+	static final int COUNT_BITS = 6;
+	// 6 bits, and at most 60 moves of at most 6 bits: a position can have more than
+	// 32 moves, fewer than 64. That is 46 bytes, rounded up
+	static final int MAX_GAME_BYTES = 64;
+
+	// Where the last game decoded ended, in bytes
+	int end;
+
+	/**
+	 *
+	 * @param count the number of moves to choose from, at least 1
+	 * @return the number of bits to code the index of one of them.
+	 */
+	static int bitsFor(int count) {
+		return 32 - Integer.numberOfLeadingZeros(count - 1);
+	}
+
+	/**
+	 * Code a game into out.
+	 *
+	 * @param squares the squares of the moves, row * 8 + col, from the start
+	 * @param length  the number of moves, the first length of squares
+	 * @param out     where to put the game, with room for MAX_GAME_BYTES at
+	 *                offset
+	 * @param offset  where in out to start
+	 * @return where in out the game ends.
+	 * @throws IllegalArgumentException if the game makes an invalid move
+	 */
+	static int encode(int[] squares, int length, byte[] out, int offset) {
+		if (length >= 1 << COUNT_BITS) {
+			throw new IllegalArgumentException("a game of " + length + " moves");
+		}
+		long bits = length;
+		int bitCount = COUNT_BITS;
+		long own = RandomPlayout.START_P1, opp = RandomPlayout.START_P2;
+		for (int i = 0; i < length; i++) {
+			long moves = OthelloBitBoard.moves(own, opp);
+			if (moves == 0) {
+				long swap = own;
+				own = opp;
+				opp = swap;
+				moves = OthelloBitBoard.moves(own, opp);
+			}
+			int square = squares[i];
+			if (square < 0 || square > 63 || (moves & (1L << square)) == 0) {
+				throw new IllegalArgumentException("invalid move " + square + " at move " + (i + 1));
+			}
+			bits |= (long) Long.bitCount(moves & ((1L << square) - 1)) << bitCount;
+			bitCount += bitsFor(Long.bitCount(moves));
+			while (bitCount >= 8) {
+				out[offset++] = (byte) bits;
+				bits >>>= 8;
+				bitCount -= 8;
+			}
+			long flips = OthelloBitBoard.flips(square, own, opp);
+			long swap = own | flips | (1L << square);
+			own = opp & ~flips;
+			opp = swap;
+		}
+		if (bitCount > 0) {
+			out[offset++] = (byte) bits;
+		}
+		return offset;
+	}
+
+	/**
+	 * Decode the game at offset in in, and keep where it ends in end.
+	 *
+	 * @param in      the coded games
+	 * @param offset  where the game starts in in
+	 * @param limit   where the bytes that may be part of the game end
+	 * @param squares where to put the squares of the moves, at least 60 long
+	 * @return the number of moves.
+	 * @throws IOException if the game is not valid
+	 */
+	int decode(byte[] in, int offset, int limit, int[] squares) throws IOException {
+		return decode(in, offset, limit, squares, 1 << COUNT_BITS);
+	}
+
+	/**
+	 * Decode the first moves of the game at offset in in. end is only kept if
+	 * the whole game is decoded.
+	 *
+	 * @param in      the coded games
+	 * @param offset  where the game starts in in
+	 * @param limit   where the bytes that may be part of the game end
+	 * @param squares where to put the squares of the moves
+	 * @param moves   the most moves to decode
+	 * @return the number of moves of the whole game.
+	 * @throws IOException if the moves decoded are not valid
+	 */
+	int decode(byte[] in, int offset, int limit, int[] squares, int moves) throws IOException {
+		int position = offset * 8;
+		int bitLimit = limit * 8;
+		if (position + COUNT_BITS > bitLimit) {
+			throw new IOException("game cut short");
+		}
+		int length = bits(in, position, COUNT_BITS);
+		position += COUNT_BITS;
+		long own = RandomPlayout.START_P1, opp = RandomPlayout.START_P2;
+		int decoded = Math.min(length, moves);
+		for (int i = 0; i < decoded; i++) {
+			long valid = OthelloBitBoard.moves(own, opp);
+			if (valid == 0) {
+				long swap = own;
+				own = opp;
+				opp = swap;
+				valid = OthelloBitBoard.moves(own, opp);
+			}
+			int count = Long.bitCount(valid);
+			int bits = bitsFor(count);
+			if (count == 0 || position + bits > bitLimit) {
+				throw new IOException("game cut short, or not valid");
+			}
+			int index = bits(in, position, bits);
+			position += bits;
+			if (index >= count) {
+				throw new IOException("move " + (i + 1) + " is not valid");
+			}
+			int square = RandomPlayout.select(valid, index);
+			squares[i] = square;
+			long flips = OthelloBitBoard.flips(square, own, opp);
+			long swap = own | flips | (1L << square);
+			own = opp & ~flips;
+			opp = swap;
+		}
+		this.end = (position + 7) >>> 3;
+		return length;
+	}
+
+	/**
+	 *
+	 * @return the count bits at bit position of in, the first ones lowest.
+	 */
+	private static int bits(byte[] in, int position, int count) {
+		// At most 6 bits, so at most 2 bytes; a forced move takes none
+		if (count == 0) {
+			return 0;
+		}
+		int index = position >>> 3;
+		int word = in[index] & 0xff;
+		if (index + 1 < in.length) {
+			word |= (in[index + 1] & 0xff) << 8;
+		}
+		return (word >>> (position & 7)) & ((1 << count) - 1);
+	}
+}
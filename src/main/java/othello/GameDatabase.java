@@ -0,0 +1,357 @@
+package othello;
+
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * A GameDatabase answers questions about a large set of games, like which
+ * games reached a position and how they ended, without reading them all. Its
+ * files, written by GameDatabaseBuilder, are mapped into memory read only, so
+ * opening a database of any size takes no time and the operating system keeps
+ * the parts in use in memory.
+ *
+ * A database is a directory of four files, each a header of MAGIC and the
+ * number of games or entries (16 bytes), then:
+ * <ul>
+ * <li>games.bin: the games one after the other, each coded as in a
+ * GameRecordWriter block (see GameCoder),</li>
+ * <li>offsets.bin: where each game starts in games.bin, and where the last one
+ * ends (8 bytes each),</li>
+ * <li>results.bin: the final token difference, P1 tokens minus P2 tokens, of
+ * each game, or UNFINISHED (1 byte each),</li>
+ * <li>positions.bin: the position index, an entry for each position after each
+ * move of each game, sorted by the key of the position as an unsigned number:
+ * the key (8 bytes), the game (4 bytes), and the number of moves made to reach
+ * the position (4 bytes).</li>
+ * </ul>
+ * All numbers are big-endian. Keys are canonical (see Symmetry), so a lookup
+ * finds every turn and reflection of a position, and a binary search finds the
+ * entries for a position in about 30 steps however many games there are. The
+ * start position is not in the index, as every game starts from it.
+ *
+ */
+public class GameDatabase implements AutoCloseable {
+
+	public static final long MAGIC = 0x4f7468656c6c6f44L; // "OthelloD"
+	public static final int UNFINISHED = Byte.MIN_VALUE;
+	static final int HEADER_BYTES = 16;
+	static final int ENTRY_BYTES = 16;
+	static final String GAMES = "games.bin", OFFSETS = "offsets.bin", RESULTS = "results.bin",
+			POSITIONS = "positions.bin";
+
+	private static final ValueLayout.OfLong LONG = ValueLayout.JAVA_LONG.withOrder(ByteOrder.BIG_ENDIAN);
+	private static final ValueLayout.OfInt INT = ValueLayout.JAVA_INT.withOrder(ByteOrder.BIG_ENDIAN);
+
+	private final Arena arena;
+	private final MemorySegment games, offsets, results, positions;
+	private final int gameCount;
+	private final long entries;
+
+	private GameDatabase(Arena arena, MemorySegment games, MemorySegment offsets, MemorySegment results,
+			MemorySegment positions) {
+		this.arena = arena;
+		this.games = games;
+		this.offsets = offsets;
+		this.results = results;
+		this.positions = positions;
+		this.gameCount = (int) offsets.get(LONG, 8);
+		this.entries = positions.get(LONG, 8);
+	}
+
+	/**
+	 * Open the database in dir, mapping its files read only.
+	 *
+	 * @param dir a database written by GameDatabaseBuilder
+	 * @return the database.
+	 * @throws IOException if the files can't be read, or are not a database
+	 */
+	public static GameDatabase open(Path dir) throws IOException {
+		Arena arena = Arena.ofShared();
+		try {
+			MemorySegment games = map(dir.resolve(GAMES), arena);
+			MemorySegment offsets = map(dir.resolve(OFFSETS), arena);
+			MemorySegment results = map(dir.resolve(RESULTS), arena);
+			MemorySegment positions = map(dir.resolve(POSITIONS), arena);
+			long count = offsets.get(LONG, 8);
+			if (count < 0 || count > Integer.MAX_VALUE || games.get(LONG, 8) != count || results.get(LONG, 8) != count
+					|| offsets.byteSize() != HEADER_BYTES + (count + 1) * Long.BYTES
+					|| results.byteSize() != HEADER_BYTES + count
+					|| offsets.get(LONG, HEADER_BYTES + count * Long.BYTES) != games.byteSize()
+					|| positions.byteSize() != HEADER_BYTES + positions.get(LONG, 8) * ENTRY_BYTES) {
+				throw new IOException(dir + " is not a game database");
+			}
+			return new GameDatabase(arena, games, offsets, results, positions);
+		} catch (IOException | RuntimeException e) {
+			arena.close();
+			throw e;
+		}
+	}
+
+	private static MemorySegment map(Path file, Arena arena) throws IOException {
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			MemorySegment segment = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size(), arena);
+			if (segment.byteSize() < HEADER_BYTES || segment.get(LONG, 0) != MAGIC) {
+				throw new IOException(file + " is not part of a game database");
+			}
+			return segment;
+		}
+	}
+
+	/**
+	 * Put count in the header of file, once it is known.
+	 */
+	static void writeCount(Path file, long count) throws IOException {
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+			ByteBuffer buffer = ByteBuffer.allocate(Long.BYTES).putLong(0, count);
+			channel.write(buffer, 8);
+		}
+	}
+
+	/**
+	 * The key positions are kept under: canonical, and the same whoever is to
+	 * move once the game is over.
+	 *
+	 * @param p1     the tokens of P1
+	 * @param p2     the tokens of P2
+	 * @param toMove P1 or P2
+	 * @return the key of the position.
+	 */
+	public static long key(long p1, long p2, char toMove) {
+		if (OthelloBitBoard.moves(p1, p2) == 0 && OthelloBitBoard.moves(p2, p1) == 0) {
+			toMove = OthelloBoard.P1;
+		}
+		return Symmetry.canonicalKey(p1, p2, toMove);
+	}
+
+	/**
+	 *
+	 * @param othello a game on an 8x8 board
+	 * @return the key of its current position.
+	 */
+	public static long key(Othello othello) {
+		OthelloBitBoard board = new OthelloBitBoard(othello.board);
+		return key(board.getMask(OthelloBoard.P1), board.getMask(OthelloBoard.P2), othello.getWhosTurn());
+	}
+
+	/**
+	 *
+	 * @return the number of games.
+	 */
+	public int getGames() {
+		return this.gameCount;
+	}
+
+	/**
+	 *
+	 * @return the number of entries in the position index.
+	 */
+	public long getEntries() {
+		return this.entries;
+	}
+
+	/**
+	 * Find the entries for a position.
+	 *
+	 * @param key the key of the position, see key()
+	 * @return the index of the first entry for key, or -1 if no game reached the
+	 *         position.
+	 */
+	public long find(long key) {
+		long low = 0, high = this.entries - 1;
+		while (low <= high) {
+			long middle = (low + high) >>> 1;
+			if (Long.compareUnsigned(getKey(middle), key) < 0) {
+				low = middle + 1;
+			} else {
+				high = middle - 1;
+			}
+		}
+		return low < this.entries && getKey(low) == key ? low : -1;
+	}
+
+	/**
+	 *
+	 * @param key the key of the position, see key()
+	 * @return the number of games that reached the position.
+	 */
+	public long count(long key) {
+		long first = find(key);
+		if (first < 0) {
+			return 0;
+		}
+		long entry = first;
+		while (entry < this.entries && getKey(entry) == key) {
+			entry++;
+		}
+		return entry - first;
+	}
+
+	/**
+	 * How the games that reached a position ended.
+	 *
+	 * @param key the key of the position, see key()
+	 * @return the number of those games won by P1, won by P2, drawn, and not
+	 *         finished.
+	 */
+	public long[] results(long key) {
+		long[] results = new long[4];
+		long first = find(key);
+		for (long entry = first; first >= 0 && entry < this.entries && getKey(entry) == key; entry++) {
+			int result = getResult(getGame(entry));
+			results[result == UNFINISHED ? 3 : (result > 0 ? 0 : (result < 0 ? 1 : 2))]++;
+		}
+		return results;
+	}
+
+	/**
+	 * The games that start with the moves of prefix, exactly: the games that
+	 * reached the position after them, by those moves.
+	 *
+	 * @param prefix the squares of the first moves, row * 8 + col, at least one
+	 * @param limit  the most games to return
+	 * @return the games, in the order they were added.
+	 * @throws IllegalArgumentException if prefix is empty, or makes an invalid
+	 *                                  move
+	 */
+	public int[] findGames(int[] prefix, int limit) {
+		Othello othello = new Othello();
+		for (int i = 0; i < prefix.length; i++) {
+			if (!othello.move(prefix[i] / 8, prefix[i] % 8)) {
+				throw new IllegalArgumentException("invalid move " + prefix[i] + " at move " + (i + 1));
+			}
+		}
+		if (prefix.length == 0) {
+			throw new IllegalArgumentException("every game starts from the start position");
+		}
+		long key = key(othello);
+		int[] found = new int[Math.min(limit, 64)];
+		int count = 0;
+		int[] squares = new int[64];
+		byte[] bytes = new byte[GameCoder.MAX_GAME_BYTES];
+		GameCoder coder = new GameCoder();
+		long first = find(key);
+		for (long entry = first; first >= 0 && entry < this.entries && getKey(entry) == key && count < limit; entry++) {
+			if (getPly(entry) != prefix.length) {
+				continue;
+			}
+			int game = getGame(entry);
+			readGame(game, squares, prefix.length, bytes, coder);
+			if (Arrays.equals(squares, 0, prefix.length, prefix, 0, prefix.length)) {
+				if (count == found.length) {
+					found = Arrays.copyOf(found, 2 * found.length);
+				}
+				found[count++] = game;
+			}
+		}
+		return Arrays.copyOf(found, count);
+	}
+
+	/**
+	 *
+	 * @param entry the index of an entry
+	 * @return the key of the position of entry.
+	 */
+	public long getKey(long entry) {
+		return this.positions.get(LONG, HEADER_BYTES + entry * ENTRY_BYTES);
+	}
+
+	/**
+	 *
+	 * @param entry the index of an entry
+	 * @return the game that reached the position of entry.
+	 */
+	public int getGame(long entry) {
+		return this.positions.get(INT, HEADER_BYTES + entry * ENTRY_BYTES + 8);
+	}
+
+	/**
+	 *
+	 * @param entry the index of an entry
+	 * @return the number of moves the game of entry made to reach its position.
+	 */
+	public int getPly(long entry) {
+		return this.positions.get(INT, HEADER_BYTES + entry * ENTRY_BYTES + 12);
+	}
+
+	/**
+	 *
+	 * @param game a game, in {0,...,getGames()-1}
+	 * @return its final token difference, P1 tokens minus P2 tokens, or
+	 *         UNFINISHED.
+	 */
+	public int getResult(int game) {
+		return this.results.get(ValueLayout.JAVA_BYTE, HEADER_BYTES + game);
+	}
+
+	/**
+	 * Read the moves of a game.
+	 *
+	 * @param game    a game, in {0,...,getGames()-1}
+	 * @param squares where to put the squares of the moves, at least 60 long
+	 * @return the number of moves.
+	 * @throws IllegalStateException if the game is not valid
+	 */
+	public int readGame(int game, int[] squares) {
+		return readGame(game, squares, 1 << GameCoder.COUNT_BITS, new byte[GameCoder.MAX_GAME_BYTES], new GameCoder());
+	}
+
+	private int readGame(int game, int[] squares, int moves, byte[] bytes, GameCoder coder) {
+		long start = this.offsets.get(LONG, HEADER_BYTES + (long) game * Long.BYTES);
+		long end = this.offsets.get(LONG, HEADER_BYTES + (long) (game + 1) * Long.BYTES);
+		int length = (int) Math.min(end - start, bytes.length);
+		MemorySegment.copy(this.games, ValueLayout.JAVA_BYTE, start, bytes, 0, length);
+		try {
+			return coder.decode(bytes, 0, length, squares, moves);
+		} catch (IOException e) {
+			throw new IllegalStateException("game " + game + " is not valid", e);
+		}
+	}
+
+	/**
+	 * Unmap the files. The database can't be used after.
+	 */
+	@Override
+	public void close() {
+		this.arena.close();
+	}
+
+	/**
+	 * Run main to look up a position in a database, given by the moves to it.
+	 *
+	 * @param args the database directory, and the moves like "c5e6"
+	 * @throws IOException if the database can't be read
+	 */
+	public static void main(String[] args) throws IOException {
+		if (args.length < 2) {
+			System.out.println("usage: GameDatabase dir moves");
+			return;
+		}
+		try (GameDatabase database = GameDatabase.open(Path.of(args[0]))) {
+			int[] prefix = OpeningBookBuilder.parse(args[1]);
+			Othello othello = new Othello();
+			for (int square : prefix) {
+				if (!othello.move(square / 8, square % 8)) {
+					throw new IllegalArgumentException("invalid move " + square + " in " + args[1]);
+				}
+			}
+			long start = System.nanoTime();
+			long key = key(othello);
+			long[] results = database.results(key);
+			int[] games = database.findGames(prefix, Integer.MAX_VALUE);
+			long micros = (System.nanoTime() - start) / 1000;
+			System.out.println(othello.getBoardString());
+			System.out.println(database.count(key) + " of " + database.getGames() + " games reached this position: "
+					+ OthelloBoard.P1 + " won " + results[0] + ", " + OthelloBoard.P2 + " won " + results[1] + ", "
+					+ results[2] + " draws, " + results[3] + " unfinished");
+			System.out.println(games.length + " games started with " + args[1] + ", looked up in " + micros + " us");
+		}
+	}
+}
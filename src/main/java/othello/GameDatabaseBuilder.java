@@ -0,0 +1,346 @@
+package othello;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * GameDatabaseBuilder writes the files of a GameDatabase from games added one
+ * at a time, keeping only a run of index entries in memory however many games
+ * there are.
+ *
+ * Games are appended to the game files as they come. The canonical key of
+ * each position the game reaches (see Symmetry) goes into a run of index
+ * entries; a full run is sorted by key and written out, and when the database
+ * is closed the runs are merged into the position index. At most MERGE_RUNS
+ * runs are merged at a time, each read through its own buffer, so with more
+ * runs than that they are first merged into fewer, longer runs, as many times
+ * as it takes.
+ *
+ */
+public class GameDatabaseBuilder implements AutoCloseable {
+
+	public static final int DEFAULT_RUN_ENTRIES = 1 << 21; // 32 MB of keys and values, twice over for sorting
+	public static final int MERGE_RUNS = 64; // runs open at once, 4 MB of buffers
+
+	private final Path dir;
+	private final DataOutputStream gameBytes, offsets, results;
+	private final byte[] coded = new byte[GameCoder.MAX_GAME_BYTES];
+	private long offset;
+	private int games;
+	private int plies = 60;
+
+	// The run of index entries being filled: keys, and game << 32 | ply
+	private final long[] keys, values;
+	private int runEntries;
+	private final List<Path> runs = new ArrayList<>();
+	private final int mergeRuns;
+	private long entries;
+
+	/**
+	 * Constructs a new GameDatabaseBuilder writing a database to dir, replacing
+	 * any there.
+	 *
+	 * @param dir where to write the database, made if need be
+	 * @throws IOException if the files can't be written
+	 */
+	public GameDatabaseBuilder(Path dir) throws IOException {
+		this(dir, DEFAULT_RUN_ENTRIES);
+	}
+
+	GameDatabaseBuilder(Path dir, int runEntries) throws IOException {
+		this(dir, runEntries, MERGE_RUNS);
+	}
+
+	GameDatabaseBuilder(Path dir, int runEntries, int mergeRuns) throws IOException {
+		this.mergeRuns = mergeRuns;
+		this.dir = Files.createDirectories(dir);
+		this.gameBytes = open(GameDatabase.GAMES);
+		this.offsets = open(GameDatabase.OFFSETS);
+		this.results = open(GameDatabase.RESULTS);
+		this.gameBytes.writeLong(GameDatabase.MAGIC);
+		this.gameBytes.writeLong(0);
+		this.offsets.writeLong(GameDatabase.MAGIC);
+		this.offsets.writeLong(0);
+		this.results.writeLong(GameDatabase.MAGIC);
+		this.results.writeLong(0);
+		this.offset = GameDatabase.HEADER_BYTES;
+		this.keys = new long[runEntries];
+		this.values = new long[runEntries];
+	}
+
+	private DataOutputStream open(String name) throws IOException {
+		return new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(this.dir.resolve(name)), 1 << 16));
+	}
+
+	/**
+	 *
+	 * @param plies the number of moves from the start of each game whose
+	 *              positions are indexed; all of them, 60, by default
+	 */
+	public void setPlies(int plies) {
+		this.plies = plies;
+	}
+
+	/**
+	 * Add a game.
+	 *
+	 * @param squares the squares of the moves, row * 8 + col, from the start
+	 * @param length  the number of moves, the first length of squares
+	 * @throws IOException              if the game can't be written
+	 * @throws IllegalArgumentException if the game makes an invalid move
+	 */
+	public void add(int[] squares, int length) throws IOException {
+		int bytes = GameCoder.encode(squares, length, this.coded, 0);
+		int game = this.games++;
+		this.offsets.writeLong(this.offset);
+		this.gameBytes.write(this.coded, 0, bytes);
+		this.offset += bytes;
+
+		// Every position after a move; the start position is in every game
+		OthelloBitBoard board = new OthelloBitBoard();
+		char player = OthelloBoard.P1;
+		for (int i = 0; i < length; i++) {
+			if (board.getMoveMask(player) == 0) {
+				player = OthelloBoard.otherPlayer(player);
+			}
+			board.play(squares[i], player);
+			player = OthelloBoard.otherPlayer(player);
+			if (i < this.plies) {
+				long p1 = board.getMask(OthelloBoard.P1), p2 = board.getMask(OthelloBoard.P2);
+				char toMove = board.getMoveMask(player) != 0 ? player : OthelloBoard.otherPlayer(player);
+				addEntry(GameDatabase.key(p1, p2, toMove), (long) game << 32 | (i + 1));
+			}
+		}
+		int result = GameDatabase.UNFINISHED;
+		if (board.hasMove() == OthelloBoard.EMPTY) {
+			result = board.getCount(OthelloBoard.P1) - board.getCount(OthelloBoard.P2);
+		}
+		this.results.writeByte(result);
+	}
+
+	/**
+	 * Add every game from reader.
+	 *
+	 * @param reader games from a GameRecordWriter
+	 * @throws IOException if the games can't be read or written
+	 */
+	public void addAll(GameRecordReader reader) throws IOException {
+		int[] squares = new int[64];
+		for (int length = reader.read(squares); length >= 0; length = reader.read(squares)) {
+			add(squares, length);
+		}
+	}
+
+	/**
+	 *
+	 * @return the number of games added.
+	 */
+	public int getGames() {
+		return this.games;
+	}
+
+	private void addEntry(long key, long value) throws IOException {
+		if (this.runEntries == this.keys.length) {
+			writeRun();
+		}
+		this.keys[this.runEntries] = key;
+		this.values[this.runEntries] = value;
+		this.runEntries++;
+		this.entries++;
+	}
+
+	/**
+	 * Sort the run by key, and write it out.
+	 */
+	private void writeRun() throws IOException {
+		sort(this.keys, this.values, this.runEntries);
+		Path run = this.dir.resolve("run" + this.runs.size() + ".tmp");
+		try (DataOutputStream out = new DataOutputStream(
+				new BufferedOutputStream(Files.newOutputStream(run), 1 << 16))) {
+			for (int i = 0; i < this.runEntries; i++) {
+				out.writeLong(this.keys[i]);
+				out.writeLong(this.values[i]);
+			}
+		}
+		this.runs.add(run);
+		this.runEntries = 0;
+	}
+
+	/**
+	 * Sort keys as unsigned numbers, moving values along with them, by a radix
+	 * sort of 16 bits at a time. It is stable, so entries with the same key stay
+	 * in the order they were added.
+	 */
+	static void sort(long[] keys, long[] values, int length) {
+		long[] fromKeys = keys, fromValues = values;
+		long[] toKeys = new long[length], toValues = new long[length];
+		int[] counts = new int[1 << 16];
+		for (int shift = 0; shift < 64; shift += 16) {
+			Arrays.fill(counts, 0);
+			for (int i = 0; i < length; i++) {
+				counts[(int) (fromKeys[i] >>> shift) & 0xffff]++;
+			}
+			int total = 0;
+			for (int digit = 0; digit < counts.length; digit++) {
+				int count = counts[digit];
+				counts[digit] = total;
+				total += count;
+			}
+			for (int i = 0; i < length; i++) {
+				int to = counts[(int) (fromKeys[i] >>> shift) & 0xffff]++;
+				toKeys[to] = fromKeys[i];
+				toValues[to] = fromValues[i];
+			}
+			long[] swap = fromKeys;
+			fromKeys = toKeys;
+			toKeys = swap;
+			swap = fromValues;
+			fromValues = toValues;
+			toValues = swap;
+		}
+		// 4 passes, so the sorted entries are back in keys and values
+	}
+
+	/**
+	 * A run being merged, with its next entry.
+	 */
+	private static class Run {
+		final DataInputStream in;
+		final int order;
+		long key, value;
+
+		Run(Path file, int order) throws IOException {
+			this.in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 1 << 16));
+			this.order = order;
+		}
+
+		boolean next() throws IOException {
+			try {
+				this.key = this.in.readLong();
+				this.value = this.in.readLong();
+				return true;
+			} catch (EOFException e) {
+				return false;
+			}
+		}
+	}
+
+	/**
+	 * Write the last run, merge the runs into the position index, and finish the
+	 * game files.
+	 *
+	 * @throws IOException if the files can't be written
+	 */
+	@Override
+	public void close() throws IOException {
+		this.offsets.writeLong(this.offset); // where the last game ends
+		this.gameBytes.close();
+		this.offsets.close();
+		this.results.close();
+		for (String name : new String[] { GameDatabase.GAMES, GameDatabase.OFFSETS, GameDatabase.RESULTS }) {
+			GameDatabase.writeCount(this.dir.resolve(name), this.games);
+		}
+		if (this.runEntries > 0 || this.runs.isEmpty()) {
+			writeRun();
+		}
+
+		List<Path> runs = this.runs, files = new ArrayList<>(this.runs);
+		try {
+			// Merge MERGE_RUNS runs at a time into longer ones, in order, so ties still
+			// go to the earlier game
+			while (runs.size() > this.mergeRuns) {
+				List<Path> merged = new ArrayList<>();
+				for (int from = 0; from < runs.size(); from += this.mergeRuns) {
+					List<Path> group = runs.subList(from, Math.min(from + this.mergeRuns, runs.size()));
+					Path run = this.dir.resolve("merged" + files.size() + ".tmp");
+					files.add(run);
+					try (DataOutputStream out = new DataOutputStream(
+							new BufferedOutputStream(Files.newOutputStream(run), 1 << 16))) {
+						merge(group, out);
+					}
+					for (Path done : group) {
+						Files.delete(done);
+					}
+					merged.add(run);
+				}
+				runs = merged;
+			}
+			try (DataOutputStream out = open(GameDatabase.POSITIONS)) {
+				out.writeLong(GameDatabase.MAGIC);
+				out.writeLong(this.entries);
+				merge(runs, out);
+			}
+		} finally {
+			for (Path file : files) {
+				Files.deleteIfExists(file);
+			}
+		}
+	}
+
+	/**
+	 * Merge runs into out, ties going to the earlier run, so entries stay in
+	 * game order.
+	 */
+	private static void merge(List<Path> runs, DataOutputStream out) throws IOException {
+		PriorityQueue<Run> queue = new PriorityQueue<>((a, b) -> a.key != b.key
+				? Long.compareUnsigned(a.key, b.key) : Integer.compare(a.order, b.order));
+		try {
+			for (int i = 0; i < runs.size(); i++) {
+				Run run = new Run(runs.get(i), i);
+				if (run.next()) {
+					queue.add(run);
+				} else {
+					run.in.close();
+				}
+			}
+			while (!queue.isEmpty()) {
+				Run run = queue.poll();
+				out.writeLong(run.key);
+				out.writeLong(run.value);
+				if (run.next()) {
+					queue.add(run);
+				} else {
+					run.in.close();
+				}
+			}
+		} finally {
+			for (Run run : queue) {
+				run.in.close();
+			}
+		}
+	}
+
+	/**
+	 * Run main to build a database from files of games written by a
+	 * GameRecordWriter.
+	 *
+	 * @param args the directory to write the database to, then the files of games
+	 * @throws IOException if a file can't be read or written
+	 */
+	public static void main(String[] args) throws IOException {
+		if (args.length < 2) {
+			System.out.println("usage: GameDatabaseBuilder dir games.bin...");
+			return;
+		}
+		long start = System.nanoTime();
+		try (GameDatabaseBuilder builder = new GameDatabaseBuilder(Path.of(args[0]))) {
+			for (int i = 1; i < args.length; i++) {
+				try (GameRecordReader reader = new GameRecordReader(Path.of(args[i]))) {
+					builder.addAll(reader);
+				}
+			}
+			System.out.print(builder.getGames() + " games, " + builder.entries + " positions");
+		}
+		System.out.println(" in " + (System.nanoTime() - start) / 1000000 + " ms");
+	}
+}
@@ -0,0 +1,51 @@
+package othello;
+
+/**
+ * A GameListener is told what happens in a game played by an
+ * OthelloController: when it starts, each move, each pass, and when it ends.
+ * Every method does nothing unless overridden, so a listener only needs the
+ * ones it cares about.
+ *
+ * A controller without a listener skips the calls altogether, so games played
+ * in batches pay nothing for them.
+ *
+ */
+public interface GameListener {
+
+	/**
+	 * Called once before the first move.
+	 *
+	 * @param othello the game, at its start
+	 */
+	default void gameStarted(Othello othello) {
+	}
+
+	/**
+	 * Called after each move is made.
+	 *
+	 * @param othello the game, after the move
+	 * @param player  the player who made the move, P1 or P2
+	 * @param move    the move made
+	 */
+	default void moveMade(Othello othello, char player, Move move) {
+	}
+
+	/**
+	 * Called after a move that leaves the other player without a move, so the
+	 * player who made it moves again.
+	 *
+	 * @param othello the game, after the move
+	 * @param player  the player who passes, P1 or P2
+	 */
+	default void passed(Othello othello, char player) {
+	}
+
+	/**
+	 * Called once when neither player can move.
+	 *
+	 * @param othello the game, at its end
+	 * @param winner  P1, P2, or EMPTY for a draw
+	 */
+	default void gameEnded(Othello othello, char winner) {
+	}
+}
@@ -0,0 +1,235 @@
+package othello;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * GameRecordReader reads back, one at a time, the games written by a
+ * GameRecordWriter, replaying each to turn the indexes of its moves back into
+ * squares. It keeps no more than one block of games in memory.
+ *
+ * Threads can share the games of one stream: each makes its own reader with
+ * GameRecordReader(GameRecordReader), and takes blocks from the shared reader
+ * with readBlock(GameRecordReader). Only the reading of the stream is done one
+ * thread at a time; blocks are inflated and decoded by the thread that takes
+ * them.
+ *
+ */
+public class GameRecordReader implements AutoCloseable {
+
+	private final DataInputStream in;
+	private final Inflater inflater;
+	private final byte[] block = new byte[GameRecordWriter.BLOCK_BYTES + GameCoder.MAX_GAME_BYTES];
+	private byte[] stored;
+	private final GameCoder coder = new GameCoder();
+	private int blockBytes, storedBytes, blockGames, position;
+	private long games;
+
+	/**
+	 * Constructs a new GameRecordReader reading from in, which it closes when it
+	 * is closed.
+	 *
+	 * @param in where to read the games from
+	 * @throws IOException if the header can't be read, or is not a header
+	 */
+	public GameRecordReader(InputStream in) throws IOException {
+		this.in = new DataInputStream(new BufferedInputStream(in, 1 << 16));
+		long magic;
+		int flags;
+		try {
+			magic = this.in.readLong();
+			flags = this.in.readInt();
+		} catch (EOFException e) {
+			throw new IOException("not a game record", e);
+		}
+		if (magic != GameRecordWriter.MAGIC || (flags & ~1) != 0) {
+			throw new IOException("not a game record");
+		}
+		this.inflater = flags == 1 ? new Inflater() : null;
+	}
+
+	/**
+	 * Constructs a new GameRecordReader reading from file.
+	 *
+	 * @param file where to read the games from
+	 * @throws IOException if file can't be read, or is not a game record
+	 */
+	public GameRecordReader(Path file) throws IOException {
+		this(Files.newInputStream(file));
+	}
+
+	/**
+	 * Constructs a new GameRecordReader that reads the blocks it is given by
+	 * source.readBlock(GameRecordReader), and none of its own.
+	 *
+	 * @param source the reader of the stream
+	 */
+	public GameRecordReader(GameRecordReader source) {
+		this.in = null;
+		this.inflater = source.inflater == null ? null : new Inflater();
+	}
+
+	/**
+	 * Read the next game.
+	 *
+	 * @param squares where to put the squares of the moves, row * 8 + col, at
+	 *                least 60 long
+	 * @return the number of moves in the game, or -1 if there are no more games,
+	 *         or no more in the block given to a reader that reads none of its
+	 *         own.
+	 * @throws IOException if a block can't be read, or is not valid
+	 */
+	public int read(int[] squares) throws IOException {
+		if (this.blockGames == 0 && (this.in == null || !readBlock())) {
+			return -1;
+		}
+		int length;
+		try {
+			length = this.coder.decode(this.block, this.position, this.blockBytes, squares);
+		} catch (IOException e) {
+			throw new IOException("game " + (this.games + 1) + ": " + e.getMessage(), e);
+		}
+		this.position = this.coder.end;
+		this.blockGames--;
+		this.games++;
+		return length;
+	}
+
+	/**
+	 * Hand the next block of games to a reader made by
+	 * GameRecordReader(GameRecordReader) from this one, which then reads the
+	 * games of the block. Any number of threads can take blocks at once.
+	 *
+	 * @param to the reader to read the block, which must have read all of its
+	 *           last one
+	 * @return whether there was a block.
+	 * @throws IOException if the block can't be read, or is not valid
+	 */
+	public boolean readBlock(GameRecordReader to) throws IOException {
+		synchronized (this) {
+			if (!to.readStored(this.in, this.games)) {
+				return false;
+			}
+			this.games += to.blockGames;
+		}
+		return to.inflate();
+	}
+
+	private boolean readBlock() throws IOException {
+		return readStored(this.in, this.games) && inflate();
+	}
+
+	/**
+	 * Read the next block from in as it is stored.
+	 *
+	 * @param games the number of games before the block, for errors
+	 */
+	private boolean readStored(DataInputStream in, long games) throws IOException {
+		int blockGames;
+		try {
+			blockGames = in.readInt();
+		} catch (EOFException e) {
+			return false;
+		}
+		int blockBytes = in.readInt(), storedBytes = in.readInt();
+		if (blockGames <= 0 || blockBytes < 0 || storedBytes < 0 || blockBytes > this.block.length
+				|| (this.inflater == null && storedBytes != blockBytes)) {
+			throw new IOException("block after game " + games + " is not valid");
+		}
+		if (this.inflater == null) {
+			in.readFully(this.block, 0, blockBytes);
+		} else {
+			if (this.stored == null || this.stored.length < storedBytes) {
+				this.stored = new byte[Math.max(storedBytes, this.block.length)];
+			}
+			in.readFully(this.stored, 0, storedBytes);
+		}
+		this.blockGames = blockGames;
+		this.blockBytes = blockBytes;
+		this.storedBytes = storedBytes;
+		this.position = 0;
+		return true;
+	}
+
+	private boolean inflate() throws IOException {
+		if (this.inflater == null) {
+			return true;
+		}
+		this.inflater.reset();
+		this.inflater.setInput(this.stored, 0, this.storedBytes);
+		try {
+			if (this.inflater.inflate(this.block, 0, this.blockBytes) != this.blockBytes
+					|| !this.inflater.finished()) {
+				throw new IOException("block after game " + this.games + " is not valid");
+			}
+		} catch (DataFormatException e) {
+			throw new IOException("block after game " + this.games + " is not valid", e);
+		}
+		return true;
+	}
+
+	/**
+	 *
+	 * @return the number of games read, or handed to other readers in blocks.
+	 */
+	public long getGames() {
+		return this.games;
+	}
+
+	@Override
+	public void close() throws IOException {
+		if (this.in != null) {
+			this.in.close();
+		}
+		if (this.inflater != null) {
+			this.inflater.end();
+		}
+	}
+
+	/**
+	 * Run main to replay every game in a file, and print how many there are,
+	 * how they ended, and how many bytes each takes.
+	 *
+	 * @param args the file of games
+	 * @throws IOException if the file can't be read, or is not a game record
+	 */
+	public static void main(String[] args) throws IOException {
+		if (args.length < 1) {
+			System.out.println("usage: GameRecordReader games.bin");
+			return;
+		}
+		Path file = Path.of(args[0]);
+		long moves = 0, p1Wins = 0, p2Wins = 0;
+		int[] squares = new int[64];
+		long start = System.nanoTime();
+		try (GameRecordReader reader = new GameRecordReader(file)) {
+			for (int length = reader.read(squares); length >= 0; length = reader.read(squares)) {
+				moves += length;
+				// Replay the game to see who won
+				Othello othello = new Othello();
+				for (int i = 0; i < length; i++) {
+					othello.move(squares[i] / 8, squares[i] % 8);
+				}
+				char winner = othello.getWinner();
+				if (winner == OthelloBoard.P1) {
+					p1Wins++;
+				} else if (winner == OthelloBoard.P2) {
+					p2Wins++;
+				}
+			}
+			long games = reader.getGames();
+			long millis = (System.nanoTime() - start) / 1000000;
+			System.out.println(games + " games, " + moves + " moves, " + Files.size(file) + " bytes ("
+					+ (games == 0 ? 0 : (float) Files.size(file) / games) + " a game), read in " + millis + " ms");
+			System.out.println(OthelloBoard.P1 + " won " + p1Wins + ", " + OthelloBoard.P2 + " won " + p2Wins + ", "
+					+ (games - p1Wins - p2Wins) + " draws");
+		}
+	}
+}
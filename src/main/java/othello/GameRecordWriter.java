@@ -0,0 +1,162 @@
+package othello;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.zip.Deflater;
+
+/**
+ * GameRecordWriter writes games to a stream in a compact binary format, one
+ * game at a time, keeping no more than one block of them in memory. Read them
+ * back with GameRecordReader.
+ *
+ * Every game starts from the start position, so a game is just its moves, and
+ * each move is written as its index among the moves the player could make,
+ * in row, then column order: no bits at all when there is only one move, 1 bit
+ * for two, 2 bits for three or four, and so on (see GameCoder). Passes are not
+ * written, as the same player just moves again. A game is the number of its
+ * moves (6 bits) followed by its moves, about 20 bytes for a game of 60 moves.
+ *
+ * The stream is a header, MAGIC and whether blocks are compressed (12 bytes),
+ * then blocks: the number of games in the block, the number of bytes of games,
+ * and the number of bytes stored (4 bytes each), then the stored bytes, which
+ * are compressed with a Deflater if the header says so. A block holds about
+ * BLOCK_BYTES of games, and each game starts on a byte boundary.
+ *
+ * A GameRecordWriter can be shared by threads, which write whole games at a
+ * time.
+ *
+ */
+public class GameRecordWriter implements AutoCloseable {
+
+	public static final long MAGIC = 0x4f7468656c6c6f47L; // "OthelloG"
+	public static final int BLOCK_BYTES = 1 << 16;
+
+	private final DataOutputStream out;
+	private final Deflater deflater;
+	private final byte[] block = new byte[BLOCK_BYTES + GameCoder.MAX_GAME_BYTES];
+	private byte[] compressed;
+	private int blockBytes, blockGames;
+	private long games;
+
+	/**
+	 * Constructs a new GameRecordWriter writing to out, which it closes when it is
+	 * closed.
+	 *
+	 * @param out      where to write the games
+	 * @param compress whether to compress the blocks
+	 * @throws IOException if the header can't be written
+	 */
+	public GameRecordWriter(OutputStream out, boolean compress) throws IOException {
+		this.out = new DataOutputStream(new BufferedOutputStream(out, 1 << 16));
+		this.deflater = compress ? new Deflater() : null;
+		this.compressed = compress ? new byte[this.block.length] : null;
+		this.out.writeLong(MAGIC);
+		this.out.writeInt(compress ? 1 : 0);
+	}
+
+	/**
+	 * Constructs a new GameRecordWriter writing to file, replacing it.
+	 *
+	 * @param file     where to write the games
+	 * @param compress whether to compress the blocks
+	 * @throws IOException if file can't be written
+	 */
+	public GameRecordWriter(Path file, boolean compress) throws IOException {
+		this(Files.newOutputStream(file), compress);
+	}
+
+	/**
+	 * Write a game.
+	 *
+	 * @param squares the squares of the moves, row * 8 + col, from the start
+	 * @param length  the number of moves, the first length of squares
+	 * @throws IOException              if a block can't be written
+	 * @throws IllegalArgumentException if the game makes an invalid move
+	 */
+	public synchronized void write(int[] squares, int length) throws IOException {
+		this.blockBytes = GameCoder.encode(squares, length, this.block, this.blockBytes);
+		this.blockGames++;
+		this.games++;
+		if (this.blockBytes >= BLOCK_BYTES) {
+			flushBlock();
+		}
+	}
+
+	/**
+	 * Write a game.
+	 *
+	 * @param squares the squares of all the moves of the game
+	 * @throws IOException              if a block can't be written
+	 * @throws IllegalArgumentException if the game makes an invalid move
+	 */
+	public void write(int[] squares) throws IOException {
+		write(squares, squares.length);
+	}
+
+	private void flushBlock() throws IOException {
+		if (this.blockGames == 0) {
+			return;
+		}
+		byte[] stored = this.block;
+		int storedBytes = this.blockBytes;
+		if (this.deflater != null) {
+			this.deflater.reset();
+			this.deflater.setInput(this.block, 0, this.blockBytes);
+			this.deflater.finish();
+			storedBytes = 0;
+			while (!this.deflater.finished()) {
+				if (storedBytes == this.compressed.length) {
+					this.compressed = Arrays.copyOf(this.compressed, 2 * this.compressed.length);
+				}
+				storedBytes += this.deflater.deflate(this.compressed, storedBytes, this.compressed.length - storedBytes);
+			}
+			stored = this.compressed;
+		}
+		this.out.writeInt(this.blockGames);
+		this.out.writeInt(this.blockBytes);
+		this.out.writeInt(storedBytes);
+		this.out.write(stored, 0, storedBytes);
+		this.blockGames = 0;
+		this.blockBytes = 0;
+	}
+
+	/**
+	 *
+	 * @return the number of games written.
+	 */
+	public synchronized long getGames() {
+		return this.games;
+	}
+
+	/**
+	 * Write out the games not yet written, without closing the stream.
+	 *
+	 * @throws IOException if they can't be written
+	 */
+	public synchronized void flush() throws IOException {
+		flushBlock();
+		this.out.flush();
+	}
+
+	/**
+	 * Write out the last block, and close the stream.
+	 *
+	 * @throws IOException if the last block can't be written
+	 */
+	@Override
+	public synchronized void close() throws IOException {
+		try {
+			flushBlock();
+		} finally {
+			this.out.close();
+			if (this.deflater != null) {
+				this.deflater.end();
+			}
+		}
+	}
+}
@@ -0,0 +1,60 @@
+package othello;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * GameRecorder is a GameListener that writes each game played to a
+ * GameRecordWriter when it ends. Set one on every controller whose games should
+ * be kept; they can all share the writer.
+ *
+ */
+public class GameRecorder implements GameListener {
+
+	private final GameRecordWriter writer;
+	private final int[] squares = new int[64];
+	private int length;
+
+	/**
+	 * Constructs a new GameRecorder.
+	 *
+	 * @param writer where to write the games
+	 */
+	public GameRecorder(GameRecordWriter writer) {
+		this.writer = writer;
+	}
+
+	/**
+	 * Start a new game.
+	 *
+	 * @throws IllegalArgumentException if the game is not on the 8x8 board, the
+	 *                                  only one the records hold
+	 */
+	@Override
+	public void gameStarted(Othello othello) {
+		if (othello.board.getDimension() != Othello.DIMENSION) {
+			throw new IllegalArgumentException("Can't record games on a " + othello.board.getDimension() + "x"
+					+ othello.board.getDimension() + " board");
+		}
+		this.length = 0;
+	}
+
+	@Override
+	public void moveMade(Othello othello, char player, Move move) {
+		this.squares[this.length++] = move.getSquare();
+	}
+
+	/**
+	 * Write the game.
+	 *
+	 * @throws UncheckedIOException if the writer can't write it
+	 */
+	@Override
+	public void gameEnded(Othello othello, char winner) {
+		try {
+			this.writer.write(this.squares, this.length);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+}
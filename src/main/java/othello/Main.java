@@ -10,7 +10,9 @@ public class Main {
         System.out.println("3. Human vs Greedy");
         System.out.println("4. Run Random vs Random Simulation");
         System.out.println("5. Run Random vs Greedy Simulation");
-        System.out.print("Enter choice (1-5): ");
+        System.out.println("6. Human vs Search");
+        System.out.println("7. Human vs MCTS");
+        System.out.print("Enter choice (1-7): ");
 
         Scanner scanner = new Scanner(System.in);
         int choice = scanner.nextInt();
@@ -22,6 +24,8 @@ public class Main {
             case 3 -> OthelloControllerHumanVSGreedy.main(new String[]{});
             case 4 -> OthelloControllerRandomVSRandom.main(new String[]{});
             case 5 -> OthelloControllerRandomVSGreedy.main(new String[]{});
+            case 6 -> OthelloControllerHumanVSSearch.main(new String[]{});
+            case 7 -> OthelloControllerHumanVSMCTS.main(new String[]{});
             default -> System.out.println("Invalid choice.");
         }
     }
@@ -2,13 +2,31 @@ package othello;
 /**
  * Capture a move made at row, col.
  *
- * All OthelloControllers make use of move.
+ * All OthelloControllers make use of move. Inside the players and the search a
+ * move is just its square, row * 8 + col, in an int; a Move is only made when
+ * one is handed out, and then Move.of gives the same Move for the same square
+ * from a table, rather than a new one each time. Move.PASS stands for having
+ * no move.
  */
 public class Move {
-	private int row, col;
+	private static final int DIMENSION = Othello.DIMENSION;
+	private static final Move[] MOVES = new Move[DIMENSION * DIMENSION];
+	static {
+		for (int square = 0; square < MOVES.length; square++) {
+			MOVES[square] = new Move(square / DIMENSION, square % DIMENSION);
+		}
+	}
+
+	/**
+	 * No move: the player has to pass. Its row and column are -1.
+	 */
+	public static final Move PASS = new Move(-1, -1);
+
+	private final int row, col;
 
 	/**
-	 * Constructs a new Move, at coordinates (row, col).
+	 * Constructs a new Move, at coordinates (row, col). Move.of(row, col) gives
+	 * the same Move without making a new one.
 	 *
 	 * @param row
 	 * @param col
@@ -18,6 +36,31 @@ public class Move {
 		this.col = col;
 	}
 
+	/**
+	 *
+	 * @param square a square of the 8x8 board, row * 8 + col, or -1 for a pass
+	 * @return the Move to square, from the table, or PASS.
+	 */
+	public static Move of(int square) {
+		return square < 0 ? PASS : MOVES[square];
+	}
+
+	/**
+	 * A Move is just its row and column, whatever the board, so the Move to
+	 * (row, col) of a bigger board is the same as on the 8x8 board if both are
+	 * under 8; its square there is getSquare(dimension).
+	 *
+	 * @param row
+	 * @param col
+	 * @return the Move to (row, col), from the table if it is on the 8x8 board.
+	 */
+	public static Move of(int row, int col) {
+		if (row >= 0 && row < DIMENSION && col >= 0 && col < DIMENSION) {
+			return MOVES[row * DIMENSION + col];
+		}
+		return row == -1 && col == -1 ? PASS : new Move(row, col);
+	}
+
 	/**
 	 *
 	 * @return the row of the Move.
@@ -34,11 +77,52 @@ public class Move {
 		return col;
 	}
 
+	/**
+	 *
+	 * @return the square of the Move on the 8x8 board, row * 8 + col, or -1 for
+	 *         PASS.
+	 * @throws IllegalStateException if the Move is off the 8x8 board
+	 */
+	public int getSquare() {
+		if (!isPass() && (this.row < 0 || this.row >= DIMENSION || this.col < 0 || this.col >= DIMENSION)) {
+			throw new IllegalStateException("Move " + this + " is not on the 8x8 board");
+		}
+		return getSquare(DIMENSION);
+	}
+
+	/**
+	 *
+	 * @param dimension the dimension of the board
+	 * @return the square of the Move on a dimension x dimension board, row *
+	 *         dimension + col, or -1 for PASS.
+	 */
+	public int getSquare(int dimension) {
+		return isPass() ? -1 : this.row * dimension + this.col;
+	}
+
+	/**
+	 *
+	 * @return whether this is PASS.
+	 */
+	public boolean isPass() {
+		return this.row == -1 && this.col == -1;
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		return o instanceof Move move && move.row == this.row && move.col == this.col;
+	}
+
+	@Override
+	public int hashCode() {
+		return 31 * this.row + this.col;
+	}
+
 	/**
 	 *
 	 * @return a string representation of the Move as a coordinate.
 	 */
 	public String toString() {
-		return "(" + this.row + "," + this.col + ")";
+		return isPass() ? "pass" : "(" + this.row + "," + this.col + ")";
 	}
 }
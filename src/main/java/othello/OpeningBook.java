@@ -0,0 +1,160 @@
+package othello;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * An OpeningBook holds the moves played from positions early in the game,
+ * from a file written by OpeningBookBuilder. The file is mapped into memory
+ * read only, not read, so opening a book of any size takes no time, and looking
+ * up a position is a binary search over the file that allocates nothing.
+ *
+ * The file is a header of 16 bytes, MAGIC and the number of records, followed
+ * by the records sorted by key. Each record is 16 bytes:
+ * <ul>
+ * <li>the canonical key of the position, with the player to move (8 bytes),</li>
+ * <li>the square moved to in the canonical form of the position, row * 8 + col
+ * (2 bytes),</li>
+ * <li>the average final token difference for the player who moved, over the
+ * games that were played to the end (2 bytes),</li>
+ * <li>how many games played the move (4 bytes).</li>
+ * </ul>
+ * The records for the same position are next to each other, the most played
+ * move first.
+ *
+ * Positions are kept in their canonical form (see Symmetry), so the 8 turns
+ * and reflections of a position share one set of records.
+ *
+ */
+public class OpeningBook {
+
+	public static final long MAGIC = 0x4f7468656c6c6f43L; // "OthelloC", for canonical keys
+	static final int HEADER_BYTES = 16;
+	static final int RECORD_BYTES = 16;
+
+	private final MappedByteBuffer buffer;
+	private final int records;
+
+	private OpeningBook(MappedByteBuffer buffer, int records) {
+		this.buffer = buffer;
+		this.records = records;
+	}
+
+	/**
+	 * Open the book in file, mapping it read only.
+	 *
+	 * @param file a book written by OpeningBookBuilder
+	 * @return the book.
+	 * @throws IOException if file can't be read, or isn't a book
+	 */
+	public static OpeningBook open(Path file) throws IOException {
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			long size = channel.size();
+			if (size < HEADER_BYTES || size > Integer.MAX_VALUE) {
+				throw new IOException(file + " is not an opening book");
+			}
+			MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+			long records = buffer.getLong(8);
+			if (buffer.getLong(0) != MAGIC || records < 0 || HEADER_BYTES + records * RECORD_BYTES != size) {
+				throw new IOException(file + " is not an opening book");
+			}
+			return new OpeningBook(buffer, (int) records);
+		}
+	}
+
+	/**
+	 *
+	 * @return the number of records in the book.
+	 */
+	public int size() {
+		return this.records;
+	}
+
+	/**
+	 * Find the records for a position.
+	 *
+	 * @param key the canonical key of the position, with the player to move
+	 * @return the index of the first record for key, the most played move, or -1
+	 *         if the position is not in the book.
+	 */
+	public int find(long key) {
+		int low = 0, high = this.records - 1;
+		while (low <= high) {
+			int middle = (low + high) >>> 1;
+			long middleKey = getKey(middle);
+			if (middleKey < key) {
+				low = middle + 1;
+			} else {
+				high = middle - 1;
+			}
+		}
+		return low < this.records && getKey(low) == key ? low : -1;
+	}
+
+	/**
+	 * Look up the move most played from a position.
+	 *
+	 * @param key the canonical key of the position, with the player to move
+	 * @return the square of the move in the canonical form of the position, row *
+	 *         8 + col, or -1 if the position is not in the book.
+	 */
+	public int lookup(long key) {
+		int record = find(key);
+		return record < 0 ? -1 : getMove(record);
+	}
+
+	/**
+	 * Look up the move most played from a position, in any of its transforms.
+	 *
+	 * @param p1     the tokens of P1
+	 * @param p2     the tokens of P2
+	 * @param toMove P1 or P2
+	 * @return the square of the move in the position as given, row * 8 + col, or
+	 *         -1 if the position is not in the book.
+	 */
+	public int lookup(long p1, long p2, char toMove) {
+		int t = Symmetry.canonical(p1, p2);
+		int square = lookup(Symmetry.canonicalKey(p1, p2, toMove));
+		return square < 0 ? -1 : Symmetry.transformSquare(square, Symmetry.inverse(t));
+	}
+
+	/**
+	 *
+	 * @param record the index of a record
+	 * @return the key of the position of record.
+	 */
+	public long getKey(int record) {
+		return this.buffer.getLong(HEADER_BYTES + record * RECORD_BYTES);
+	}
+
+	/**
+	 *
+	 * @param record the index of a record
+	 * @return the square moved to in record, row * 8 + col.
+	 */
+	public int getMove(int record) {
+		return this.buffer.getShort(HEADER_BYTES + record * RECORD_BYTES + 8);
+	}
+
+	/**
+	 *
+	 * @param record the index of a record
+	 * @return the average final token difference for the player who made the move
+	 *         of record.
+	 */
+	public int getScore(int record) {
+		return this.buffer.getShort(HEADER_BYTES + record * RECORD_BYTES + 10);
+	}
+
+	/**
+	 *
+	 * @param record the index of a record
+	 * @return the number of games that made the move of record.
+	 */
+	public int getWeight(int record) {
+		return this.buffer.getInt(HEADER_BYTES + record * RECORD_BYTES + 12);
+	}
+}
@@ -0,0 +1,205 @@
+package othello;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * OpeningBookBuilder collects the first moves of a set of games, and writes
+ * them to a file for OpeningBook. Positions and moves are put in their
+ * canonical form first, so that games that are turns or reflections of each
+ * other count together.
+ *
+ * Games are given either as arrays of squares, row * 8 + col, or as text in
+ * the usual notation: a column from a to h followed by a row from 1 to 8, so
+ * "f5d6c3" is (4,5), (5,3), (2,2). Passes are not written down, as in Othello
+ * the same player just moves again.
+ *
+ * Here P1 moves first from d4 and e5, which is the usual start position
+ * mirrored left to right, so games recorded from the usual start need their
+ * columns mirrored (a for h, b for g, ...) before they are added.
+ *
+ */
+public class OpeningBookBuilder {
+
+	public static final int DEFAULT_PLIES = 20;
+
+	/**
+	 * What the games did with one move from one position.
+	 */
+	private static class Entry {
+		final long key;
+		final int move;
+		int games, finished;
+		long differences; // the final token differences of the finished games, for the player who moved
+
+		Entry(long key, int move) {
+			this.key = key;
+			this.move = move;
+		}
+
+		int score() {
+			return this.finished == 0 ? 0 : (int) Math.round((double) this.differences / this.finished);
+		}
+	}
+
+	private final int plies;
+	private final Map<Long, Map<Integer, Entry>> entries = new HashMap<>();
+	private int games;
+
+	/**
+	 * Constructs a new OpeningBookBuilder keeping the first DEFAULT_PLIES moves of
+	 * each game.
+	 */
+	public OpeningBookBuilder() {
+		this(DEFAULT_PLIES);
+	}
+
+	/**
+	 * Constructs a new OpeningBookBuilder.
+	 *
+	 * @param plies the number of moves to keep from the start of each game
+	 */
+	public OpeningBookBuilder(int plies) {
+		this.plies = plies;
+	}
+
+	/**
+	 * Parse a game in text notation.
+	 *
+	 * @param game moves like "f5d6c3", with any spaces between them
+	 * @return the squares of the moves, row * 8 + col.
+	 * @throws IllegalArgumentException if game is not in the notation
+	 */
+	public static int[] parse(String game) {
+		String moves = game.replaceAll("\\s", "").toLowerCase();
+		if (moves.length() % 2 != 0) {
+			throw new IllegalArgumentException("not a game: " + game);
+		}
+		int[] squares = new int[moves.length() / 2];
+		for (int i = 0; i < squares.length; i++) {
+			int col = moves.charAt(2 * i) - 'a', row = moves.charAt(2 * i + 1) - '1';
+			if (col < 0 || col > 7 || row < 0 || row > 7) {
+				throw new IllegalArgumentException("not a move: " + moves.substring(2 * i, 2 * i + 2) + " in " + game);
+			}
+			squares[i] = row * 8 + col;
+		}
+		return squares;
+	}
+
+	/**
+	 * Add a game in text notation.
+	 *
+	 * @param game moves like "f5d6c3"
+	 * @throws IllegalArgumentException if game is not in the notation, or makes an
+	 *                                  invalid move
+	 */
+	public void addGame(String game) {
+		addGame(parse(game));
+	}
+
+	/**
+	 * Add a game.
+	 *
+	 * @param squares the squares of the moves, row * 8 + col
+	 * @throws IllegalArgumentException if the game makes an invalid move
+	 */
+	public void addGame(int[] squares) {
+		Othello othello = new Othello();
+		List<Entry> played = new ArrayList<>();
+		List<Character> movers = new ArrayList<>();
+		for (int i = 0; i < squares.length; i++) {
+			OthelloBitBoard board = new OthelloBitBoard(othello.board);
+			long p1 = board.getMask(OthelloBoard.P1), p2 = board.getMask(OthelloBoard.P2);
+			char player = othello.getWhosTurn();
+			if (!othello.move(squares[i] / 8, squares[i] % 8)) {
+				throw new IllegalArgumentException("invalid move " + squares[i] + " at move " + (i + 1));
+			}
+			if (i < this.plies) {
+				long key = Symmetry.canonicalKey(p1, p2, player);
+				int square = Symmetry.canonicalSquare(p1, p2, squares[i]);
+				Entry entry = this.entries.computeIfAbsent(key, k -> new HashMap<>()).computeIfAbsent(square,
+						move -> new Entry(key, move));
+				entry.games++;
+				played.add(entry);
+				movers.add(player);
+			}
+		}
+		if (othello.isGameOver()) {
+			int difference = othello.getCount(OthelloBoard.P1) - othello.getCount(OthelloBoard.P2);
+			for (int i = 0; i < played.size(); i++) {
+				played.get(i).finished++;
+				played.get(i).differences += movers.get(i) == OthelloBoard.P1 ? difference : -difference;
+			}
+		}
+		this.games++;
+	}
+
+	/**
+	 *
+	 * @return the number of games added.
+	 */
+	public int getGames() {
+		return this.games;
+	}
+
+	/**
+	 * Write the book to file, replacing it.
+	 *
+	 * @param file where to write the book
+	 * @throws IOException if file can't be written
+	 */
+	public void write(Path file) throws IOException {
+		List<Entry> sorted = new ArrayList<>();
+		for (Map<Integer, Entry> moves : this.entries.values()) {
+			sorted.addAll(moves.values());
+		}
+		// By key, then the most played move first, then the best scoring one
+		sorted.sort((a, b) -> a.key != b.key ? Long.compare(a.key, b.key)
+				: (a.games != b.games ? b.games - a.games : b.score() - a.score()));
+
+		ByteBuffer buffer = ByteBuffer.allocate(OpeningBook.HEADER_BYTES + sorted.size() * OpeningBook.RECORD_BYTES);
+		buffer.putLong(OpeningBook.MAGIC).putLong(sorted.size());
+		for (Entry entry : sorted) {
+			buffer.putLong(entry.key).putShort((short) entry.move).putShort((short) entry.score()).putInt(entry.games);
+		}
+		buffer.flip();
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING)) {
+			while (buffer.hasRemaining()) {
+				channel.write(buffer);
+			}
+		}
+	}
+
+	/**
+	 * Run main to build a book from a file of games, one game a line in text
+	 * notation. Blank lines and lines starting with # are skipped.
+	 *
+	 * @param args the file of games, the book file to write, and optionally the
+	 *             number of moves to keep from each game
+	 * @throws IOException if a file can't be read or written
+	 */
+	public static void main(String[] args) throws IOException {
+		if (args.length < 2) {
+			System.out.println("usage: OpeningBookBuilder games.txt book.bin [plies]");
+			return;
+		}
+		OpeningBookBuilder builder = new OpeningBookBuilder(
+				args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_PLIES);
+		for (String line : Files.readAllLines(Path.of(args[0]))) {
+			if (!line.isBlank() && !line.startsWith("#")) {
+				builder.addGame(line);
+			}
+		}
+		builder.write(Path.of(args[1]));
+		System.out.println(builder.getGames() + " games written to " + args[1]);
+	}
+}
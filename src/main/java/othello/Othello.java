@@ -3,18 +3,40 @@ package othello;
 import java.util.Random;
 
 /**
- * Captures an Othello game, which includes an OthelloBoard, how many moves have 
- * been made, and whosTurn is next (OthelloBoard.P1 or OthelloBoard.P2). Knows 
- * how to make a move using the board and statistics about the game, such as 
- * how many tokens P1 has and how many tokens P2 has. Also knows who the winner 
- * of the game is, and when the game is over.
+ * Captures an Othello game, which includes a Board (an OthelloBitBoard for the
+ * 8x8 game, an OthelloBigBoard for any other dimension), how many moves have been made, and whosTurn is next 
+ * (OthelloBoard.P1 or OthelloBoard.P2). Knows how to make a move using the 
+ * board and statistics about the game, such as how many tokens P1 has and how 
+ * many tokens P2 has. Also knows who the winner of the game is, and when the 
+ * game is over.
  * 
  */
 public class Othello {
-	public static final int DIMENSION = 8; // This is an 8x8 game
+	public static final int DIMENSION = 8; // The standard game is 8x8
 	private char whosTurn = OthelloBoard.P1; // P1 moves first!
-	public OthelloBoard board = new OthelloBoard(DIMENSION);
+	public Board board;
 
+	// Worked out once per move by move(), board must only be changed through move()
+	private boolean pass = false;
+	private boolean gameOver;
+
+	/**
+	 * Constructs a new standard 8x8 game.
+	 */
+	public Othello() {
+		this(DIMENSION);
+	}
+
+	/**
+	 * Constructs a new game on a board of the given dimension.
+	 *
+	 * @param dimension the number of rows and columns, from 2 to
+	 *                  OthelloBigBoard.MAX_DIMENSION
+	 */
+	public Othello(int dimension) {
+		this.board = dimension == OthelloBitBoard.DIMENSION ? new OthelloBitBoard() : new OthelloBigBoard(dimension);
+		this.gameOver = board.hasMove() == OthelloBoard.EMPTY;
+	}
 
 	/**
 	 * return P1,P2 or EMPTY depending on who moves next.
@@ -28,7 +50,8 @@ public class Othello {
 	/**
 	 * Attempt to make a move for P1 or P2 (depending on whos turn it is) at
 	 * position row, col. A side effect of this method is modification of whos turn
-	 * and the move count.
+	 * and the move count. Who can move next is looked up once here, and kept for
+	 * getWhosTurn, isPass and isGameOver.
 	 * 
 	 * @param row
 	 * @param col
@@ -37,7 +60,10 @@ public class Othello {
 	public boolean move(int row, int col) {
 		if (board.move(row, col, whosTurn)){
 			char otherPlayer = OthelloBoard.otherPlayer(whosTurn);
-			if (board.hasMove() == OthelloBoard.BOTH || board.hasMove() == otherPlayer){
+			char movers = board.hasMove();
+			pass = movers == whosTurn;
+			gameOver = movers == OthelloBoard.EMPTY;
+			if (movers == OthelloBoard.BOTH || movers == otherPlayer){
 				whosTurn = otherPlayer;
 			}
 			return true;
@@ -54,6 +80,14 @@ public class Othello {
 		return board.getCount(player);
 	}
 
+	/**
+	 * 
+	 * @return the Zobrist key of the current position, including whos turn it is.
+	 */
+	public long getKey() {
+		return board.getKey(whosTurn);
+	}
+
 	/**
 	 * Returns the winner of the game.
 	 * 
@@ -61,9 +95,10 @@ public class Othello {
 	 */
 	public char getWinner() {
 		if (isGameOver()){
-			if (board.getCount(OthelloBoard.P1) > board.getCount(OthelloBoard.P2)) {
+			int difference = board.getCount(OthelloBoard.P1) - board.getCount(OthelloBoard.P2);
+			if (difference > 0) {
 				return OthelloBoard.P1;
-			} else if (board.getCount(OthelloBoard.P2) > board.getCount(OthelloBoard.P1)) {
+			} else if (difference < 0) {
 				return OthelloBoard.P2;
 			} else {
 				return OthelloBoard.EMPTY;
@@ -77,7 +112,16 @@ public class Othello {
 	 * @return whether the game is over (no player can move next)
 	 */
 	public boolean isGameOver() {
-		return board.hasMove() == OthelloBoard.EMPTY;
+		return this.gameOver;
+	}
+
+	/**
+	 * 
+	 * @return whether the other player has to pass after the last move, so the
+	 *         player who made it moves again.
+	 */
+	public boolean isPass() {
+		return this.pass;
 	}
 
 	/**
@@ -91,17 +135,18 @@ public class Othello {
 	/**
 	 * tests the current class with a completely random game.
 	 * 
-	 * @param args
+	 * @param args optionally the dimension of the board, 8 by default
 	 */
 	public static void main(String[] args) {
 		
 		Random rand = new Random();
 
-		Othello o = new Othello();
+		Othello o = new Othello(args.length > 0 ? Integer.parseInt(args[0]) : DIMENSION);
+		int dim = o.board.getDimension();
 		System.out.println(o.getBoardString());
 		while (!o.isGameOver()) {
-			int row = rand.nextInt(8);
-			int col = rand.nextInt(8);
+			int row = rand.nextInt(dim);
+			int col = rand.nextInt(dim);
 
 			if (o.move(row, col)) {
 				System.out.println("makes move (" + row + "," + col + ")");
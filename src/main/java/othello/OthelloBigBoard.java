@@ -0,0 +1,438 @@
+package othello;
+
+/**
+ * Keep track of all of the tokens of a game of any dimension as two bitsets,
+ * arrays of 64-bit words, one for each player. Othello uses an OthelloBigBoard
+ * for every dimension but 8, which has OthelloBitBoard.
+ *
+ * Each row takes dim + 1 bits: square (row, col) is bit row * (dim + 1) + col,
+ * and the last bit of each row is a guard that never holds a token. A line of
+ * tokens running off the side of the board runs into a guard, so, as on an
+ * OthelloBitBoard, the moves in a direction are found for every square at once
+ * by shifting whole bitsets, a word at a time, with no masks for the edges.
+ * Lines are filled in steps that double in length (a Kogge-Stone fill), so
+ * finding the moves takes about log2(dim) shifts of the bitsets a direction,
+ * rather than a shift for every token of the longest line. A single move
+ * walks its lines bit by bit, as few bits as it flips.
+ *
+ * The rules, and every result, are the same as OthelloBoard with the same dim.
+ *
+ */
+public class OthelloBigBoard implements Board {
+
+	public static final int MAX_DIMENSION = 256; // the undo record counts up to 255 flips a direction
+
+	private final int dim, stride, words;
+	private final int[] steps; // from a bit to the next along each of the 8 directions
+	private final long[] squares; // the bits that are squares, not guards
+	private final long[] p1Keys, p2Keys;
+
+	private final long[] p1, p2;
+	private int p1Count, p2Count;
+	private long hash; // Zobrist key of the tokens, kept up to date by set and flip
+
+	// Valid moves of both players, kept until the board changes
+	private boolean movesCurrent = false;
+	private final long[] p1Moves, p2Moves;
+	private int p1MoveCount, p2MoveCount;
+	private final long[] fill, lines, shifted; // for finding moves
+
+	/**
+	 * Constructs a new OthelloBigBoard of size dim, with a row containing (X, O)
+	 * followed by another row containing (O, X) at the centre of the board.
+	 *
+	 * @param dim the dimension, from 2 to MAX_DIMENSION
+	 */
+	public OthelloBigBoard(int dim) {
+		if (dim < 2 || dim > MAX_DIMENSION) {
+			throw new IllegalArgumentException("no board of dimension " + dim);
+		}
+		this.dim = dim;
+		this.stride = dim + 1;
+		this.words = (dim * this.stride + 63) >>> 6;
+		this.steps = new int[] { -this.stride - 1, -this.stride, -this.stride + 1, -1, 1, this.stride - 1,
+				this.stride, this.stride + 1 };
+		this.squares = new long[this.words];
+		for (int square = 0; square < dim * dim; square++) {
+			int bit = bit(square / dim, square % dim);
+			this.squares[bit >>> 6] |= 1L << bit;
+		}
+		this.p1Keys = Zobrist.keys(OthelloBoard.P1, dim * dim);
+		this.p2Keys = Zobrist.keys(OthelloBoard.P2, dim * dim);
+		this.p1 = new long[this.words];
+		this.p2 = new long[this.words];
+		this.p1Moves = new long[this.words];
+		this.p2Moves = new long[this.words];
+		this.fill = new long[this.words];
+		this.lines = new long[this.words];
+		this.shifted = new long[this.words];
+		int mid = dim / 2;
+		set(bit(mid - 1, mid - 1), OthelloBoard.P1);
+		set(bit(mid, mid), OthelloBoard.P1);
+		set(bit(mid, mid - 1), OthelloBoard.P2);
+		set(bit(mid - 1, mid), OthelloBoard.P2);
+	}
+
+	private int bit(int row, int col) {
+		return row * this.stride + col;
+	}
+
+	/**
+	 *
+	 * @return the square, row * dim + col, of bit.
+	 */
+	private int square(int bit) {
+		return bit / this.stride * this.dim + bit % this.stride;
+	}
+
+	private static boolean has(long[] set, int bit) {
+		return (set[bit >>> 6] & (1L << bit)) != 0;
+	}
+
+	/**
+	 *
+	 * @param player P1 or P2
+	 * @return the bitset of player's tokens, null for anything else.
+	 */
+	private long[] own(char player) {
+		if (player == OthelloBoard.P1) {
+			return this.p1;
+		} else if (player == OthelloBoard.P2) {
+			return this.p2;
+		} else {
+			return null;
+		}
+	}
+
+	/**
+	 * Place player's token on the EMPTY square at bit.
+	 */
+	private void set(int bit, char player) {
+		int square = square(bit);
+		if (player == OthelloBoard.P1) {
+			this.p1[bit >>> 6] |= 1L << bit;
+			this.p1Count++;
+			this.hash ^= this.p1Keys[square];
+		} else {
+			this.p2[bit >>> 6] |= 1L << bit;
+			this.p2Count++;
+			this.hash ^= this.p2Keys[square];
+		}
+		this.movesCurrent = false;
+	}
+
+	/**
+	 * Make the square at bit EMPTY, taking off player's token.
+	 */
+	private void clear(int bit, char player) {
+		int square = square(bit);
+		if (player == OthelloBoard.P1) {
+			this.p1[bit >>> 6] &= ~(1L << bit);
+			this.p1Count--;
+			this.hash ^= this.p1Keys[square];
+		} else {
+			this.p2[bit >>> 6] &= ~(1L << bit);
+			this.p2Count--;
+			this.hash ^= this.p2Keys[square];
+		}
+		this.movesCurrent = false;
+	}
+
+	/**
+	 * Turn the token at bit over, to player.
+	 */
+	private void flip(int bit, char player) {
+		long mask = 1L << bit;
+		int square = square(bit);
+		this.p1[bit >>> 6] ^= mask;
+		this.p2[bit >>> 6] ^= mask;
+		this.hash ^= this.p1Keys[square] ^ this.p2Keys[square];
+		int delta = player == OthelloBoard.P1 ? 1 : -1;
+		this.p1Count += delta;
+		this.p2Count -= delta;
+		this.movesCurrent = false;
+	}
+
+	/**
+	 * Shift the bits of from by shift places, up if shift is positive, down if it
+	 * is negative, into to.
+	 */
+	private static void shift(long[] from, int shift, long[] to) {
+		int length = from.length;
+		if (shift >= 0) {
+			int words = shift >>> 6, bits = shift & 63;
+			for (int i = length - 1; i >= 0; i--) {
+				long high = i - words >= 0 ? from[i - words] : 0;
+				long low = bits != 0 && i - words - 1 >= 0 ? from[i - words - 1] >>> (64 - bits) : 0;
+				to[i] = high << bits | low;
+			}
+		} else {
+			int words = -shift >>> 6, bits = -shift & 63;
+			for (int i = 0; i < length; i++) {
+				long low = i + words < length ? from[i + words] : 0;
+				long high = bits != 0 && i + words + 1 < length ? from[i + words + 1] << (64 - bits) : 0;
+				to[i] = low >>> bits | high;
+			}
+		}
+	}
+
+	/**
+	 * Put the EMPTY squares where own has a valid move into moves.
+	 *
+	 * @return the number of moves.
+	 */
+	private int moves(long[] own, long[] opp, long[] moves) {
+		for (int i = 0; i < this.words; i++) {
+			moves[i] = 0;
+		}
+		for (int shift : this.steps) {
+			// Fill from own over the lines of opp tokens next to it, the lines
+			// reached doubling in length each step, until no line is left to grow
+			boolean any = true;
+			for (int i = 0; i < this.words; i++) {
+				this.fill[i] = own[i];
+				this.lines[i] = opp[i];
+			}
+			for (int step = shift; any; step *= 2) {
+				shift(this.fill, step, this.shifted);
+				for (int i = 0; i < this.words; i++) {
+					this.fill[i] |= this.lines[i] & this.shifted[i];
+				}
+				shift(this.lines, step, this.shifted);
+				any = false;
+				for (int i = 0; i < this.words; i++) {
+					this.lines[i] &= this.shifted[i];
+					any |= this.lines[i] != 0;
+				}
+			}
+			// A move is just past the end of a line
+			for (int i = 0; i < this.words; i++) {
+				this.fill[i] &= opp[i];
+			}
+			shift(this.fill, shift, this.shifted);
+			for (int i = 0; i < this.words; i++) {
+				moves[i] |= this.shifted[i] & ~(own[i] | opp[i]);
+			}
+		}
+		int count = 0;
+		for (int i = 0; i < this.words; i++) {
+			moves[i] &= this.squares[i];
+			count += Long.bitCount(moves[i]);
+		}
+		return count;
+	}
+
+	/**
+	 * Find the valid moves of both players, unless the moves found last time are
+	 * still current.
+	 */
+	private void generateMoves() {
+		if (!this.movesCurrent) {
+			this.p1MoveCount = moves(this.p1, this.p2, this.p1Moves);
+			this.p2MoveCount = moves(this.p2, this.p1, this.p2Moves);
+			this.movesCurrent = true;
+		}
+	}
+
+	/**
+	 * Count the opp tokens own would flip moving at bit, and turn them over if
+	 * apply is set.
+	 *
+	 * @return the number of tokens flipped in each of the 8 directions, 8 bits
+	 *         per direction, 0 if the move is not valid.
+	 */
+	private long flips(int bit, char player, boolean apply) {
+		long[] own = own(player), opp = own(OthelloBoard.otherPlayer(player));
+		int limit = this.dim * this.stride;
+		long flips = 0;
+		for (int d = 0; d < 8; d++) {
+			int step = this.steps[d], b = bit + step, count = 0;
+			while (b >= 0 && b < limit && has(opp, b)) {
+				count++;
+				b += step;
+			}
+			if (count > 0 && b >= 0 && b < limit && has(own, b)) {
+				flips |= (long) count << (8 * d);
+				for (int i = 1; apply && i <= count; i++) {
+					flip(bit + i * step, player);
+				}
+			}
+		}
+		return flips;
+	}
+
+	/**
+	 *
+	 * @return the number of tokens flipped in a record of flips.
+	 */
+	private static int flipCount(long flips) {
+		int count = 0;
+		for (; flips != 0; flips >>>= 8) {
+			count += (int) flips & 0xff;
+		}
+		return count;
+	}
+
+	private boolean validCoordinate(int row, int col) {
+		return row >= 0 && col >= 0 && row < this.dim && col < this.dim;
+	}
+
+	@Override
+	public boolean validMove(int row, int col, char player) {
+		if (!validCoordinate(row, col) || own(player) == null) {
+			return false;
+		}
+		generateMoves();
+		return has(player == OthelloBoard.P1 ? this.p1Moves : this.p2Moves, bit(row, col));
+	}
+
+	@Override
+	public boolean move(int row, int col, char player) {
+		return makeMove(row, col, player) != 0;
+	}
+
+	@Override
+	public int getMoves(char player, int[] squares) {
+		generateMoves();
+		long[] moves = player == OthelloBoard.P1 ? this.p1Moves : (player == OthelloBoard.P2 ? this.p2Moves : null);
+		int count = 0;
+		for (int i = 0; moves != null && i < this.words; i++) {
+			for (long word = moves[i]; word != 0; word &= word - 1) {
+				squares[count++] = square(64 * i + Long.numberOfTrailingZeros(word));
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * The undo record holds the number of tokens flipped in each of the 8
+	 * directions, 8 bits per direction, as OthelloBoard's does.
+	 */
+	@Override
+	public long makeMove(int row, int col, char player) {
+		if (!validCoordinate(row, col) || own(player) == null) {
+			return 0;
+		}
+		int bit = bit(row, col);
+		if (has(this.p1, bit) || has(this.p2, bit) || (this.movesCurrent && !validMove(row, col, player))) {
+			return 0;
+		}
+		long flips = flips(bit, player, true);
+		if (flips != 0) {
+			set(bit, player);
+		}
+		return flips;
+	}
+
+	@Override
+	public void undoMove(int row, int col, char player, long undo) {
+		int bit = bit(row, col);
+		char other = OthelloBoard.otherPlayer(player);
+		for (int d = 0; d < 8; d++) {
+			int count = (int) (undo >>> (8 * d)) & 0xff;
+			for (int i = 1; i <= count; i++) {
+				flip(bit + i * this.steps[d], other);
+			}
+		}
+		clear(bit, player);
+	}
+
+	@Override
+	public char hasMove() {
+		generateMoves();
+		boolean p1 = this.p1MoveCount > 0, p2 = this.p2MoveCount > 0;
+		if (p1 && p2) {
+			return OthelloBoard.BOTH;
+		} else if (p1) {
+			return OthelloBoard.P1;
+		} else if (p2) {
+			return OthelloBoard.P2;
+		} else {
+			return OthelloBoard.EMPTY;
+		}
+	}
+
+	@Override
+	public int[] greediestMove(char player) {
+		int square = greediestSquare(player);
+		if (square < 0) {
+			return new int[] { this.dim, this.dim, 0 };
+		}
+		int gain = flipCount(flips(bit(square / this.dim, square % this.dim), player, false)) + 1;
+		return new int[] { square / this.dim, square % this.dim, gain };
+	}
+
+	@Override
+	public int greediestSquare(char player) {
+		if (own(player) == null) {
+			return -1;
+		}
+		generateMoves();
+		long[] moves = player == OthelloBoard.P1 ? this.p1Moves : this.p2Moves;
+		int maxGain = 0;
+		int result = -1;
+		// Bits come out in row, then column order, so ties keep the first.
+		for (int i = 0; i < this.words; i++) {
+			for (long word = moves[i]; word != 0; word &= word - 1) {
+				int bit = 64 * i + Long.numberOfTrailingZeros(word);
+				int gain = flipCount(flips(bit, player, false)) + 1;
+				if (gain > maxGain) {
+					maxGain = gain;
+					result = square(bit);
+				}
+			}
+		}
+		return result;
+	}
+
+	@Override
+	public int getCount(char player) {
+		if (player == OthelloBoard.P1) {
+			return this.p1Count;
+		} else if (player == OthelloBoard.P2) {
+			return this.p2Count;
+		} else if (player == OthelloBoard.EMPTY) {
+			return this.dim * this.dim - this.p1Count - this.p2Count;
+		} else {
+			return 0;
+		}
+	}
+
+	@Override
+	public boolean isFull() {
+		return this.p1Count + this.p2Count == this.dim * this.dim;
+	}
+
+	@Override
+	public long getKey(char toMove) {
+		return toMove == OthelloBoard.P2 ? this.hash ^ Zobrist.SIDE : this.hash;
+	}
+
+	@Override
+	public char get(int row, int col) {
+		if (!validCoordinate(row, col)) {
+			return OthelloBoard.EMPTY;
+		}
+		int bit = bit(row, col);
+		if (has(this.p1, bit)) {
+			return OthelloBoard.P1;
+		} else if (has(this.p2, bit)) {
+			return OthelloBoard.P2;
+		} else {
+			return OthelloBoard.EMPTY;
+		}
+	}
+
+	@Override
+	public int getDimension() {
+		return this.dim;
+	}
+
+	/**
+	 * @return a string representation of this, just the play area, with no
+	 *         additional information.
+	 */
+	public String toString() {
+		return Board.render(this);
+	}
+}
@@ -0,0 +1,435 @@
+package othello;
+
+/**
+ * Keep track of all of the tokens of the standard 8x8 game as two 64-bit masks,
+ * one for each player. Square (row, col) is bit row * 8 + col of a mask.
+ *
+ * Instead of walking the board one token at a time, as OthelloBoard does, the
+ * moves and flips in a direction are found for every square at once by
+ * shifting whole masks. Columns 0 and 7 are masked out of the opponent's
+ * tokens for the horizontal and diagonal directions, so that a shift never
+ * wraps a line around to the next row.
+ *
+ * The rules, and every result, are the same as OthelloBoard with dim 8.
+ *
+ */
+public class OthelloBitBoard implements Board {
+
+	public static final int DIMENSION = 8;
+
+	private static final long INNER_COLS = 0x7e7e7e7e7e7e7e7eL;
+	private static final long[] P1_KEYS = Zobrist.keys(OthelloBoard.P1, 64);
+	private static final long[] P2_KEYS = Zobrist.keys(OthelloBoard.P2, 64);
+	private static final long[] FLIP_KEYS = new long[64]; // turns a P1 key into a P2 key, and back
+	static {
+		for (int square = 0; square < 64; square++) {
+			FLIP_KEYS[square] = P1_KEYS[square] ^ P2_KEYS[square];
+		}
+	}
+
+	private long p1, p2;
+	private long hash; // Zobrist key of the tokens, kept up to date by toggle
+
+	// Valid moves of both players, kept until toggle changes the board
+	private boolean movesCurrent = false;
+	private long p1Moves, p2Moves;
+
+	/**
+	 * Constructs a new 8x8 OthelloBitBoard, with a row containing (X, O) followed
+	 * by another row containing (O, X) at the centre of the board.
+	 */
+	public OthelloBitBoard() {
+		this(0x0000001008000000L, 0x0000000810000000L);
+	}
+
+	/**
+	 * Constructs a new OthelloBitBoard holding the given tokens.
+	 *
+	 * @param p1 mask of the squares holding P1 tokens
+	 * @param p2 mask of the squares holding P2 tokens, disjoint from p1
+	 */
+	OthelloBitBoard(long p1, long p2) {
+		this.p1 = p1;
+		this.p2 = p2;
+		this.hash = hash(p1, p2);
+	}
+
+	/**
+	 * Constructs a new OthelloBitBoard holding the same tokens as board.
+	 *
+	 * @param board an 8x8 Board
+	 */
+	public OthelloBitBoard(Board board) {
+		this(mask(board, OthelloBoard.P1), mask(board, OthelloBoard.P2));
+	}
+
+	/**
+	 *
+	 * @param board  an 8x8 Board
+	 * @param player P1 or P2
+	 * @return the mask of the squares holding player's tokens on board.
+	 */
+	private static long mask(Board board, char player) {
+		if (board instanceof OthelloBitBoard) {
+			return ((OthelloBitBoard) board).getMask(player);
+		}
+		if (board.getDimension() != DIMENSION) {
+			throw new IllegalArgumentException("not an 8x8 board: " + board.getDimension());
+		}
+		long mask = 0;
+		for (int square = 0; square < 64; square++) {
+			if (board.get(square / DIMENSION, square % DIMENSION) == player) {
+				mask |= 1L << square;
+			}
+		}
+		return mask;
+	}
+
+	/**
+	 * Work out the Zobrist key of the given tokens from scratch.
+	 *
+	 * @param p1 mask of the squares holding P1 tokens
+	 * @param p2 mask of the squares holding P2 tokens
+	 * @return the Zobrist key of the tokens, with P1 to move.
+	 */
+	public static long hash(long p1, long p2) {
+		long hash = 0;
+		for (; p1 != 0; p1 &= p1 - 1) {
+			hash ^= P1_KEYS[Long.numberOfTrailingZeros(p1)];
+		}
+		for (; p2 != 0; p2 &= p2 - 1) {
+			hash ^= P2_KEYS[Long.numberOfTrailingZeros(p2)];
+		}
+		return hash;
+	}
+
+	/**
+	 *
+	 * @param own mask of the tokens of the player to move
+	 * @param opp mask of the tokens of the other player
+	 * @return mask of the empty squares where own has a valid move.
+	 */
+	public static long moves(long own, long opp) {
+		long inner = opp & INNER_COLS;
+		long moves = moves(own, inner, 1) | moves(own, opp, 8) | moves(own, inner, 7) | moves(own, inner, 9);
+		return moves & ~(own | opp);
+	}
+
+	/**
+	 * Find the squares, in both directions along shift, that lie just past a line
+	 * of opp tokens starting next to an own token. A line holds at most 6 opp
+	 * tokens.
+	 */
+	private static long moves(long own, long opp, int shift) {
+		long left = (own << shift) & opp;
+		left |= (left << shift) & opp;
+		left |= (left << shift) & opp;
+		left |= (left << shift) & opp;
+		left |= (left << shift) & opp;
+		left |= (left << shift) & opp;
+
+		long right = (own >>> shift) & opp;
+		right |= (right >>> shift) & opp;
+		right |= (right >>> shift) & opp;
+		right |= (right >>> shift) & opp;
+		right |= (right >>> shift) & opp;
+		right |= (right >>> shift) & opp;
+
+		return (left << shift) | (right >>> shift);
+	}
+
+	/**
+	 *
+	 * @param square an empty square, row * 8 + col
+	 * @param own    mask of the tokens of the player moving at square
+	 * @param opp    mask of the tokens of the other player
+	 * @return mask of the opp tokens flipped by own moving at square, 0 if the
+	 *         move is not valid.
+	 */
+	public static long flips(int square, long own, long opp) {
+		long move = 1L << square;
+		long inner = opp & INNER_COLS;
+		return flips(move, own, inner, 1) | flips(move, own, opp, 8) | flips(move, own, inner, 7)
+				| flips(move, own, inner, 9);
+	}
+
+	/**
+	 * Collect the line of opp tokens next to move, in both directions along shift,
+	 * keeping a line only when it is closed off by an own token.
+	 */
+	private static long flips(long move, long own, long opp, int shift) {
+		long left = (move << shift) & opp;
+		left |= (left << shift) & opp;
+		left |= (left << shift) & opp;
+		left |= (left << shift) & opp;
+		left |= (left << shift) & opp;
+		left |= (left << shift) & opp;
+		if (((left << shift) & own) == 0) {
+			left = 0;
+		}
+
+		long right = (move >>> shift) & opp;
+		right |= (right >>> shift) & opp;
+		right |= (right >>> shift) & opp;
+		right |= (right >>> shift) & opp;
+		right |= (right >>> shift) & opp;
+		right |= (right >>> shift) & opp;
+		if (((right >>> shift) & own) == 0) {
+			right = 0;
+		}
+
+		return left | right;
+	}
+
+	/**
+	 *
+	 * @param player P1 or P2
+	 * @return the mask of player's tokens, 0 for anything else.
+	 */
+	private long own(char player) {
+		if (player == OthelloBoard.P1) {
+			return this.p1;
+		} else if (player == OthelloBoard.P2) {
+			return this.p2;
+		} else {
+			return 0;
+		}
+	}
+
+	/**
+	 *
+	 * @param player P1 or P2
+	 * @return the mask of the squares holding player's tokens.
+	 */
+	public long getMask(char player) {
+		return own(player);
+	}
+
+	/**
+	 *
+	 * @param player P1 or P2
+	 * @return the mask of the tokens of player's opponent.
+	 */
+	private long opp(char player) {
+		return own(OthelloBoard.otherPlayer(player));
+	}
+
+	/**
+	 * Find the valid moves of both players, unless the moves found last time are
+	 * still current.
+	 */
+	private void generateMoves() {
+		if (!this.movesCurrent) {
+			this.p1Moves = moves(this.p1, this.p2);
+			this.p2Moves = moves(this.p2, this.p1);
+			this.movesCurrent = true;
+		}
+	}
+
+	/**
+	 *
+	 * @param player P1 or P2
+	 * @return the mask of the squares where player has a valid move.
+	 */
+	public long getMoveMask(char player) {
+		generateMoves();
+		if (player == OthelloBoard.P1) {
+			return this.p1Moves;
+		} else if (player == OthelloBoard.P2) {
+			return this.p2Moves;
+		} else {
+			return 0;
+		}
+	}
+
+	@Override
+	public int getMoves(char player, int[] squares) {
+		int count = 0;
+		for (long moves = getMoveMask(player); moves != 0; moves &= moves - 1) {
+			squares[count++] = Long.numberOfTrailingZeros(moves);
+		}
+		return count;
+	}
+
+	/**
+	 *
+	 * @param row
+	 * @param col
+	 * @return whether (row,col) is a position on the board.
+	 */
+	private static boolean validCoordinate(int row, int col) {
+		return row >= 0 && col >= 0 && row < DIMENSION && col < DIMENSION;
+	}
+
+	@Override
+	public boolean validMove(int row, int col, char player) {
+		if (!validCoordinate(row, col)) {
+			return false;
+		}
+		return (getMoveMask(player) & (1L << (row * DIMENSION + col))) != 0;
+	}
+
+	@Override
+	public boolean move(int row, int col, char player) {
+		return makeMove(row, col, player) != 0;
+	}
+
+	/**
+	 * The undo record is the mask of the tokens flipped by the move.
+	 */
+	@Override
+	public long makeMove(int row, int col, char player) {
+		if (!validCoordinate(row, col) || (player != OthelloBoard.P1 && player != OthelloBoard.P2)) {
+			return 0;
+		}
+		int square = row * DIMENSION + col;
+		long bit = 1L << square;
+		if (((this.p1 | this.p2) & bit) != 0 || (this.movesCurrent && (getMoveMask(player) & bit) == 0)) {
+			return 0;
+		}
+		return play(square, player);
+	}
+
+	/**
+	 * Make a move for player at square, with none of the checks of makeMove. Used
+	 * by searches, which only try squares from getMoveMask.
+	 *
+	 * @param square an EMPTY square, row * 8 + col
+	 * @param player P1 or P2
+	 * @return the mask of the tokens flipped, to pass to undo, 0 if the move is
+	 *         not valid, in which case nothing is changed.
+	 */
+	public long play(int square, char player) {
+		long flips = flips(square, own(player), opp(player));
+		if (flips != 0) {
+			toggle(player, square, flips);
+		}
+		return flips;
+	}
+
+	/**
+	 * Take back a move made by play.
+	 *
+	 * @param square the square of the move
+	 * @param player the player who made the move
+	 * @param flips  the mask returned by play(square, player)
+	 */
+	public void undo(int square, char player, long flips) {
+		toggle(player, square, flips);
+	}
+
+	@Override
+	public void undoMove(int row, int col, char player, long undo) {
+		toggle(player, row * DIMENSION + col, undo);
+	}
+
+	/**
+	 * Place, or take back, player's token at square along with the tokens in
+	 * flips. Applying the same toggle twice leaves the board unchanged.
+	 */
+	private void toggle(char player, int square, long flips) {
+		long bit = 1L << square;
+		if (player == OthelloBoard.P1) {
+			this.p1 ^= flips | bit;
+			this.p2 ^= flips;
+			this.hash ^= P1_KEYS[square];
+		} else {
+			this.p2 ^= flips | bit;
+			this.p1 ^= flips;
+			this.hash ^= P2_KEYS[square];
+		}
+		for (; flips != 0; flips &= flips - 1) {
+			this.hash ^= FLIP_KEYS[Long.numberOfTrailingZeros(flips)];
+		}
+		this.movesCurrent = false;
+	}
+
+	@Override
+	public long getKey(char toMove) {
+		return toMove == OthelloBoard.P2 ? this.hash ^ Zobrist.SIDE : this.hash;
+	}
+
+	@Override
+	public char hasMove() {
+		generateMoves();
+		boolean p1 = this.p1Moves != 0;
+		boolean p2 = this.p2Moves != 0;
+		if (p1 && p2) {
+			return OthelloBoard.BOTH;
+		} else if (p1) {
+			return OthelloBoard.P1;
+		} else if (p2) {
+			return OthelloBoard.P2;
+		} else {
+			return OthelloBoard.EMPTY;
+		}
+	}
+
+	@Override
+	public int[] greediestMove(char player) {
+		int square = greediestSquare(player);
+		if (square < 0) {
+			return new int[] { DIMENSION, DIMENSION, 0 };
+		}
+		int gain = Long.bitCount(flips(square, own(player), opp(player))) + 1;
+		return new int[] { square / DIMENSION, square % DIMENSION, gain };
+	}
+
+	@Override
+	public int greediestSquare(char player) {
+		long own = own(player), opp = opp(player);
+		int maxGain = 0;
+		int result = -1;
+		// Squares come out of the mask in row, then column order, so ties keep the first.
+		for (long moves = getMoveMask(player); moves != 0; moves &= moves - 1) {
+			int square = Long.numberOfTrailingZeros(moves);
+			int gain = Long.bitCount(flips(square, own, opp)) + 1;
+			if (gain > maxGain) {
+				maxGain = gain;
+				result = square;
+			}
+		}
+		return result;
+	}
+
+	@Override
+	public int getCount(char player) {
+		if (player == OthelloBoard.EMPTY) {
+			return Long.bitCount(~(this.p1 | this.p2));
+		}
+		return Long.bitCount(own(player));
+	}
+
+	@Override
+	public boolean isFull() {
+		return (this.p1 | this.p2) == -1L;
+	}
+
+	@Override
+	public char get(int row, int col) {
+		if (!validCoordinate(row, col)) {
+			return OthelloBoard.EMPTY;
+		}
+		long bit = 1L << (row * DIMENSION + col);
+		if ((this.p1 & bit) != 0) {
+			return OthelloBoard.P1;
+		} else if ((this.p2 & bit) != 0) {
+			return OthelloBoard.P2;
+		} else {
+			return OthelloBoard.EMPTY;
+		}
+	}
+
+	@Override
+	public int getDimension() {
+		return DIMENSION;
+	}
+
+	/**
+	 * @return a string representation of this, just the play area, with no
+	 *         additional information.
+	 */
+	public String toString() {
+		return Board.render(this);
+	}
+}
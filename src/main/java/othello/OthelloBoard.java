@@ -7,14 +7,27 @@ package othello;
  * when a player makes a move at a specific location (the opposite players 
  * tokens are flipped).
  * 
- * Othello makes use of the OthelloBoard.
+ * OthelloBoard works for boards of any dimension, one square at a time, and
+ * is the reference the faster boards are tested against. Othello plays on an
+ * OthelloBitBoard for the standard 8x8 game, and an OthelloBigBoard for any
+ * other dimension.
  *
  */
-public class OthelloBoard {
+public class OthelloBoard implements Board {
 	
 	public static final char EMPTY = ' ', P1 = 'X', P2 = 'O', BOTH = 'B';
 	private int dim = 8;
 	private char[][] board;
+	private int p1Count, p2Count, emptyCount; // kept up to date by set
+	private long hash; // Zobrist key of the tokens, kept up to date by set
+	private long[] p1Keys, p2Keys;
+
+	// Valid moves for both players, found by generateMoves and kept until set changes the board
+	private boolean movesCurrent = false;
+	private byte[] movers; // for each square, P1_MOVES and/or P2_MOVES
+	private int[] p1Moves, p2Moves;
+	private int p1MoveCount, p2MoveCount;
+	private static final byte P1_MOVES = 1, P2_MOVES = 2;
 
 	/**
 	 * Constructs a new OthelloBoard of size dim, with a row containing (X, O)
@@ -26,14 +39,80 @@ public class OthelloBoard {
 	public OthelloBoard(int dim) {
 		this.dim = dim;
 		board = new char[this.dim][this.dim];
+		this.movers = new byte[this.dim * this.dim];
+		this.p1Moves = new int[this.dim * this.dim];
+		this.p2Moves = new int[this.dim * this.dim];
+		this.p1Keys = Zobrist.keys(P1, this.dim * this.dim);
+		this.p2Keys = Zobrist.keys(P2, this.dim * this.dim);
 		for (int row = 0; row < this.dim; row++) {
 			for (int col = 0; col < this.dim; col++) {
 				this.board[row][col] = EMPTY;
 			}
 		}
+		this.emptyCount = this.dim * this.dim;
 		int mid = this.dim / 2;
-		this.board[mid - 1][mid - 1] = this.board[mid][mid] = P1;
-		this.board[mid][mid - 1] = this.board[mid - 1][mid] = P2;
+		set(mid - 1, mid - 1, P1);
+		set(mid, mid, P1);
+		set(mid, mid - 1, P2);
+		set(mid - 1, mid, P2);
+	}
+
+	/**
+	 * Place token at (row,col), keeping the number of tokens of each kind and the
+	 * Zobrist key up to date, so that neither getCount nor getKey ever has to
+	 * scan the board.
+	 *
+	 * @param row    in {0,...,dim-1}
+	 * @param col    in {0,...,dim-1}
+	 * @param token  P1, P2 or EMPTY
+	 */
+	private void set(int row, int col, char token) {
+		adjustCount(this.board[row][col], -1);
+		adjustCount(token, 1);
+		this.hash ^= tokenKey(row, col, this.board[row][col]) ^ tokenKey(row, col, token);
+		this.board[row][col] = token;
+		this.movesCurrent = false;
+	}
+
+	/**
+	 *
+	 * @param row
+	 * @param col
+	 * @param token P1, P2 or EMPTY
+	 * @return the Zobrist key of token at (row,col), 0 for EMPTY.
+	 */
+	private long tokenKey(int row, int col, char token) {
+		if (token == P1) {
+			return this.p1Keys[row * this.dim + col];
+		} else if (token == P2) {
+			return this.p2Keys[row * this.dim + col];
+		} else {
+			return 0;
+		}
+	}
+
+	/**
+	 * 
+	 * @param toMove the player to move next, P1 or P2
+	 * @return the Zobrist key of this position with toMove to move.
+	 */
+	public long getKey(char toMove) {
+		return toMove == P2 ? this.hash ^ Zobrist.SIDE : this.hash;
+	}
+
+	/**
+	 *
+	 * @param token P1, P2 or EMPTY
+	 * @param delta the change in the number of token on the board
+	 */
+	private void adjustCount(char token, int delta) {
+		if (token == P1) {
+			this.p1Count += delta;
+		} else if (token == P2) {
+			this.p2Count += delta;
+		} else if (token == EMPTY) {
+			this.emptyCount += delta;
+		}
 	}
 
 	/**
@@ -45,14 +124,80 @@ public class OthelloBoard {
 	 * @return whether the move is valid.
 	 */
 	public boolean validMove(int row, int col, char player) {
-		for (int drow = -1; drow < 2; drow++) {
-			for (int dcol = -1; dcol < 2; dcol++) {
-				if (hasMove(row, col, drow, dcol) == player) {
-					return true;
+		if (!validCoordinate(row, col)) {
+			return false;
+		}
+		generateMoves();
+		return (this.movers[row * this.dim + col] & movesFlag(player)) != 0;
+	}
+
+	/**
+	 * 
+	 * @param player P1 or P2
+	 * @return the flag marking player's moves in movers, 0 for anything else.
+	 */
+	private static byte movesFlag(char player) {
+		if (player == P1) {
+			return P1_MOVES;
+		} else if (player == P2) {
+			return P2_MOVES;
+		} else {
+			return 0;
+		}
+	}
+
+	/**
+	 * Find the valid moves of both players in one sweep of the board, looking
+	 * along each direction from each EMPTY square once. Nothing is done if the
+	 * moves found last time are still current.
+	 */
+	private void generateMoves() {
+		if (this.movesCurrent) {
+			return;
+		}
+		this.p1MoveCount = this.p2MoveCount = 0;
+		for (int row = 0; row < this.dim; row++) {
+			for (int col = 0; col < this.dim; col++) {
+				int square = row * this.dim + col;
+				byte flags = 0;
+				if (this.board[row][col] == EMPTY) {
+					for (int drow = -1; drow < 2 && flags != (P1_MOVES | P2_MOVES); drow++) {
+						for (int dcol = -1; dcol < 2; dcol++) {
+							flags |= movesFlag(alternation(row + drow, col + dcol, drow, dcol));
+						}
+					}
+				}
+				this.movers[square] = flags;
+				if ((flags & P1_MOVES) != 0) {
+					this.p1Moves[this.p1MoveCount++] = square;
+				}
+				if ((flags & P2_MOVES) != 0) {
+					this.p2Moves[this.p2MoveCount++] = square;
 				}
 			}
 		}
-		return false;
+		this.movesCurrent = true;
+	}
+
+	/**
+	 * Copy the squares, row * dim + col, where player has a valid move into
+	 * squares, in row, then column order.
+	 * 
+	 * @param player  P1 or P2
+	 * @param squares an array with room for dim * dim squares
+	 * @return the number of squares copied.
+	 */
+	public int getMoves(char player, int[] squares) {
+		generateMoves();
+		if (player == P1) {
+			System.arraycopy(this.p1Moves, 0, squares, 0, this.p1MoveCount);
+			return this.p1MoveCount;
+		} else if (player == P2) {
+			System.arraycopy(this.p2Moves, 0, squares, 0, this.p2MoveCount);
+			return this.p2MoveCount;
+		} else {
+			return 0;
+		}
 	}
 
 	/**
@@ -81,30 +226,44 @@ public class OthelloBoard {
 	 * @return an array made of {row, col, tokens gained after move} for the greediest move.
 	 */
 	public int[] greediestMove(char player) {
-		char[][] originalBoard = cloneBoard(this.board);
 		int maxFlip = 0;
 		int[] result = new int[3];
 		result[0] = this.dim;
 		result[1] = this.dim;
-		for (int row = 0; row < this.dim; row++) {
-			for (int col = 0; col < this.dim; col++) {
-				int originalCount = getCount(player);
-				if (move(row, col, player)){
-					int newCount = getCount(player);
-					int difference = newCount - originalCount;
-					if (difference > maxFlip){
-						maxFlip = difference;
-						result[0] = row;
-						result[1] = col;
-						result[2] = maxFlip;
-					}
-					this.board = cloneBoard(originalBoard);
-				}
+		generateMoves();
+		int[] moves = player == P1 ? this.p1Moves : this.p2Moves;
+		int moveCount = player == P1 ? this.p1MoveCount : (player == P2 ? this.p2MoveCount : 0);
+		for (int i = 0; i < moveCount; i++) {
+			int row = moves[i] / this.dim, col = moves[i] % this.dim;
+			int originalCount = getCount(player);
+			long undo = makeMove(row, col, player);
+			int newCount = getCount(player);
+			int difference = newCount - originalCount;
+			if (difference > maxFlip){
+				maxFlip = difference;
+				result[0] = row;
+				result[1] = col;
+				result[2] = maxFlip;
 			}
+			undoMove(row, col, player, undo);
 		}
+		// Every move was taken back, so the moves found above still hold.
+		this.movesCurrent = true;
 		return result;
 	}
 
+	/**
+	 * The same move as greediestMove, as a square.
+	 *
+	 * @param player P1, or P2
+	 * @return the square of the greediest move, row * dim + col, or -1 if player
+	 *         has no move.
+	 */
+	public int greediestSquare(char player) {
+		int[] move = greediestMove(player);
+		return move[0] == this.dim ? -1 : move[0] * this.dim + move[1];
+	}
+
 	/**
 	 *
 	 * @return the dimension of the board.
@@ -212,7 +371,7 @@ public class OthelloBoard {
 		} else {
 				int crow = row, ccol = col, changed = 0;
 				while (this.board[crow][ccol] != player) {
-					this.board[crow][ccol] = player;
+					set(crow, ccol, player);
 					changed ++;
 					crow += drow;
 					ccol += dcol;
@@ -247,18 +406,8 @@ public class OthelloBoard {
 	 *         neither do.
 	 */
 	public char hasMove() {
-		boolean p1 = false, p2 = false;
-		for (int row = 0; row < dim; row++) {
-			for (int col = 0; col < dim; col++) {
-				for (int drow = -1; drow < 2; drow++) {
-					for (int dcol = -1; dcol < 2; dcol++) {
-						p1 = ((p1) || (hasMove(row, col, drow, dcol) == P1));
-						p2 = ((p2) || (hasMove(row, col, drow, dcol) == P2));
-
-					}
-				}
-			}
-		}
+		generateMoves();
+		boolean p1 = this.p1MoveCount > 0, p2 = this.p2MoveCount > 0;
 		if (p1 && p2) {
 			return BOTH;
 		} else if (p1) {
@@ -281,19 +430,71 @@ public class OthelloBoard {
 	 * @return true if player moved successfully at (row,col), false otherwise
 	 */
 	public boolean move(int row, int col, char player) {
-		boolean successfulMove = false;
+		return makeMove(row, col, player) != 0;
+	}
+
+	/**
+	 * Make a move for player at position (row,col), just like move, returning a
+	 * record of the move for undoMove. The record holds the number of tokens
+	 * flipped in each of the 8 directions, 8 bits per direction, so a board of
+	 * dimension up to 257 fits in a long.
+	 * 
+	 * @param row    starting row, in {0,...,dim-1} (typically {0,...,7})
+	 * @param col    starting col, in {0,...,dim-1} (typically {0,...,7})
+	 * @param player P1 or P2
+	 * @return the record to pass to undoMove, 0 if this is not a valid move, in
+	 *         which case nothing is changed.
+	 */
+	public long makeMove(int row, int col, char player) {
+		if (this.movesCurrent && !validMove(row, col, player)) {
+			return 0;
+		}
+		long undo = 0;
+		int direction = 0;
 		for (int drow = -1; drow < 2; drow++) {
 			for (int dcol = -1; dcol < 2; dcol++) {
+				if (drow == 0 && dcol == 0) {
+					continue;
+				}
 				if (hasMove(row, col, drow, dcol) == player) {
-					flip(row + drow, col + dcol, drow, dcol, player);
-					successfulMove = true;
+					long flipped = flip(row + drow, col + dcol, drow, dcol, player);
+					undo |= flipped << (8 * direction);
 				}
+				direction++;
 			}
 		}
-		if (successfulMove){
-			this.board[row][col] = player;
+		if (undo != 0){
+			set(row, col, player);
 		}
-		return successfulMove;
+		return undo;
+	}
+
+	/**
+	 * Take back the move player made at (row,col), flipping the tokens recorded in
+	 * undo back to the other player and emptying (row,col). Moves must be taken
+	 * back in the reverse order they were made.
+	 * 
+	 * @param row    the row of the move
+	 * @param col    the col of the move
+	 * @param player the player who made the move
+	 * @param undo   the record returned by makeMove(row, col, player)
+	 */
+	public void undoMove(int row, int col, char player, long undo) {
+		char other = otherPlayer(player);
+		int direction = 0;
+		for (int drow = -1; drow < 2; drow++) {
+			for (int dcol = -1; dcol < 2; dcol++) {
+				if (drow == 0 && dcol == 0) {
+					continue;
+				}
+				int flipped = (int) (undo >>> (8 * direction)) & 0xff;
+				for (int i = 1; i <= flipped; i++) {
+					set(row + i * drow, col + i * dcol, other);
+				}
+				direction++;
+			}
+		}
+		set(row, col, EMPTY);
 	}
 
 
@@ -303,15 +504,23 @@ public class OthelloBoard {
 	 * @return the number of tokens on the board for player
 	 */
 	public int getCount(char player) {
-		int count = 0;
-		for (int row = 0; row < dim; row++) {
-			for (int col = 0; col < dim; col++) {
-				if (this.board[row][col] == player) {
-					count++;
-				}
-			}
+		if (player == P1) {
+			return this.p1Count;
+		} else if (player == P2) {
+			return this.p2Count;
+		} else if (player == EMPTY) {
+			return this.emptyCount;
+		} else {
+			return 0;
 		}
-		return count;
+	}
+
+	/**
+	 *
+	 * @return whether there are no EMPTY squares left on the board.
+	 */
+	public boolean isFull() {
+		return this.emptyCount == 0;
 	}
 
 	/**
@@ -319,51 +528,7 @@ public class OthelloBoard {
 	 *         additional information.
 	 */
 	public String toString() {
-		String s = "";
-
-		// Column headers (top)
-		s += "   ";
-		for (int col = 0; col < this.dim; col++) {
-			s += String.format(" %d  ", col);
-		}
-		s += '\n';
-
-		// Top border
-		s += "  +";
-		for (int col = 0; col < this.dim; col++) {
-			s += "---+";
-		}
-		s += '\n';
-
-		// Rows
-		for (int row = 0; row < this.dim; row++) {
-			// Left row label
-			s += String.format("%2d|", row);
-
-			// Cells
-			for (int col = 0; col < this.dim; col++) {
-				s += " " + this.board[row][col] + " |";
-			}
-
-			// Right row label
-			s += String.format("%2d\n", row);
-
-			// Row border
-			s += "  +";
-			for (int col = 0; col < this.dim; col++) {
-				s += "---+";
-			}
-			s += '\n';
-		}
-
-		// Column headers (bottom)
-		s += "   ";
-		for (int col = 0; col < this.dim; col++) {
-			s += String.format(" %d  ", col);
-		}
-		s += '\n';
-
-		return s;
+		return Board.render(this);
 	}
 
 	/**
@@ -379,7 +544,7 @@ public class OthelloBoard {
 		System.out.println("getCount(P2)=" + ob.getCount(P2));
 		for (int row = 0; row < ob.dim; row++) {
 			for (int col = 0; col < ob.dim; col++) {
-				ob.board[row][col] = P1;
+				ob.set(row, col, P1);
 			}
 		}
 		System.out.println(ob.toString());
@@ -396,7 +561,7 @@ public class OthelloBoard {
 		for (int row = 0; row < ob.dim; row++) {
 			for (int col = 0; col < ob.dim; col++) {
 				if (row == 0 || col == 0) {
-					ob.board[row][col] = P2;
+					ob.set(row, col, P2);
 				}
 			}
 		}
@@ -413,8 +578,8 @@ public class OthelloBoard {
 		// Can't move to (4,4) since the square is not empty
 		System.out.println("Trying to move to (4,4) move=" + ob.move(4, 4, P2));
 
-		ob.board[4][4] = EMPTY;
-		ob.board[2][4] = EMPTY;
+		ob.set(4, 4, EMPTY);
+		ob.set(2, 4, EMPTY);
 
 		System.out.println(ob.toString());
 
@@ -3,51 +3,47 @@ package othello;
 abstract class OthelloController {
     protected Othello othello;
 	Player player1, player2;
+	protected GameListener listener; // null for none
+
+	/**
+	 *
+	 * @param listener told about each move of the game, or null for none
+	 */
+	public void setListener(GameListener listener) {
+		this.listener = listener;
+	}
 
     /**
-	 * Starts a new Othello game, alternating turns between player 1 and player 2, reporting what
-	 * the board looks like at the start of each player's turn, how many tokens on the board
-	 * each player has, and who's turn it is at that moment. Also asks the human player for their
-	 * inputted move when it's their turn. When the game is over, it reports what the final board
-	 * looks like, how many tokens are on the board for each player, and who won the game.
+	 * Starts a new Othello game, alternating turns between player 1 and player 2,
+	 * until neither can move. The listener, if any, is told when the game starts,
+	 * about every move and pass, and when the game ends; a ConsoleListener
+	 * reports the board before each move, asks the human player for their move
+	 * through PlayerHuman, and reports the final board and who won.
+	 *
+	 * @return the winner of the game, P1, P2, or EMPTY for a draw.
 	 */
     public char play() {
+		GameListener listener = this.listener;
+		if (listener != null) {
+			listener.gameStarted(othello);
+		}
 		while (!othello.isGameOver()) {
-			this.report();
-
-			Move move = null;
 			char whosTurn = othello.getWhosTurn();
-
-			if (whosTurn == OthelloBoard.P1){
-				move = player1.getMove();
-			} else if (whosTurn == OthelloBoard.P2){
-				move = player2.getMove();
+			Move move = whosTurn == OthelloBoard.P1 ? player1.getMove() : player2.getMove();
+			boolean made = othello.move(move.getRow(), move.getCol());
+
+			// A move that was not valid leaves the game as it was, so listeners hear nothing
+			if (made && listener != null) {
+				listener.moveMade(othello, whosTurn, move);
+				if (othello.isPass()) {
+					listener.passed(othello, OthelloBoard.otherPlayer(whosTurn));
+				}
 			}
-
-			this.reportMove(whosTurn, move);
-			othello.move(move.getRow(), move.getCol());
 		}
-		this.reportFinal();
-		return OthelloBoard.EMPTY;
-	}
-
-    protected void reportMove(char whosTurn, Move move) {
-		System.out.println(whosTurn + " makes move " + move + "\n");
-	}
-
-	protected void report() {
-		String s = othello.getBoardString() + OthelloBoard.P1 + ":"
-				+ othello.getCount(OthelloBoard.P1) + " "
-				+ OthelloBoard.P2 + ":" + othello.getCount(OthelloBoard.P2) + "  "
-				+ othello.getWhosTurn() + " moves next";
-		System.out.println(s);
-	}
-
-	protected void reportFinal() {
-		String s = othello.getBoardString() + OthelloBoard.P1 + ":"
-				+ othello.getCount(OthelloBoard.P1) + " "
-				+ OthelloBoard.P2 + ":" + othello.getCount(OthelloBoard.P2)
-				+ "  " + othello.getWinner() + " won\n";
-		System.out.println(s);
+		char winner = othello.getWinner();
+		if (listener != null) {
+			listener.gameEnded(othello, winner);
+		}
+		return winner;
 	}
 }
@@ -13,19 +13,32 @@ public class OthelloControllerHumanVSGreedy extends OthelloController {
 	 * with one user at the console, and a bot who uses a greedy strategy.
 	 */
 	public OthelloControllerHumanVSGreedy() {
-		this.othello = new Othello();
+		this(Othello.DIMENSION);
+	}
+
+	/**
+	 * Constructs a new OthelloController with a new Othello game on a board of
+	 * the given dimension, ready to play with one user at the console, and
+	 * a bot who uses a greedy strategy.
+	 *
+	 * @param dimension the number of rows and columns of the board
+	 */
+	public OthelloControllerHumanVSGreedy(int dimension) {
+		this.othello = new Othello(dimension);
 		this.player1 = new PlayerHuman(this.othello, OthelloBoard.P1);
 		this.player2 = new PlayerGreedy(this.othello, OthelloBoard.P2);
+		this.listener = new ConsoleListener();
 	}
 
 	/**
 	 * Run main to play a Human (P1) against the computer P2. 
 	 * The computer uses a greedy strategy, that is, it picks the first
 	 * move which maximizes its number of token on the board.
-	 * @param args
+	 * @param args optionally the dimension of the board, 8 by default
 	 */
 	public static void main(String[] args) {
-		OthelloControllerHumanVSGreedy oc = new OthelloControllerHumanVSGreedy();
+		OthelloControllerHumanVSGreedy oc = new OthelloControllerHumanVSGreedy(
+				args.length > 0 ? Integer.parseInt(args[0]) : Othello.DIMENSION);
 		oc.play();
 	}
 }
@@ -11,18 +11,30 @@ public class OthelloControllerHumanVSHuman extends OthelloController {
 	 * with two users at the console.
 	 */
 	public OthelloControllerHumanVSHuman() {
-		this.othello = new Othello();
+		this(Othello.DIMENSION);
+	}
+
+	/**
+	 * Constructs a new OthelloController with a new Othello game on a board of
+	 * the given dimension, ready to play with two users at the console.
+	 *
+	 * @param dimension the number of rows and columns of the board
+	 */
+	public OthelloControllerHumanVSHuman(int dimension) {
+		this.othello = new Othello(dimension);
 		this.player1 = new PlayerHuman(this.othello, OthelloBoard.P1);
 		this.player2 = new PlayerHuman(this.othello, OthelloBoard.P2);
+		this.listener = new ConsoleListener();
 	}
 
 	/**
 	 * Run main to play two Humans against each other at the console.
-	 * @param args
+	 * @param args optionally the dimension of the board, 8 by default
 	 */
 	public static void main(String[] args) {
 		
-		OthelloControllerHumanVSHuman oc = new OthelloControllerHumanVSHuman();
+		OthelloControllerHumanVSHuman oc = new OthelloControllerHumanVSHuman(
+				args.length > 0 ? Integer.parseInt(args[0]) : Othello.DIMENSION);
 		oc.play();
 	}
 
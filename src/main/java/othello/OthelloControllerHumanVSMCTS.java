@@ -0,0 +1,40 @@
+package othello;
+
+/**
+ * This controller uses the Model classes to allow the Human player P1 to play
+ * the computer P2. The computer, P2 plays out random games with Monte Carlo tree search. 
+ * 
+ *
+ */
+public class OthelloControllerHumanVSMCTS extends OthelloController {
+
+	/**
+	 * Constructs a new OthelloController with a new Othello game, ready to play
+	 * with one user at the console, and a bot who plays out random games to choose its moves.
+	 */
+	public OthelloControllerHumanVSMCTS() {
+		this.othello = new Othello();
+		this.player1 = new PlayerHuman(this.othello, OthelloBoard.P1);
+		this.player2 = new PlayerMCTS(this.othello, OthelloBoard.P2);
+		// Also reports how many games the computer played out, and how fast
+		this.listener = new ConsoleListener() {
+			@Override
+			protected void reportMove(char player, Move move) {
+				super.reportMove(player, move);
+				if (player == OthelloBoard.P2) {
+					System.out.println(((PlayerMCTS) player2).getStatistics() + "\n");
+				}
+			}
+		};
+	}
+
+	/**
+	 * Run main to play a Human (P1) against the computer P2. 
+	 * The computer plays out random games for a second before each of its moves.
+	 * @param args
+	 */
+	public static void main(String[] args) {
+		OthelloControllerHumanVSMCTS oc = new OthelloControllerHumanVSMCTS();
+		oc.play();
+	}
+}
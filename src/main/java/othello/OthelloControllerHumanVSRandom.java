@@ -13,9 +13,21 @@ public class OthelloControllerHumanVSRandom extends OthelloController {
 	 * with one user at the console, and a bot who uses a random strategy.
 	 */
 	public OthelloControllerHumanVSRandom() {
-		this.othello = new Othello();
+		this(Othello.DIMENSION);
+	}
+
+	/**
+	 * Constructs a new OthelloController with a new Othello game on a board of
+	 * the given dimension, ready to play with one user at the console, and
+	 * a bot who uses a random strategy.
+	 *
+	 * @param dimension the number of rows and columns of the board
+	 */
+	public OthelloControllerHumanVSRandom(int dimension) {
+		this.othello = new Othello(dimension);
 		this.player1 = new PlayerHuman(this.othello, OthelloBoard.P1);
 		this.player2 = new PlayerRandom(this.othello, OthelloBoard.P2);
+		this.listener = new ConsoleListener();
 	}
 
 	/**
@@ -23,10 +35,11 @@ public class OthelloControllerHumanVSRandom extends OthelloController {
 	 * The computer uses a random strategy, that is, it randomly picks 
 	 * one of its possible moves.
 
-	 * @param args
+	 * @param args optionally the dimension of the board, 8 by default
 	 */
 	public static void main(String[] args) {
-		OthelloControllerHumanVSRandom oc = new OthelloControllerHumanVSRandom();
+		OthelloControllerHumanVSRandom oc = new OthelloControllerHumanVSRandom(
+				args.length > 0 ? Integer.parseInt(args[0]) : Othello.DIMENSION);
 		oc.play();
 	}
 }
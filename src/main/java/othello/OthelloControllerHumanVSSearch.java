@@ -0,0 +1,40 @@
+package othello;
+
+/**
+ * This controller uses the Model classes to allow the Human player P1 to play
+ * the computer P2. The computer, P2 looks ahead with an alpha-beta search. 
+ * 
+ *
+ */
+public class OthelloControllerHumanVSSearch extends OthelloController {
+
+	/**
+	 * Constructs a new OthelloController with a new Othello game, ready to play
+	 * with one user at the console, and a bot who searches ahead for its moves.
+	 */
+	public OthelloControllerHumanVSSearch() {
+		this.othello = new Othello();
+		this.player1 = new PlayerHuman(this.othello, OthelloBoard.P1);
+		this.player2 = new PlayerSearch(this.othello, OthelloBoard.P2);
+		// Also reports how deep the computer searched, and how fast
+		this.listener = new ConsoleListener() {
+			@Override
+			protected void reportMove(char player, Move move) {
+				super.reportMove(player, move);
+				if (player == OthelloBoard.P2) {
+					System.out.println(((PlayerSearch) player2).getStatistics() + "\n");
+				}
+			}
+		};
+	}
+
+	/**
+	 * Run main to play a Human (P1) against the computer P2. 
+	 * The computer searches for a second before each of its moves.
+	 * @param args
+	 */
+	public static void main(String[] args) {
+		OthelloControllerHumanVSSearch oc = new OthelloControllerHumanVSSearch();
+		oc.play();
+	}
+}
@@ -1,5 +1,9 @@
 package othello;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+
 /**
  * Prints out the probability that Random wins and Greedy
  * wins as a result of playing 10000 games against each other with P1=Random and
@@ -19,28 +23,16 @@ public class OthelloControllerRandomVSGreedy extends OthelloController {
 	}
 
 	/**
-	 * Starts a new Othello game between a random, and a greedy player,
-	 * as player1, and player2 respectively.
-	 * When the game is over, the winner is returned.
+	 * Constructs a new OthelloController with a new Othello game, played by a
+	 * random player seeded with seed, and a greedy player, as player1, and
+	 * player2 respectively.
 	 *
-	 * @return the winner of the game.
+	 * @param seed the seed of the random player
 	 */
-	@Override
-	public char play() {
-		while (!othello.isGameOver()) {
-
-			Move move = null;
-			char whosTurn = othello.getWhosTurn();
-
-			if (whosTurn == OthelloBoard.P1){
-				move = player1.getMove();
-			} else if (whosTurn == OthelloBoard.P2){
-				move = player2.getMove();
-			}
-
-			othello.move(move.getRow(), move.getCol());
-		}
-		return othello.getWinner();
+	public OthelloControllerRandomVSGreedy(long seed) {
+		this.othello = new Othello();
+		this.player1 = new PlayerRandom(this.othello, OthelloBoard.P1, seed);
+		this.player2 = new PlayerGreedy(this.othello, OthelloBoard.P2);
 	}
 
 	/**
@@ -48,21 +40,29 @@ public class OthelloControllerRandomVSGreedy extends OthelloController {
 	 * Output looks like: 
 	 * Probability P1 wins=.75 
 	 * Probability P2 wins=.20
-	 * @param args
+	 * @param args optionally the number of games (10000 by default), the seed
+	 *             and the number of threads, see OthelloSimulation, and a file
+	 *             to record the games in, see GameRecordWriter
 	 */
 	public static void main(String[] args) {
-
-		int p1wins = 0, p2wins = 0, numGames = 10000;
-		for (int i = 0; i < numGames; i++) {
-			OthelloControllerRandomVSGreedy oc = new OthelloControllerRandomVSGreedy();
-			char winner = oc.play();
-			if (winner == OthelloBoard.P1){
-				p1wins++;
-			} else if (winner == OthelloBoard.P2){
-				p2wins++;
-			}
+		if (args.length < 4) {
+			report(OthelloSimulation.run(args, seed -> new OthelloControllerRandomVSGreedy(seed).play()));
+			return;
+		}
+		try (GameRecordWriter writer = new GameRecordWriter(Path.of(args[3]), true)) {
+			report(OthelloSimulation.run(args, seed -> {
+				OthelloControllerRandomVSGreedy oc = new OthelloControllerRandomVSGreedy(seed);
+				oc.setListener(new GameRecorder(writer));
+				return oc.play();
+			}));
+			System.out.println(writer.getGames() + " games written to " + args[3]);
+		} catch (IOException | UncheckedIOException e) {
+			System.out.println("can't write " + args[3] + ": " + e.getMessage());
 		}
-		System.out.println("Probability Random wins=" + (float) p1wins / numGames);
-		System.out.println("Probability Greedy wins=" + (float) p2wins / numGames);
+	}
+
+	private static void report(OthelloSimulation simulation) {
+		System.out.println("Probability Random wins=" + (float) simulation.getP1Wins() / simulation.getGames());
+		System.out.println("Probability Greedy wins=" + (float) simulation.getP2Wins() / simulation.getGames());
 	}
 }
@@ -0,0 +1,217 @@
+package othello;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * OthelloSimulation plays a batch of games between two computer players, spread
+ * over several threads, and counts who won.
+ *
+ * Each game gets its own seed, worked out from the master seed and the number
+ * of the game alone, and the players of the game draw their moves from it. So
+ * the same master seed gives the same tally whatever the number of threads, or
+ * the order the threads happen to play the games in.
+ *
+ * Threads take games in chunks of CHUNK from a shared counter, and count their
+ * wins in their own variables, which are only added up once all the games are
+ * played.
+ *
+ */
+public class OthelloSimulation {
+
+	/**
+	 * One game of the simulation.
+	 */
+	@FunctionalInterface
+	public interface Game {
+		/**
+		 *
+		 * @param seed the seed of the game
+		 * @return the winner, P1, P2, or EMPTY for a draw.
+		 */
+		char play(long seed);
+	}
+
+	public static final int CHUNK = 1024;
+	private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+
+	private final Game game;
+	private final long seed;
+	private int threads = Runtime.getRuntime().availableProcessors();
+
+	private long played, p1Wins, p2Wins, draws;
+	private long elapsedNanos;
+
+	/**
+	 * Constructs a new OthelloSimulation.
+	 *
+	 * @param game plays one game from its seed, usually by making an
+	 *             OthelloController with seeded players and calling its play()
+	 * @param seed the master seed
+	 */
+	public OthelloSimulation(Game game, long seed) {
+		this.game = game;
+		this.seed = seed;
+	}
+
+	/**
+	 *
+	 * @param threads the number of threads to play on, at least 1; the number of
+	 *                processors by default
+	 */
+	public void setThreads(int threads) {
+		this.threads = Math.max(1, threads);
+	}
+
+	/**
+	 *
+	 * @param seed the master seed
+	 * @param game the number of a game
+	 * @return the seed of game, the same for every run with the same master seed.
+	 */
+	public static long gameSeed(long seed, long game) {
+		return new SplittableRandom(seed + game * GOLDEN_GAMMA).nextLong();
+	}
+
+	/**
+	 * Play numGames games, replacing the tally of the last run.
+	 *
+	 * @param numGames the number of games to play
+	 * @throws RuntimeException the first exception a game threw, if any, after
+	 *                          the other threads stop; an Error is thrown as it
+	 *                          is
+	 */
+	public void run(long numGames) {
+		AtomicLong next = new AtomicLong();
+		AtomicReference<Throwable> failure = new AtomicReference<>();
+		long[][] tallies = new long[this.threads][];
+		Thread[] workers = new Thread[this.threads];
+		long start = System.nanoTime();
+		for (int i = 0; i < workers.length; i++) {
+			int worker = i;
+			workers[i] = new Thread(() -> {
+				try {
+					tallies[worker] = play(next, numGames);
+				} catch (Throwable e) {
+					failure.compareAndSet(null, e);
+					next.set(numGames); // stop the other threads
+				}
+			}, "simulation " + (i + 1));
+			workers[i].start();
+		}
+		this.played = this.p1Wins = this.p2Wins = this.draws = 0;
+		for (int i = 0; i < workers.length; i++) {
+			try {
+				workers[i].join();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return;
+			}
+		}
+		if (failure.get() instanceof RuntimeException e) {
+			throw e;
+		} else if (failure.get() instanceof Error e) {
+			throw e;
+		}
+		for (int i = 0; i < workers.length; i++) {
+			this.p1Wins += tallies[i][0];
+			this.p2Wins += tallies[i][1];
+			this.draws += tallies[i][2];
+		}
+		this.elapsedNanos = System.nanoTime() - start;
+		this.played = this.p1Wins + this.p2Wins + this.draws;
+	}
+
+	/**
+	 * Play chunks of games until all numGames are taken.
+	 *
+	 * @return the P1 wins, P2 wins and draws of the games played.
+	 */
+	private long[] play(AtomicLong next, long numGames) {
+		long p1Wins = 0, p2Wins = 0, draws = 0;
+		for (long first = next.getAndAdd(CHUNK); first < numGames; first = next.getAndAdd(CHUNK)) {
+			long last = Math.min(first + CHUNK, numGames);
+			for (long game = first; game < last; game++) {
+				char winner = this.game.play(gameSeed(this.seed, game));
+				if (winner == OthelloBoard.P1) {
+					p1Wins++;
+				} else if (winner == OthelloBoard.P2) {
+					p2Wins++;
+				} else {
+					draws++;
+				}
+			}
+		}
+		return new long[] { p1Wins, p2Wins, draws };
+	}
+
+	/**
+	 *
+	 * @return the number of games played in the last run.
+	 */
+	public long getGames() {
+		return this.played;
+	}
+
+	/**
+	 *
+	 * @return the number of games P1 won in the last run.
+	 */
+	public long getP1Wins() {
+		return this.p1Wins;
+	}
+
+	/**
+	 *
+	 * @return the number of games P2 won in the last run.
+	 */
+	public long getP2Wins() {
+		return this.p2Wins;
+	}
+
+	/**
+	 *
+	 * @return the number of drawn games in the last run.
+	 */
+	public long getDraws() {
+		return this.draws;
+	}
+
+	/**
+	 *
+	 * @return the games played per second in the last run.
+	 */
+	public long getGamesPerSecond() {
+		return this.elapsedNanos == 0 ? 0 : this.played * 1000000000L / this.elapsedNanos;
+	}
+
+	/**
+	 *
+	 * @return a line about the last run, for printing.
+	 */
+	public String getStatistics() {
+		return this.played + " games in " + this.elapsedNanos / 1000000 + " ms on " + this.threads + " threads, "
+				+ getGamesPerSecond() + " games/s";
+	}
+
+	/**
+	 * Read the arguments shared by the simulator mains, and run the simulation.
+	 *
+	 * @param args optionally the number of games, the master seed and the number
+	 *             of threads
+	 * @param game plays one game from its seed
+	 * @return the simulation, after its run.
+	 */
+	static OthelloSimulation run(String[] args, Game game) {
+		long numGames = args.length > 0 ? Long.parseLong(args[0]) : 10000;
+		long seed = args.length > 1 ? Long.parseLong(args[1]) : System.nanoTime();
+		OthelloSimulation simulation = new OthelloSimulation(game, seed);
+		if (args.length > 2) {
+			simulation.setThreads(Integer.parseInt(args[2]));
+		}
+		simulation.run(numGames);
+		System.out.println("seed " + seed + ": " + simulation.getStatistics());
+		return simulation;
+	}
+}
@@ -0,0 +1,315 @@
+package othello;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * PatternEvaluator estimates how good an 8x8 position is for a player by
+ * looking up patterns: lines of squares along the edges, around the corners and
+ * along the diagonals. The contents of a pattern, each square empty, own or
+ * the opponent's, read as a number in base 3, index a table of weights, and the
+ * estimate is the sum of the weights of all 38 patterns on the board:
+ * <ul>
+ * <li>each edge, with the two X squares next to its corners,</li>
+ * <li>the 3x3 square in each corner,</li>
+ * <li>the 2nd, 3rd and 4th line in from each edge,</li>
+ * <li>every diagonal of 4 to 8 squares.</li>
+ * </ul>
+ *
+ * The weights are worked out once, when the class is loaded, from how much each
+ * square is worth (corners a lot, the squares next to an empty corner less than
+ * nothing), sharpened by what a pattern can see: squares next to a corner stop
+ * being dangerous once the corner is taken, and a row of tokens running along
+ * an edge from a corner can never be flipped.
+ *
+ * The pattern indexes are kept up to date as tokens are played and flipped,
+ * from both players' point of view, so an estimate costs only one table
+ * lookup per pattern.
+ *
+ */
+public class PatternEvaluator {
+
+	private static final int EMPTY = 0, OWN = 1, OPP = 2; // the digits of a pattern index
+
+	// How much each square is worth to the player holding it
+	private static final int[] SQUARE_VALUE = {
+			100, -20, 10, 5, 5, 10, -20, 100,
+			-20, -50, -2, -2, -2, -2, -50, -20,
+			10, -2, 1, 1, 1, 1, -2, 10,
+			5, -2, 1, 0, 0, 1, -2, 5,
+			5, -2, 1, 0, 0, 1, -2, 5,
+			10, -2, 1, 1, 1, 1, -2, 10,
+			-20, -50, -2, -2, -2, -2, -50, -20,
+			100, -20, 10, 5, 5, 10, -20, 100};
+	private static final int STABLE = 20; // worth of a token that can't be flipped any more
+
+	// The patterns of each type, along or next to the top edge and top left corner
+	private static final int[][] SHAPES = {
+			{ 0, 1, 2, 3, 4, 5, 6, 7, 9, 14 }, // edge and its X squares
+			{ 0, 1, 2, 8, 9, 10, 16, 17, 18 }, // corner 3x3
+			{ 8, 9, 10, 11, 12, 13, 14, 15 }, // 2nd line
+			{ 16, 17, 18, 19, 20, 21, 22, 23 }, // 3rd line
+			{ 24, 25, 26, 27, 28, 29, 30, 31 }, // 4th line
+			{ 0, 9, 18, 27, 36, 45, 54, 63 }, // diagonal of 8
+			{ 1, 10, 19, 28, 37, 46, 55 }, // diagonals of 7 to 4
+			{ 2, 11, 20, 29, 38, 47 },
+			{ 3, 12, 21, 30, 39 },
+			{ 4, 13, 22, 31 } };
+
+	private static final int PATTERNS; // the number of patterns on the board
+	private static final int[] OFFSET; // where the weights of each pattern start in WEIGHTS
+	private static final short[] WEIGHTS;
+
+	// The patterns each square is in, from SQUARE_START[square] to SQUARE_START[square + 1],
+	// and the power of 3 of its digit in each
+	private static final int[] SQUARE_START = new int[65];
+	private static final int[] SQUARE_PATTERN, SQUARE_POWER;
+
+	static {
+		// Every rotation of each shape, leaving out a rotation covering the same squares as one before
+		List<int[]> patterns = new ArrayList<>();
+		List<Integer> types = new ArrayList<>();
+		List<String> seen = new ArrayList<>();
+		for (int type = 0; type < SHAPES.length; type++) {
+			int[] squares = SHAPES[type];
+			for (int rotation = 0; rotation < 4; rotation++) {
+				int[] sorted = squares.clone();
+				Arrays.sort(sorted);
+				if (!seen.contains(Arrays.toString(sorted))) {
+					seen.add(Arrays.toString(sorted));
+					patterns.add(squares);
+					types.add(type);
+				}
+				squares = rotate(squares);
+			}
+		}
+		PATTERNS = patterns.size();
+
+		// How many patterns cover each square, so that a square in several patterns isn't counted more than once
+		int[] coverage = new int[64];
+		for (int[] squares : patterns) {
+			for (int square : squares) {
+				coverage[square]++;
+			}
+		}
+
+		// The weights of each type
+		int[] typeOffset = new int[SHAPES.length];
+		int length = 0;
+		for (int type = 0; type < SHAPES.length; type++) {
+			typeOffset[type] = length;
+			length += power(SHAPES[type].length);
+		}
+		WEIGHTS = new short[length];
+		for (int type = 0; type < SHAPES.length; type++) {
+			int[] shape = SHAPES[type];
+			int[] digits = new int[shape.length];
+			for (int index = 0; index < power(shape.length); index++) {
+				for (int i = 0, rest = index; i < shape.length; i++, rest /= 3) {
+					digits[i] = rest % 3;
+				}
+				WEIGHTS[typeOffset[type] + index] = (short) Math.rint(weigh(shape, digits, coverage, type == 0));
+			}
+		}
+
+		OFFSET = new int[PATTERNS];
+		for (int pattern = 0; pattern < PATTERNS; pattern++) {
+			OFFSET[pattern] = typeOffset[types.get(pattern)];
+		}
+		for (int square = 0; square < 64; square++) {
+			SQUARE_START[square + 1] = SQUARE_START[square] + coverage[square];
+		}
+		SQUARE_PATTERN = new int[SQUARE_START[64]];
+		SQUARE_POWER = new int[SQUARE_START[64]];
+		int[] filled = new int[64];
+		for (int pattern = 0; pattern < PATTERNS; pattern++) {
+			int[] squares = patterns.get(pattern);
+			for (int i = 0; i < squares.length; i++) {
+				int square = squares[i];
+				int at = SQUARE_START[square] + filled[square]++;
+				SQUARE_PATTERN[at] = pattern;
+				SQUARE_POWER[at] = power(i);
+			}
+		}
+	}
+
+	/**
+	 *
+	 * @return the squares turned a quarter turn clockwise.
+	 */
+	private static int[] rotate(int[] squares) {
+		int[] rotated = new int[squares.length];
+		for (int i = 0; i < squares.length; i++) {
+			int row = squares[i] / 8, col = squares[i] % 8;
+			rotated[i] = col * 8 + (7 - row);
+		}
+		return rotated;
+	}
+
+	private static int power(int exponent) {
+		int power = 1;
+		for (int i = 0; i < exponent; i++) {
+			power *= 3;
+		}
+		return power;
+	}
+
+	/**
+	 * The weight of a pattern holding digits on the squares of shape.
+	 *
+	 * @param edge whether shape is an edge, whose stable tokens count extra
+	 */
+	private static double weigh(int[] shape, int[] digits, int[] coverage, boolean edge) {
+		double weight = 0;
+		for (int i = 0; i < shape.length; i++) {
+			if (digits[i] == EMPTY) {
+				continue;
+			}
+			int value = SQUARE_VALUE[shape[i]];
+			if (value < 0 && cornerTaken(shape, digits, shape[i])) {
+				value = 0;
+			}
+			weight += (digits[i] == OWN ? value : -value) / (double) coverage[shape[i]];
+		}
+		if (edge) {
+			// Tokens in a row from a corner along the edge, which is the first 8 squares
+			for (int corner : new int[] { 0, 7 }) {
+				int owner = digits[corner], step = corner == 0 ? 1 : -1;
+				for (int i = corner + step; owner != EMPTY && i >= 0 && i < 8 && digits[i] == owner; i += step) {
+					weight += owner == OWN ? STABLE : -STABLE;
+				}
+			}
+		}
+		return weight;
+	}
+
+	/**
+	 *
+	 * @return whether there is a corner next to square in shape, and it is not
+	 *         empty.
+	 */
+	private static boolean cornerTaken(int[] shape, int[] digits, int square) {
+		for (int i = 0; i < shape.length; i++) {
+			int corner = shape[i];
+			boolean isCorner = corner == 0 || corner == 7 || corner == 56 || corner == 63;
+			if (isCorner && digits[i] != EMPTY && Math.abs(corner / 8 - square / 8) <= 1
+					&& Math.abs(corner % 8 - square % 8) <= 1) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 *
+	 * @return the number of patterns looked up for each estimate.
+	 */
+	public static int getPatterns() {
+		return PATTERNS;
+	}
+
+	/**
+	 *
+	 * @return the number of bytes in the table of weights.
+	 */
+	public static long getTableBytes() {
+		return (long) WEIGHTS.length * Short.BYTES;
+	}
+
+	// The index of each pattern, with P1 as OWN, and with P2 as OWN
+	private final int[] p1Index = new int[PATTERNS];
+	private final int[] p2Index = new int[PATTERNS];
+
+	/**
+	 * Constructs a new PatternEvaluator for an empty board.
+	 */
+	public PatternEvaluator() {
+	}
+
+	/**
+	 * Work out every pattern index again, for a new position.
+	 *
+	 * @param p1 the tokens of P1
+	 * @param p2 the tokens of P2
+	 */
+	public void set(long p1, long p2) {
+		Arrays.fill(this.p1Index, 0);
+		Arrays.fill(this.p2Index, 0);
+		for (; p1 != 0; p1 &= p1 - 1) {
+			place(Long.numberOfTrailingZeros(p1), OthelloBoard.P1);
+		}
+		for (; p2 != 0; p2 &= p2 - 1) {
+			place(Long.numberOfTrailingZeros(p2), OthelloBoard.P2);
+		}
+	}
+
+	/**
+	 * Update the pattern indexes for a move.
+	 *
+	 * @param square the square player moved to
+	 * @param player P1 or P2
+	 * @param flips  the tokens the move flipped
+	 */
+	public void play(int square, char player, long flips) {
+		place(square, player);
+		for (; flips != 0; flips &= flips - 1) {
+			flip(Long.numberOfTrailingZeros(flips), player);
+		}
+	}
+
+	/**
+	 * Update the pattern indexes to take back a move.
+	 *
+	 * @param square the square player moved to
+	 * @param player P1 or P2
+	 * @param flips  the tokens the move flipped
+	 */
+	public void undo(int square, char player, long flips) {
+		char other = OthelloBoard.otherPlayer(player);
+		for (; flips != 0; flips &= flips - 1) {
+			flip(Long.numberOfTrailingZeros(flips), other);
+		}
+		for (int i = SQUARE_START[square]; i < SQUARE_START[square + 1]; i++) {
+			int pattern = SQUARE_PATTERN[i], power = SQUARE_POWER[i];
+			this.p1Index[pattern] -= (player == OthelloBoard.P1 ? OWN : OPP) * power;
+			this.p2Index[pattern] -= (player == OthelloBoard.P1 ? OPP : OWN) * power;
+		}
+	}
+
+	private void place(int square, char player) {
+		for (int i = SQUARE_START[square]; i < SQUARE_START[square + 1]; i++) {
+			int pattern = SQUARE_PATTERN[i], power = SQUARE_POWER[i];
+			this.p1Index[pattern] += (player == OthelloBoard.P1 ? OWN : OPP) * power;
+			this.p2Index[pattern] += (player == OthelloBoard.P1 ? OPP : OWN) * power;
+		}
+	}
+
+	/**
+	 * Turn the token on square over to player.
+	 */
+	private void flip(int square, char player) {
+		// OPP (2) becomes OWN (1) for player, and the other way round for the other player
+		int change = player == OthelloBoard.P1 ? -1 : 1;
+		for (int i = SQUARE_START[square]; i < SQUARE_START[square + 1]; i++) {
+			int pattern = SQUARE_PATTERN[i], power = SQUARE_POWER[i];
+			this.p1Index[pattern] += change * power;
+			this.p2Index[pattern] -= change * power;
+		}
+	}
+
+	/**
+	 *
+	 * @param player P1 or P2
+	 * @return the estimate of how good the position is for player, the higher
+	 *         the better.
+	 */
+	public int evaluate(char player) {
+		int[] index = player == OthelloBoard.P1 ? this.p1Index : this.p2Index;
+		int score = 0;
+		for (int pattern = 0; pattern < PATTERNS; pattern++) {
+			score += WEIGHTS[OFFSET[pattern] + index[pattern]];
+		}
+		return score;
+	}
+}
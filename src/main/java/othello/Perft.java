@@ -0,0 +1,276 @@
+package othello;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Perft counts the positions reached after exactly depth moves from a
+ * position, a standard check of a move generator against known counts, and a
+ * standard measure of its speed. From the start position the counts are 4, 12,
+ * 56, 244, 1396, 8200, 55092, 390216, ... for depths 1, 2, 3, ...
+ *
+ * Moves are counted the way Othello.move makes them: a player with no move
+ * passes without it counting as a move, so the other player's moves are
+ * counted at the same depth. A finished game counts as one position, however
+ * much depth is left.
+ *
+ * The last move is not made: the positions after it are counted off the mask
+ * of moves. Several threads can share the work, each taking positions a few
+ * moves from the root, and a table of counts already made, keyed by position
+ * and depth, can be shared by them too. The table works like the
+ * TranspositionTable: each entry is the key XORed with the count, and the
+ * count, so an entry torn by two threads writing it at once reads as a miss.
+ *
+ */
+public class Perft {
+
+	private static final long[] DEPTH_KEYS = new long[64];
+	static {
+		for (int depth = 0; depth < DEPTH_KEYS.length; depth++) {
+			DEPTH_KEYS[depth] = Zobrist.mix(0x9e3779b97f4a7c15L * (depth + 1));
+		}
+	}
+
+	private int threads = 1;
+	private long[] table; // pairs of longs: key ^ count, count
+	private int entryMask;
+
+	// Statistics for the last count
+	private long nodes, elapsedNanos;
+
+	/**
+	 *
+	 * @param threads the number of threads to count with, at least 1; 1 by
+	 *                default
+	 */
+	public void setThreads(int threads) {
+		this.threads = Math.max(1, threads);
+	}
+
+	/**
+	 * Keep the counts of positions at least 2 moves from the end in a table, so
+	 * transpositions are only counted once.
+	 *
+	 * @param bytes the most memory to use for the table, rounded down to a power
+	 *              of two, or 0 for no table; none by default
+	 */
+	public void setTableBytes(long bytes) {
+		long entries = Long.highestOneBit(Math.min(bytes / 16, 1 << 28));
+		this.table = entries < 2 ? null : new long[(int) (2 * entries)];
+		this.entryMask = (int) entries - 1;
+	}
+
+	/**
+	 * Count the positions depth moves after the current position of othello.
+	 *
+	 * @param othello the game, which is left as it is; its board may be of any
+	 *                kind, but must be 8x8
+	 * @param depth   the number of moves, at most 63
+	 * @return the number of positions.
+	 */
+	public long count(Othello othello, int depth) {
+		OthelloBitBoard board = new OthelloBitBoard(othello.board);
+		char player = othello.getWhosTurn();
+		return count(board.getMask(player), board.getMask(OthelloBoard.otherPlayer(player)), depth);
+	}
+
+	/**
+	 * Count the positions depth moves after a position.
+	 *
+	 * @param own   the tokens of the player to move
+	 * @param opp   the tokens of the other player
+	 * @param depth the number of moves, at most 63
+	 * @return the number of positions.
+	 */
+	public long count(long own, long opp, int depth) {
+		if (this.table != null) {
+			Arrays.fill(this.table, 0); // so each count is timed on its own
+		}
+		long start = System.nanoTime();
+		if (this.threads == 1) {
+			this.nodes = count(own, opp, depth, this.table, this.entryMask);
+		} else {
+			this.nodes = countParallel(own, opp, depth);
+		}
+		this.elapsedNanos = System.nanoTime() - start;
+		return this.nodes;
+	}
+
+	/**
+	 * Split the tree into positions a few moves down, enough to keep every
+	 * thread busy, and let the threads take them one at a time.
+	 */
+	private long countParallel(long own, long opp, int depth) {
+		List<long[]> frontier = new ArrayList<>();
+		frontier.add(new long[] { own, opp });
+		while (frontier.size() < 4 * this.threads && depth > 2) {
+			List<long[]> next = new ArrayList<>();
+			for (long[] position : frontier) {
+				children(position[0], position[1], next);
+			}
+			frontier = next;
+			depth--;
+		}
+
+		int remaining = depth;
+		List<long[]> positions = frontier;
+		AtomicInteger nextPosition = new AtomicInteger();
+		long[] counts = new long[this.threads];
+		Thread[] workers = new Thread[this.threads];
+		for (int i = 0; i < workers.length; i++) {
+			int worker = i;
+			workers[i] = new Thread(() -> {
+				long count = 0;
+				for (int p = nextPosition.getAndIncrement(); p < positions.size(); p = nextPosition.getAndIncrement()) {
+					count += count(positions.get(p)[0], positions.get(p)[1], remaining, this.table, this.entryMask);
+				}
+				counts[worker] = count;
+			}, "perft " + (i + 1));
+			workers[i].start();
+		}
+		long total = 0;
+		for (int i = 0; i < workers.length; i++) {
+			try {
+				workers[i].join();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return -1;
+			}
+			total += counts[i];
+		}
+		return total;
+	}
+
+	/**
+	 * Add the positions one move after own, opp to children, as {own, opp} with
+	 * the player to move first. A finished game is its own only child, so it
+	 * still counts as one position at every depth.
+	 */
+	private static void children(long own, long opp, List<long[]> children) {
+		long moves = OthelloBitBoard.moves(own, opp);
+		if (moves == 0) {
+			if (OthelloBitBoard.moves(opp, own) == 0) {
+				children.add(new long[] { own, opp });
+				return;
+			}
+			long swap = own;
+			own = opp;
+			opp = swap;
+			moves = OthelloBitBoard.moves(own, opp);
+		}
+		for (; moves != 0; moves &= moves - 1) {
+			int square = Long.numberOfTrailingZeros(moves);
+			long flips = OthelloBitBoard.flips(square, own, opp);
+			children.add(new long[] { opp & ~flips, own | flips | (1L << square) });
+		}
+	}
+
+	/**
+	 * Count the positions depth moves after own, opp, with no threads and no
+	 * table.
+	 *
+	 * @param own   the tokens of the player to move
+	 * @param opp   the tokens of the other player
+	 * @param depth the number of moves
+	 * @return the number of positions.
+	 */
+	public static long perft(long own, long opp, int depth) {
+		return count(own, opp, depth, null, 0);
+	}
+
+	private static long count(long own, long opp, int depth, long[] table, int entryMask) {
+		if (depth == 0) {
+			return 1;
+		}
+		long moves = OthelloBitBoard.moves(own, opp);
+		if (moves == 0) {
+			if (OthelloBitBoard.moves(opp, own) == 0) {
+				return 1; // the game is over
+			}
+			return count(opp, own, depth, table, entryMask); // pass
+		}
+		if (depth == 1) {
+			return Long.bitCount(moves);
+		}
+
+		long key = 0;
+		int index = 0;
+		if (table != null) {
+			key = Zobrist.mix(Zobrist.mix(own) ^ opp) ^ DEPTH_KEYS[depth];
+			index = 2 * ((int) key & entryMask);
+			long count = table[index + 1];
+			if ((table[index] ^ count) == key && count != 0) {
+				return count;
+			}
+		}
+
+		long count = 0;
+		for (; moves != 0; moves &= moves - 1) {
+			int square = Long.numberOfTrailingZeros(moves);
+			long flips = OthelloBitBoard.flips(square, own, opp);
+			count += count(opp & ~flips, own | flips | (1L << square), depth - 1, table, entryMask);
+		}
+
+		if (table != null) {
+			table[index] = key ^ count;
+			table[index + 1] = count;
+		}
+		return count;
+	}
+
+	/**
+	 *
+	 * @return the number of positions counted by the last count.
+	 */
+	public long getNodes() {
+		return this.nodes;
+	}
+
+	/**
+	 *
+	 * @return the positions counted per second by the last count.
+	 */
+	public long getNodesPerSecond() {
+		return this.elapsedNanos == 0 ? 0 : (long) (this.nodes * 1e9 / this.elapsedNanos);
+	}
+
+	/**
+	 *
+	 * @return a line about the last count, for printing.
+	 */
+	public String getStatistics() {
+		return this.nodes + " positions in " + this.elapsedNanos / 1000000 + " ms, " + getNodesPerSecond()
+				+ " positions/s";
+	}
+
+	/**
+	 * Run main to count the positions at every depth up to a given one, and how
+	 * fast.
+	 *
+	 * @param args the deepest depth (9 by default), the number of threads (1 by
+	 *             default), the table size in MB (0 by default, for none), and
+	 *             the moves to the position to count from, like "c5e6" (the start
+	 *             position by default)
+	 */
+	public static void main(String[] args) {
+		int depth = args.length > 0 ? Integer.parseInt(args[0]) : 9;
+		Perft perft = new Perft();
+		perft.setThreads(args.length > 1 ? Integer.parseInt(args[1]) : 1);
+		perft.setTableBytes(args.length > 2 ? Long.parseLong(args[2]) << 20 : 0);
+		Othello othello = new Othello();
+		if (args.length > 3) {
+			for (int square : OpeningBookBuilder.parse(args[3])) {
+				if (!othello.move(square / 8, square % 8)) {
+					throw new IllegalArgumentException("invalid move " + square + " in " + args[3]);
+				}
+			}
+		}
+		System.out.println(othello.getBoardString() + othello.getWhosTurn() + " moves next");
+		for (int d = 1; d <= depth; d++) {
+			perft.count(othello, d);
+			System.out.println("depth " + d + ": " + perft.getStatistics());
+		}
+	}
+}
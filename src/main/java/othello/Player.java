@@ -3,6 +3,7 @@ package othello;
 abstract class Player {
     protected Othello othello;
 	protected char player;
+    protected OpeningBook book;
 
     public Player(Othello othello, char player) {
         this.othello = othello;
@@ -10,4 +11,34 @@ abstract class Player {
     }
 
     public abstract Move getMove();
+
+    /**
+     *
+     * @param book the opening book to play from while the game is in it, or null
+     *             for none
+     */
+    public void setOpeningBook(OpeningBook book) {
+        this.book = book;
+    }
+
+    /**
+     * Look up the current position in the opening book, if any.
+     *
+     * @return the book's Move for the position, or null if there is no book, the
+     *         position is not in it, or its move is not valid here.
+     */
+    protected Move bookMove() {
+        if (this.book == null) {
+            return null;
+        }
+        if (othello.board.getDimension() != 8) {
+            return null;
+        }
+        OthelloBitBoard board = new OthelloBitBoard(othello.board);
+        int square = this.book.lookup(board.getMask(OthelloBoard.P1), board.getMask(OthelloBoard.P2), player);
+        if (square < 0 || !othello.board.validMove(square / 8, square % 8, player)) {
+            return null;
+        }
+        return Move.of(square);
+    }
 }
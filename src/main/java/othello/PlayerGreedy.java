@@ -34,7 +34,8 @@ public class PlayerGreedy extends Player {
 	 * @return the greediest Move.
 	 */
 	public Move getMove() {
-		int[] move = othello.board.greediestMove(player);
-		return new Move(move[0], move[1]);
+		int square = othello.board.greediestSquare(player);
+		int dim = othello.board.getDimension();
+		return square < 0 ? Move.PASS : Move.of(square / dim, square % dim);
 	}
 }
@@ -10,7 +10,7 @@ import java.io.InputStreamReader;
  */
 public class PlayerHuman extends Player {
 	
-	private static final String INVALID_INPUT_MESSAGE = "Invalid number, please enter 1-8";
+	private static final String INVALID_INPUT_MESSAGE = "Invalid number, please enter 0-";
 	private static BufferedReader stdin = new BufferedReader(new InputStreamReader(System.in));
 
 
@@ -32,7 +32,7 @@ public class PlayerHuman extends Player {
 		
 		int row = getMove("row: ");
 		int col = getMove("col: ");
-		return new Move(row, col);
+		return Move.of(row, col);
 	}
 
 	/**
@@ -43,7 +43,7 @@ public class PlayerHuman extends Player {
 	 */
 	private int getMove(String message) {
 		
-		int move, lower = 0, upper = 7;
+		int move, lower = 0, upper = othello.board.getDimension() - 1;
 		while (true) {
 			try {
 				System.out.print(message);
@@ -52,13 +52,13 @@ public class PlayerHuman extends Player {
 				if (lower <= move && move <= upper) {
 					return move;
 				} else {
-					System.out.println(INVALID_INPUT_MESSAGE);
+					System.out.println(INVALID_INPUT_MESSAGE + upper);
 				}
 			} catch (IOException e) {
-				System.out.println(INVALID_INPUT_MESSAGE);
+				System.out.println(INVALID_INPUT_MESSAGE + upper);
 				break;
 			} catch (NumberFormatException e) {
-				System.out.println(INVALID_INPUT_MESSAGE);
+				System.out.println(INVALID_INPUT_MESSAGE + upper);
 			}
 		}
 		return -1;
@@ -0,0 +1,413 @@
+package othello;
+
+/**
+ * PlayerMCTS makes a move by Monte Carlo tree search (UCT): it plays thousands
+ * of random games from the current position, and grows a tree of the positions
+ * they pass through. Each time, it follows the tree down from the root taking
+ * the move with the best mix of winning often and having been tried little,
+ * adds a position to the tree, plays a random game from there, and counts the
+ * result in every position on the way down. When the time or playout budget
+ * is used up, it plays the move tried most often.
+ *
+ * The nodes of the tree are not objects, they are indexes into a pool of
+ * arrays allocated once, holding for each node its move, where its children
+ * start, how many there are, how often it was visited and how many half points
+ * (1 for a draw, 2 for a win) the player who made its move won there. The
+ * children of a node are next to each other in the pool. Millions of playouts
+ * allocate nothing.
+ *
+ * After each move, the part of the tree below the moves actually played is
+ * kept for the next move: it is copied, children still next to each other,
+ * into a second pool of the same size, which then becomes the pool in use.
+ * Once the pool is full, the tree stops growing, but playouts go on.
+ *
+ */
+public class PlayerMCTS extends Player {
+
+	public static final long DEFAULT_TIME = 1000; // milliseconds per move
+	public static final int DEFAULT_NODES = 1 << 20;
+
+	private static final double EXPLORATION = 1.0;
+	private static final int PASS = 64; // the move of a node where the player passes
+	private static final int MAX_PATH = 128;
+	private static final int CHECK_INTERVAL = 64; // playouts between looks at the clock
+
+	// The node pool, as one array per field
+	private int[] firstChild; // -1 until the children are added
+	private byte[] childCount;
+	private byte[] move; // a square, or PASS
+	private int[] visits;
+	private int[] wins; // half points won by the player who made move
+	private int nodeCount;
+
+	// The second pool, for copying the tree to keep into
+	private int[] nextFirstChild;
+	private byte[] nextChildCount, nextMove;
+	private int[] nextVisits, nextWins;
+
+	// The position at the root of the tree, if any
+	private boolean hasRoot;
+	private long rootP1, rootP2;
+	private char rootPlayer;
+
+	private long timeLimit;
+	private long playoutLimit = Long.MAX_VALUE;
+	private final FastRandom rand;
+	private final int[] path = new int[MAX_PATH];
+
+	// Statistics for the last move
+	private long playouts, elapsedNanos;
+	private int reused;
+
+	/**
+	 * Constructs a new PlayerMCTS playing in the game, othello, as player, with
+	 * DEFAULT_TIME per move and DEFAULT_NODES in the pool.
+	 *
+	 * @param othello
+	 * @param player
+	 */
+	public PlayerMCTS(Othello othello, char player) {
+		this(othello, player, DEFAULT_TIME, DEFAULT_NODES, System.nanoTime());
+	}
+
+	/**
+	 * Constructs a new PlayerMCTS playing in the game, othello, as player.
+	 *
+	 * @param othello
+	 * @param player
+	 * @param timeLimit the number of milliseconds to search for each move
+	 * @param nodes     the most nodes the tree can have, at least 64
+	 * @param seed      the seed of the random playouts
+	 */
+	public PlayerMCTS(Othello othello, char player, long timeLimit, int nodes, long seed) {
+		super(othello, player);
+		if (nodes < 64) {
+			throw new IllegalArgumentException("the pool needs at least 64 nodes, not " + nodes);
+		}
+		this.timeLimit = timeLimit;
+		this.rand = new FastRandom(seed);
+		this.firstChild = new int[nodes];
+		this.childCount = new byte[nodes];
+		this.move = new byte[nodes];
+		this.visits = new int[nodes];
+		this.wins = new int[nodes];
+		this.nextFirstChild = new int[nodes];
+		this.nextChildCount = new byte[nodes];
+		this.nextMove = new byte[nodes];
+		this.nextVisits = new int[nodes];
+		this.nextWins = new int[nodes];
+	}
+
+	/**
+	 *
+	 * @param playoutLimit the most playouts for each move, as well as the time
+	 *                     limit
+	 */
+	public void setPlayoutLimit(long playoutLimit) {
+		this.playoutLimit = playoutLimit;
+	}
+
+	/**
+	 * Return the opening book's move, if there is one. Otherwise return the move
+	 * tried most often by the tree search, after playing out random games until
+	 * the time or playout limit is reached.
+	 *
+	 * @return the best Move found.
+	 */
+	public Move getMove() {
+		long start = System.nanoTime();
+		Move bookMove = bookMove();
+		if (bookMove != null) {
+			this.playouts = 0;
+			this.elapsedNanos = System.nanoTime() - start;
+			return bookMove;
+		}
+		long deadline = start + Math.min(this.timeLimit, Long.MAX_VALUE / 4000000) * 1000000;
+		OthelloBitBoard board = new OthelloBitBoard(othello.board);
+		long p1 = board.getMask(OthelloBoard.P1), p2 = board.getMask(OthelloBoard.P2);
+
+		this.reused = 0;
+		int root = this.hasRoot ? find(p1, p2, player) : -1;
+		if (root >= 0) {
+			keep(root);
+			this.reused = this.nodeCount;
+		} else {
+			this.nodeCount = 1;
+			this.firstChild[0] = -1;
+			this.move[0] = (byte) PASS;
+			this.visits[0] = 0;
+			this.wins[0] = 0;
+		}
+		this.hasRoot = true;
+		this.rootP1 = p1;
+		this.rootP2 = p2;
+		this.rootPlayer = player;
+
+		long own = board.getMask(player), opp = board.getMask(OthelloBoard.otherPlayer(player));
+		this.playouts = 0;
+		do {
+			playout(own, opp);
+			this.playouts++;
+		} while (this.playouts < this.playoutLimit
+				&& (this.playouts % CHECK_INTERVAL != 0 || System.nanoTime() - deadline < 0));
+
+		int first = this.firstChild[0], best = first;
+		for (int child = first; child < first + this.childCount[0]; child++) {
+			if (this.visits[child] > this.visits[best]) {
+				best = child;
+			}
+		}
+		this.elapsedNanos = System.nanoTime() - start;
+		int square = this.move[best];
+		return Move.of(square);
+	}
+
+	/**
+	 * Follow the tree down from the root, add a node, play a random game from
+	 * there and count the result in every node on the way.
+	 *
+	 * @param own the tokens of the player to move at the root
+	 * @param opp the tokens of the other player
+	 */
+	private void playout(long own, long opp) {
+		int node = 0, length = 0;
+		this.path[length++] = node;
+		while (this.firstChild[node] >= 0 && this.childCount[node] > 0 && length < MAX_PATH) {
+			node = select(node);
+			int square = this.move[node];
+			if (square != PASS) {
+				long flips = OthelloBitBoard.flips(square, own, opp);
+				own |= flips | (1L << square);
+				opp &= ~flips;
+			}
+			long swap = own;
+			own = opp;
+			opp = swap;
+			this.path[length++] = node;
+		}
+
+		if (this.firstChild[node] < 0 && (this.visits[node] > 0 || node == 0) && expand(node, own, opp)
+				&& this.childCount[node] > 0 && length < MAX_PATH) {
+			// Take the first child: none of them has been tried
+			node = this.firstChild[node];
+			int square = this.move[node];
+			if (square != PASS) {
+				long flips = OthelloBitBoard.flips(square, own, opp);
+				own |= flips | (1L << square);
+				opp &= ~flips;
+			}
+			long swap = own;
+			own = opp;
+			opp = swap;
+			this.path[length++] = node;
+		}
+
+		// Half points for the player who moved into the last node, then up the path
+		int difference = RandomPlayout.play(own, opp, this.rand);
+		int points = difference < 0 ? 2 : (difference == 0 ? 1 : 0);
+		for (int i = length - 1; i >= 0; i--) {
+			node = this.path[i];
+			this.visits[node]++;
+			this.wins[node] += points;
+			points = 2 - points;
+		}
+	}
+
+	/**
+	 *
+	 * @return the child of node with the best upper confidence bound, any child
+	 *         not yet visited first.
+	 */
+	private int select(int node) {
+		int first = this.firstChild[node], last = first + this.childCount[node];
+		double logVisits = Math.log(this.visits[node]);
+		int best = first;
+		double bestValue = Double.NEGATIVE_INFINITY;
+		for (int child = first; child < last; child++) {
+			int childVisits = this.visits[child];
+			if (childVisits == 0) {
+				return child;
+			}
+			double value = this.wins[child] / (2.0 * childVisits)
+					+ EXPLORATION * Math.sqrt(logVisits / childVisits);
+			if (value > bestValue) {
+				bestValue = value;
+				best = child;
+			}
+		}
+		return best;
+	}
+
+	/**
+	 * Add the children of node: a node for each move of own, or a single PASS
+	 * node if own has to pass, or none if the game is over.
+	 *
+	 * @return whether there was room in the pool.
+	 */
+	private boolean expand(int node, long own, long opp) {
+		long moves = OthelloBitBoard.moves(own, opp);
+		int count = Long.bitCount(moves);
+		if (count == 0 && OthelloBitBoard.moves(opp, own) != 0) {
+			count = 1;
+		}
+		if (this.nodeCount + count > this.firstChild.length) {
+			return false;
+		}
+		int child = this.nodeCount;
+		this.firstChild[node] = child;
+		this.childCount[node] = (byte) count;
+		this.nodeCount += count;
+		if (moves == 0 && count == 1) {
+			newNode(child, PASS);
+		}
+		for (; moves != 0; moves &= moves - 1) {
+			newNode(child++, Long.numberOfTrailingZeros(moves));
+		}
+		return true;
+	}
+
+	private void newNode(int node, int square) {
+		this.firstChild[node] = -1;
+		this.childCount[node] = 0;
+		this.move[node] = (byte) square;
+		this.visits[node] = 0;
+		this.wins[node] = 0;
+	}
+
+	/**
+	 * Look for the position with player to move in the tree, at most 3 moves
+	 * below the root: our last move, the reply, and a pass.
+	 *
+	 * @return the node of the position, or -1 if it is not in the tree.
+	 */
+	private int find(long p1, long p2, char player) {
+		long own = this.rootPlayer == OthelloBoard.P1 ? this.rootP1 : this.rootP2;
+		long opp = this.rootPlayer == OthelloBoard.P1 ? this.rootP2 : this.rootP1;
+		long wantOwn = player == OthelloBoard.P1 ? p1 : p2, wantOpp = player == OthelloBoard.P1 ? p2 : p1;
+		return find(0, own, opp, this.rootPlayer, wantOwn, wantOpp, player, 3);
+	}
+
+	private int find(int node, long own, long opp, char toMove, long wantOwn, long wantOpp, char player, int depth) {
+		if (toMove == player && own == wantOwn && opp == wantOpp) {
+			return node;
+		}
+		if (depth == 0 || this.firstChild[node] < 0) {
+			return -1;
+		}
+		int first = this.firstChild[node];
+		for (int child = first; child < first + this.childCount[node]; child++) {
+			int square = this.move[child];
+			long newOwn = own, newOpp = opp;
+			if (square != PASS) {
+				long flips = OthelloBitBoard.flips(square, own, opp);
+				newOwn |= flips | (1L << square);
+				newOpp &= ~flips;
+			}
+			int found = find(child, newOpp, newOwn, OthelloBoard.otherPlayer(toMove), wantOwn, wantOpp, player,
+					depth - 1);
+			if (found >= 0) {
+				return found;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Copy the tree below root into the other pool, breadth first so that
+	 * children stay next to each other, and make that pool the one in use.
+	 */
+	private void keep(int root) {
+		copyNode(root, 0);
+		int count = 1;
+		// Each copied node still holds the old index of its children, until its turn comes
+		for (int node = 0; node < count; node++) {
+			int oldFirst = this.nextFirstChild[node];
+			if (oldFirst < 0) {
+				continue;
+			}
+			this.nextFirstChild[node] = count;
+			for (int i = 0; i < this.nextChildCount[node]; i++) {
+				copyNode(oldFirst + i, count++);
+			}
+		}
+
+		int[] ints = this.firstChild;
+		this.firstChild = this.nextFirstChild;
+		this.nextFirstChild = ints;
+		byte[] bytes = this.childCount;
+		this.childCount = this.nextChildCount;
+		this.nextChildCount = bytes;
+		bytes = this.move;
+		this.move = this.nextMove;
+		this.nextMove = bytes;
+		ints = this.visits;
+		this.visits = this.nextVisits;
+		this.nextVisits = ints;
+		ints = this.wins;
+		this.wins = this.nextWins;
+		this.nextWins = ints;
+		this.nodeCount = count;
+	}
+
+	private void copyNode(int from, int to) {
+		this.nextFirstChild[to] = this.firstChild[from];
+		this.nextChildCount[to] = this.childCount[from];
+		this.nextMove[to] = this.move[from];
+		this.nextVisits[to] = this.visits[from];
+		this.nextWins[to] = this.wins[from];
+	}
+
+	/**
+	 *
+	 * @return the number of random games played for the last move.
+	 */
+	public long getPlayouts() {
+		return this.playouts;
+	}
+
+	/**
+	 *
+	 * @return the number of random games played per second for the last move.
+	 */
+	public long getPlayoutsPerSecond() {
+		return this.elapsedNanos == 0 ? 0 : this.playouts * 1000000000L / this.elapsedNanos;
+	}
+
+	/**
+	 *
+	 * @return the number of nodes in the tree after the last move.
+	 */
+	public int getNodes() {
+		return this.nodeCount;
+	}
+
+	/**
+	 *
+	 * @return the number of nodes kept from the tree of the move before.
+	 */
+	public int getReusedNodes() {
+		return this.reused;
+	}
+
+	/**
+	 *
+	 * @return the number of bytes taken by the node pools.
+	 */
+	public long getPoolBytes() {
+		long nodeBytes = Integer.BYTES + Byte.BYTES + Byte.BYTES + Integer.BYTES + Integer.BYTES;
+		return 2 * nodeBytes * this.firstChild.length;
+	}
+
+	/**
+	 *
+	 * @return a one line summary of the search for the last move.
+	 */
+	public String getStatistics() {
+		if (this.playouts == 0) {
+			return "book move";
+		}
+		return this.playouts + " playouts in " + this.elapsedNanos / 1000000 + " ms, " + getPlayoutsPerSecond()
+				+ " playouts/s, " + this.nodeCount + " nodes (" + this.reused + " kept), pool "
+				+ getPoolBytes() / (1024 * 1024) + " MB";
+	}
+}
@@ -1,17 +1,16 @@
 package othello;
 
-import java.util.ArrayList;
-import java.util.Random;
-
 /**
- * PlayerRandom makes a move by first determining all possible moves that this
- * player can make, putting them in an ArrayList, and then randomly choosing one
- * of them.
+ * PlayerRandom makes a move by choosing one of all the possible moves that
+ * this player can make, each as likely. On an OthelloBitBoard it takes a
+ * random set bit of the mask of moves; on other boards it puts the moves in an
+ * array and chooses one of them.
  *
  */
 public class PlayerRandom extends Player {
 
-	private Random rand = new Random();
+	private final FastRandom rand;
+	private int[] moves;
 
 	/**
 	 * Constructs a new PlayerRandom playing in the game, othello, as player.
@@ -20,7 +19,22 @@ public class PlayerRandom extends Player {
 	 * @param player
 	 */
 	public PlayerRandom(Othello othello, char player) {
+		this(othello, player, System.nanoTime() ^ System.identityHashCode(othello) ^ player);
+	}
+
+	/**
+	 * Constructs a new PlayerRandom playing in the game, othello, as player,
+	 * making the same moves every time for the same seed.
+	 *
+	 * @param othello
+	 * @param player
+	 * @param seed    the seed of the random moves
+	 */
+	public PlayerRandom(Othello othello, char player, long seed) {
 		super(othello, player);
+		this.rand = new FastRandom(seed);
+		int dim = othello.board.getDimension();
+		this.moves = new int[dim * dim];
 	}
 
 	/**
@@ -29,14 +43,17 @@ public class PlayerRandom extends Player {
 	 * @return a random move.
 	 */
 	public Move getMove() {
-		ArrayList<Move> moves = new ArrayList<>();
-		for (int row = 0; row < Othello.DIMENSION; row++) {
-			for (int col = 0; col < Othello.DIMENSION; col++) {
-				if (othello.board.validMove(row, col, player)) {
-					moves.add(new Move(row, col));
-				}
+		int dim = othello.board.getDimension();
+		int square;
+		if (othello.board instanceof OthelloBitBoard board) {
+			square = rand.nextSquare(board.getMoveMask(player));
+		} else {
+			if (moves.length < dim * dim) {
+				moves = new int[dim * dim];
 			}
+			int count = othello.board.getMoves(player, moves);
+			square = moves[rand.nextInt(count)];
 		}
-		return moves.get(rand.nextInt(moves.size()));
+		return Move.of(square / dim, square % dim);
 	}
 }
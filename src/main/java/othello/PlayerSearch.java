@@ -0,0 +1,362 @@
+package othello;
+
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * PlayerSearch makes a move by looking ahead with an alpha-beta search
+ * (AlphaBetaSearch). It searches 1 move ahead, then 2, and so on, until its
+ * time or node budget for the move runs out, and plays the best move of the
+ * deepest search that finished. Each search starts from the best moves found
+ * by the one before, so little is lost by deepening one move at a time.
+ *
+ * With DEFAULT_SOLVE_EMPTIES or fewer empty squares left, PlayerSearch solves
+ * the rest of the game exactly with an EndgameSolver instead, and plays
+ * perfectly from there.
+ *
+ * With more than one thread, the search is a Lazy SMP search: helper threads
+ * search the same position on their own copies of the board, sharing the
+ * TranspositionTable, so each thread finds much of its work already done by the
+ * others. Half the helpers run one move deeper than the main search, so the
+ * threads spread out over the tree instead of all searching the same moves.
+ * Only the main search watches the limits and picks the move; it stops the
+ * helpers when it is done.
+ *
+ * After each move, the depth reached, the number of positions searched and the
+ * nodes searched per second are available, to follow how fast the search is.
+ * Run main to measure how much faster the search gets with more threads.
+ *
+ */
+public class PlayerSearch extends Player {
+
+	public static final long DEFAULT_TIME = 1000; // milliseconds per move
+	public static final int DEFAULT_SOLVE_EMPTIES = 16;
+	private static final long TABLE_BYTES = 1L << 24;
+
+	private long timeLimit;
+	private long nodeLimit = Long.MAX_VALUE;
+	private int maxDepth = 60;
+	private int threads = 1;
+	private int solveEmpties = DEFAULT_SOLVE_EMPTIES;
+
+	private final AtomicBoolean stop = new AtomicBoolean();
+	private TranspositionTable table;
+	private AlphaBetaSearch search;
+	private AlphaBetaSearch[] helpers = new AlphaBetaSearch[0];
+	private EndgameSolver solver;
+
+	// Statistics for the last move
+	private int depthReached, score;
+	private boolean solved, fromBook;
+	private long nodes, elapsedNanos;
+
+	/**
+	 * Constructs a new PlayerSearch playing in the game, othello, as player,
+	 * with DEFAULT_TIME per move.
+	 *
+	 * @param othello
+	 * @param player
+	 */
+	public PlayerSearch(Othello othello, char player) {
+		this(othello, player, DEFAULT_TIME);
+	}
+
+	/**
+	 * Constructs a new PlayerSearch playing in the game, othello, as player.
+	 *
+	 * @param othello
+	 * @param player
+	 * @param timeLimit the number of milliseconds to search for each move
+	 */
+	public PlayerSearch(Othello othello, char player, long timeLimit) {
+		super(othello, player);
+		this.timeLimit = timeLimit;
+	}
+
+	/**
+	 *
+	 * @param nodeLimit the most positions to search for each move, as well as the
+	 *                  time limit
+	 */
+	public void setNodeLimit(long nodeLimit) {
+		this.nodeLimit = nodeLimit;
+	}
+
+	/**
+	 *
+	 * @param maxDepth the most moves to look ahead
+	 */
+	public void setMaxDepth(int maxDepth) {
+		this.maxDepth = maxDepth;
+	}
+
+	/**
+	 *
+	 * @param threads the number of threads to search with, at least 1. The node
+	 *                limit only counts the positions searched by the main thread.
+	 */
+	public void setThreads(int threads) {
+		if (threads < 1) {
+			throw new IllegalArgumentException("threads must be at least 1, not " + threads);
+		}
+		this.threads = threads;
+	}
+
+	/**
+	 *
+	 * @param solveEmpties the most empty squares at which to solve the rest of the
+	 *                     game exactly (with EndgameSolver) instead of searching.
+	 *                     0 never solves.
+	 */
+	public void setSolveEmpties(int solveEmpties) {
+		this.solveEmpties = solveEmpties;
+	}
+
+	/**
+	 * Search with table rather than a table of its own, made at the first move.
+	 * A table kept from game to game saves making a new one for each.
+	 *
+	 * @param table the table of results to search with, which may be shared with
+	 *              other players
+	 */
+	public void setTable(TranspositionTable table) {
+		this.table = table;
+		this.search = new AlphaBetaSearch(table, this.stop);
+		this.solver = new EndgameSolver(table, this.stop);
+		this.helpers = new AlphaBetaSearch[0];
+	}
+
+	/**
+	 * Return the opening book's move, if there is one. Otherwise return the best
+	 * move found by searching deeper and deeper until the time or node limit is
+	 * reached. With few enough empty squares left, return the best
+	 * move found by solving the rest of the game instead, unless that can't be done
+	 * within half the limits, leaving the other half to search.
+	 *
+	 * @return the best Move found.
+	 */
+	public Move getMove() {
+		long start = System.nanoTime();
+		Move bookMove = bookMove();
+		this.fromBook = bookMove != null;
+		if (this.fromBook) {
+			this.depthReached = 0;
+			this.score = 0;
+			this.nodes = 0;
+			this.solved = false;
+			this.elapsedNanos = System.nanoTime() - start;
+			return bookMove;
+		}
+		if (this.table == null) {
+			setTable(new TranspositionTable(TABLE_BYTES, false));
+		}
+		OthelloBitBoard board = new OthelloBitBoard(othello.board);
+		int empties = board.getCount(OthelloBoard.EMPTY);
+		long deadline = start + Math.min(this.timeLimit, Long.MAX_VALUE / 4000000) * 1000000;
+
+		this.table.newSearch();
+		this.stop.set(false);
+		this.solved = false;
+		this.nodes = 0;
+		if (empties <= this.solveEmpties) {
+			// The solver gets half of the time and nodes, so a search can still use the rest
+			// if it can't finish
+			this.solver.reset(true, start + (deadline - start) / 2, this.nodeLimit / 2);
+			int difference = this.solver.solve(board.getMask(player), board.getMask(OthelloBoard.otherPlayer(player)));
+			this.nodes = this.solver.getNodes();
+			if (!this.solver.isAborted()) {
+				this.solved = true;
+				this.score = AlphaBetaSearch.finalScore(difference);
+				this.depthReached = empties;
+				this.elapsedNanos = System.nanoTime() - start;
+				int bestMove = this.solver.getBestMove();
+				return Move.of(bestMove);
+			}
+			// Out of time, fall back on a search with what is left
+			this.stop.set(false);
+		}
+		long searchStart = System.nanoTime();
+		this.search.reset(board, true, deadline, this.nodeLimit - this.nodes);
+		int lastDepth = Math.min(this.maxDepth, empties);
+		Thread[] helperThreads = startHelpers(board, lastDepth);
+
+		int bestMove = Long.numberOfTrailingZeros(board.getMoveMask(player));
+		this.depthReached = 0;
+		for (int depth = 1; depth <= lastDepth; depth++) {
+			int score = this.search.searchRoot(player, depth);
+			if (this.search.isAborted()) {
+				break;
+			}
+			bestMove = this.search.getBestMove();
+			this.score = score;
+			this.depthReached = depth;
+			// The next depth takes several times as long, don't start what can't finish
+			if (System.nanoTime() - searchStart > (deadline - searchStart) / 2) {
+				break;
+			}
+		}
+		this.stop.set(true);
+		this.nodes += this.search.getNodes();
+		for (int i = 0; i < helperThreads.length; i++) {
+			try {
+				helperThreads[i].join();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			this.nodes += this.helpers[i].getNodes();
+		}
+		this.elapsedNanos = System.nanoTime() - start;
+		return Move.of(bestMove);
+	}
+
+	/**
+	 * Start a thread for each helper search, each on its own copy of board.
+	 *
+	 * @return the helper threads, helper i searching with helpers[i].
+	 */
+	private Thread[] startHelpers(OthelloBitBoard board, int lastDepth) {
+		if (this.helpers.length != this.threads - 1) {
+			this.helpers = new AlphaBetaSearch[this.threads - 1];
+			for (int i = 0; i < this.helpers.length; i++) {
+				this.helpers[i] = new AlphaBetaSearch(this.table, this.stop);
+			}
+		}
+		Thread[] helperThreads = new Thread[this.helpers.length];
+		for (int i = 0; i < this.helpers.length; i++) {
+			AlphaBetaSearch helper = this.helpers[i];
+			helper.reset(new OthelloBitBoard(board), false, 0, 0);
+			int firstDepth = 1 + i % 2;
+			helperThreads[i] = new Thread(() -> help(helper, firstDepth, lastDepth), "search helper " + (i + 1));
+			helperThreads[i].setDaemon(true);
+			helperThreads[i].start();
+		}
+		return helperThreads;
+	}
+
+	/**
+	 * Deepen helper one move at a time from firstDepth, until the main search
+	 * stops it. What it finds only reaches the main search through the table.
+	 */
+	private void help(AlphaBetaSearch helper, int firstDepth, int lastDepth) {
+		for (int depth = firstDepth; depth <= lastDepth; depth++) {
+			helper.searchRoot(this.player, depth);
+			if (helper.isAborted()) {
+				return;
+			}
+		}
+	}
+
+	/**
+	 *
+	 * @return the depth of the deepest search that finished for the last move,
+	 *         or the number of empty squares if the rest of the game was solved.
+	 */
+	public int getDepthReached() {
+		return this.depthReached;
+	}
+
+	/**
+	 *
+	 * @return whether the last move was found by solving the rest of the game.
+	 */
+	public boolean isSolved() {
+		return this.solved;
+	}
+
+	/**
+	 *
+	 * @return the score of the last move, from the deepest search that finished.
+	 *         Above AlphaBetaSearch.WIN is a certain win.
+	 */
+	public int getScore() {
+		return this.score;
+	}
+
+	/**
+	 *
+	 * @return the number of positions searched for the last move.
+	 */
+	public long getNodes() {
+		return this.nodes;
+	}
+
+	/**
+	 *
+	 * @return the number of positions searched per second for the last move.
+	 */
+	public long getNodesPerSecond() {
+		return this.elapsedNanos == 0 ? 0 : this.nodes * 1000000000L / this.elapsedNanos;
+	}
+
+	/**
+	 *
+	 * @return a one line summary of the search for the last move.
+	 */
+	public String getStatistics() {
+		if (this.fromBook) {
+			return "book move";
+		}
+		return (this.solved ? "solved " : "depth ") + this.depthReached + ", score " + this.score + ", " + this.nodes
+				+ " nodes in " + this.elapsedNanos / 1000000 + " ms, " + getNodesPerSecond() + " nodes/s"
+				+ (this.threads > 1 ? " on " + this.threads + " threads" : "");
+	}
+
+	/**
+	 * Run main to print the speedup curve of the parallel search: the time to
+	 * search a fixed set of positions to a fixed depth with 1, 2, 4, 8 and 16
+	 * threads, and how many times faster than 1 thread that is.
+	 * The positions come from random games with a fixed seed, so every run
+	 * searches the same ones.
+	 *
+	 * @param args the depth to search to (default 11), and the number of positions
+	 *             (default 8)
+	 */
+	public static void main(String[] args) {
+		int depth = args.length > 0 ? Integer.parseInt(args[0]) : 11;
+		int positions = args.length > 1 ? Integer.parseInt(args[1]) : 8;
+
+		Random rand = new Random(2024);
+		Othello[] games = new Othello[positions];
+		int[] squares = new int[64];
+		for (int i = 0; i < positions; i++) {
+			// Midgame positions, 20 to 29 moves in
+			int moves = 20 + rand.nextInt(10);
+			do {
+				games[i] = new Othello();
+				while (!games[i].isGameOver() && 60 - games[i].board.getCount(OthelloBoard.EMPTY) < moves) {
+					int count = games[i].board.getMoves(games[i].getWhosTurn(), squares);
+					int square = squares[rand.nextInt(count)];
+					games[i].move(square / 8, square % 8);
+				}
+			} while (games[i].isGameOver());
+		}
+
+		// Warm up, so that compiling the search isn't counted against 1 thread
+		for (Othello game : games) {
+			PlayerSearch search = new PlayerSearch(game, game.getWhosTurn(), Long.MAX_VALUE);
+			search.setMaxDepth(depth);
+			search.getMove();
+		}
+
+		System.out.println(Runtime.getRuntime().availableProcessors() + " processors, " + positions
+				+ " positions searched to depth " + depth);
+		System.out.println("threads       ms  speedup        nodes   nodes/s");
+		long baseNanos = 0;
+		for (int threads = 1; threads <= 16; threads *= 2) {
+			long nanos = 0, nodes = 0;
+			for (Othello game : games) {
+				PlayerSearch search = new PlayerSearch(game, game.getWhosTurn(), Long.MAX_VALUE);
+				search.setMaxDepth(depth);
+				search.setThreads(threads);
+				search.getMove();
+				nanos += search.elapsedNanos;
+				nodes += search.nodes;
+			}
+			if (threads == 1) {
+				baseNanos = nanos;
+			}
+			System.out.printf("%7d %8d %8.2f %12d %9d%n", threads, nanos / 1000000, (double) baseNanos / nanos,
+					nodes, nodes * 1000000000L / nanos);
+		}
+	}
+}
@@ -0,0 +1,75 @@
+package othello;
+
+/**
+ * RandomPlayout plays random games on a pair of bitboard masks, the kernel of
+ * the random simulations and of PlayerMCTS. Each move is the k-th bit of the
+ * mask of moves, for a random k from a FastRandom, so a whole game allocates
+ * nothing.
+ *
+ */
+public final class RandomPlayout {
+
+	static final long START_P1 = new OthelloBitBoard().getMask(OthelloBoard.P1);
+	static final long START_P2 = new OthelloBitBoard().getMask(OthelloBoard.P2);
+
+	private RandomPlayout() {
+	}
+
+	/**
+	 * The k-th set bit of mask, counting from the lowest. Long.expand deposits
+	 * the single bit 1 << k onto the set bits of mask, which is one instruction
+	 * where the processor has one (PDEP).
+	 *
+	 * @param mask the set bits to choose from
+	 * @param k    in {0,...,bitCount(mask)-1}
+	 * @return the square of the k-th set bit.
+	 */
+	public static int select(long mask, int k) {
+		return Long.numberOfTrailingZeros(Long.expand(1L << k, mask));
+	}
+
+	/**
+	 * Play random moves to the end of the game.
+	 *
+	 * @param own  the tokens of the player to move
+	 * @param opp  the tokens of the other player
+	 * @param rand where the moves come from
+	 * @return the final token difference for own, own tokens minus opp tokens.
+	 */
+	public static int play(long own, long opp, FastRandom rand) {
+		boolean swapped = false;
+		boolean passed = false;
+		while (true) {
+			long moves = OthelloBitBoard.moves(own, opp);
+			if (moves == 0) {
+				if (passed) {
+					break;
+				}
+				passed = true;
+			} else {
+				passed = false;
+				int square = rand.nextSquare(moves);
+				long flips = OthelloBitBoard.flips(square, own, opp);
+				own |= flips | (1L << square);
+				opp &= ~flips;
+			}
+			long swap = own;
+			own = opp;
+			opp = swap;
+			swapped = !swapped;
+		}
+		int difference = Long.bitCount(own) - Long.bitCount(opp);
+		return swapped ? -difference : difference;
+	}
+
+	/**
+	 * Play a random game from the start.
+	 *
+	 * @param rand where the moves come from
+	 * @return the winner, P1, P2, or EMPTY for a draw.
+	 */
+	public static char playGame(FastRandom rand) {
+		int difference = play(START_P1, START_P2, rand);
+		return difference > 0 ? OthelloBoard.P1 : (difference < 0 ? OthelloBoard.P2 : OthelloBoard.EMPTY);
+	}
+}
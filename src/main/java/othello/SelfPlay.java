@@ -0,0 +1,402 @@
+package othello;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * SelfPlay plays games between two players and writes every position of them,
+ * labelled with the move made and how the game ended, to a file to train
+ * evaluators on.
+ *
+ * Worker threads play the games, each made from its own seed as in
+ * OthelloSimulation, and put them on a bounded queue; when the queue is full
+ * they wait, so they can't get ahead of the file. A single writer takes games
+ * off the queue, as many as are there at a time, and writes their positions
+ * through one large buffer. How full the queue is, on average, tells what to
+ * change: near empty, the workers can't keep up with the writer, and more of
+ * them would help; near full, the writer can't keep up, and more would not.
+ *
+ * The file is MAGIC (8 bytes), then POSITION_BYTES for each position, in the
+ * order of the moves of each game, from the start position: the tokens of the
+ * player to move and of the other player (8 bytes each, big-endian), the
+ * square of the move made, row * 8 + col (1 byte), and the final token
+ * difference for the player to move, their tokens minus the other player's (1
+ * signed byte). Passes are not positions, as there is no move to make. The
+ * games are in the order they were played, which depends on the threads.
+ *
+ */
+public class SelfPlay {
+
+	/**
+	 * Makes the players of a game.
+	 */
+	@FunctionalInterface
+	public interface Players {
+		/**
+		 *
+		 * @param othello the game
+		 * @param player  P1 or P2
+		 * @param seed    the seed of the game, for players that play at random
+		 * @return the player to play othello as player.
+		 */
+		Player create(Othello othello, char player, long seed);
+	}
+
+	public static final long MAGIC = 0x4f7468656c6c6f53L; // "OthelloS"
+	public static final int POSITION_BYTES = 18;
+	public static final int DEFAULT_QUEUE = 1024;
+	private static final int BUFFER_BYTES = 1 << 20;
+
+	private final Players p1, p2;
+	private final long seed;
+	private int threads = Runtime.getRuntime().availableProcessors();
+	private int queueCapacity = DEFAULT_QUEUE;
+	private long reportMillis;
+
+	// Statistics for the last run
+	private long games, positions, elapsedNanos;
+	private long queueSamples, queueTotal;
+	private int queueMax;
+
+	/**
+	 * A played game: the positions before each move, with the move made, and
+	 * the final token difference.
+	 */
+	private static final class Game {
+		final long[] boards = new long[120]; // own, opp for each move
+		final int[] moves = new int[60]; // square, + 64 if P2 moves
+		int length;
+		int difference; // P1 tokens minus P2 tokens
+	}
+
+	/**
+	 * Keeps the positions of a game, on a bitboard of its own, as the game is
+	 * played.
+	 */
+	private static final class Recorder implements GameListener {
+		final OthelloBitBoard board = new OthelloBitBoard();
+		final Game game = new Game();
+
+		@Override
+		public void moveMade(Othello othello, char player, Move move) {
+			int i = this.game.length++;
+			this.game.boards[2 * i] = this.board.getMask(player);
+			this.game.boards[2 * i + 1] = this.board.getMask(OthelloBoard.otherPlayer(player));
+			this.game.moves[i] = move.getSquare() + (player == OthelloBoard.P1 ? 0 : 64);
+			this.board.play(move.getSquare(), player);
+		}
+
+		@Override
+		public void gameEnded(Othello othello, char winner) {
+			this.game.difference = othello.board.getCount(OthelloBoard.P1) - othello.board.getCount(OthelloBoard.P2);
+		}
+	}
+
+	private static final class Controller extends OthelloController {
+		Controller(Othello othello, Player player1, Player player2) {
+			this.othello = othello;
+			this.player1 = player1;
+			this.player2 = player2;
+		}
+	}
+
+	/**
+	 * Constructs a new SelfPlay.
+	 *
+	 * @param p1   makes the player P1 of each game
+	 * @param p2   makes the player P2 of each game
+	 * @param seed the master seed, see OthelloSimulation.gameSeed
+	 */
+	public SelfPlay(Players p1, Players p2, long seed) {
+		this.p1 = p1;
+		this.p2 = p2;
+		this.seed = seed;
+	}
+
+	/**
+	 *
+	 * @param threads the number of threads to play games on, at least 1; the
+	 *                number of processors by default
+	 */
+	public void setThreads(int threads) {
+		this.threads = Math.max(1, threads);
+	}
+
+	/**
+	 *
+	 * @param queueCapacity the most played games waiting to be written, at least
+	 *                      1; DEFAULT_QUEUE by default
+	 */
+	public void setQueueCapacity(int queueCapacity) {
+		this.queueCapacity = Math.max(1, queueCapacity);
+	}
+
+	/**
+	 *
+	 * @param reportMillis how often to print the positions per second and how
+	 *                     full the queue is, or 0 never to; never by default
+	 */
+	public void setReportMillis(long reportMillis) {
+		this.reportMillis = reportMillis;
+	}
+
+	/**
+	 * Play numGames games, and write their positions to file, replacing it.
+	 *
+	 * @param file     where to write the positions
+	 * @param numGames the number of games to play
+	 * @throws IOException      if the file can't be written
+	 * @throws RuntimeException the first exception a game threw, if any, after
+	 *                          the other threads stop; an Error is thrown as it
+	 *                          is
+	 */
+	public void run(Path file, long numGames) throws IOException {
+		try (OutputStream out = Files.newOutputStream(file)) {
+			run(out, numGames);
+		}
+	}
+
+	/**
+	 * Play numGames games, and write their positions to out.
+	 *
+	 * @param out      where to write the positions
+	 * @param numGames the number of games to play
+	 * @throws IOException      if out can't be written
+	 * @throws RuntimeException the first exception a game threw, if any, after
+	 *                          the other threads stop; an Error is thrown as it
+	 *                          is
+	 */
+	public void run(OutputStream out, long numGames) throws IOException {
+		BlockingQueue<Game> queue = new ArrayBlockingQueue<>(this.queueCapacity);
+		AtomicLong next = new AtomicLong();
+		AtomicReference<Throwable> failure = new AtomicReference<>();
+		Thread[] workers = new Thread[this.threads];
+		this.games = this.positions = this.queueSamples = this.queueTotal = this.queueMax = 0;
+		long start = System.nanoTime();
+		for (int i = 0; i < workers.length; i++) {
+			workers[i] = new Thread(() -> {
+				try {
+					play(queue, next, numGames);
+				} catch (InterruptedException e) {
+					// the writer stopped
+				} catch (Throwable e) {
+					failure.compareAndSet(null, e);
+					next.set(numGames); // stop the other threads
+				}
+			}, "self-play " + (i + 1));
+			workers[i].start();
+		}
+		try {
+			write(out, queue, numGames, failure, start);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} finally {
+			for (Thread worker : workers) {
+				worker.interrupt(); // any waiting on a full queue
+			}
+			for (Thread worker : workers) {
+				try {
+					worker.join();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+		}
+		if (failure.get() instanceof RuntimeException e) {
+			throw e;
+		} else if (failure.get() instanceof Error e) {
+			throw e;
+		}
+		this.elapsedNanos = System.nanoTime() - start;
+	}
+
+	/**
+	 * Play games until all numGames are taken, putting each on the queue.
+	 */
+	private void play(BlockingQueue<Game> queue, AtomicLong next, long numGames) throws InterruptedException {
+		for (long game = next.getAndIncrement(); game < numGames; game = next.getAndIncrement()) {
+			long gameSeed = OthelloSimulation.gameSeed(this.seed, game);
+			Othello othello = new Othello();
+			Controller oc = new Controller(othello, this.p1.create(othello, OthelloBoard.P1, gameSeed),
+					this.p2.create(othello, OthelloBoard.P2, Zobrist.mix(gameSeed)));
+			Recorder recorder = new Recorder();
+			oc.setListener(recorder);
+			oc.play();
+			queue.put(recorder.game);
+		}
+	}
+
+	/**
+	 * Take games off the queue and write them, until numGames are written or a
+	 * worker fails.
+	 */
+	private void write(OutputStream out, BlockingQueue<Game> queue, long numGames,
+			AtomicReference<Throwable> failure, long start) throws IOException, InterruptedException {
+		ByteBuffer buffer = ByteBuffer.allocate(BUFFER_BYTES);
+		buffer.putLong(MAGIC);
+		List<Game> batch = new ArrayList<>();
+		long lastReport = start, lastPositions = 0;
+		while (this.games < numGames && failure.get() == null) {
+			Game first = queue.poll(100, TimeUnit.MILLISECONDS);
+			if (first != null) {
+				int waiting = Math.min(queue.size() + 1, this.queueCapacity); // another may come in
+				this.queueSamples++;
+				this.queueTotal += waiting;
+				this.queueMax = Math.max(this.queueMax, waiting);
+				batch.add(first);
+				queue.drainTo(batch);
+				for (Game game : batch) {
+					for (int i = 0; i < game.length; i++) {
+						if (buffer.remaining() < POSITION_BYTES) {
+							out.write(buffer.array(), 0, buffer.position());
+							buffer.clear();
+						}
+						boolean p1 = game.moves[i] < 64;
+						buffer.putLong(game.boards[2 * i]);
+						buffer.putLong(game.boards[2 * i + 1]);
+						buffer.put((byte) (game.moves[i] & 63));
+						buffer.put((byte) (p1 ? game.difference : -game.difference));
+					}
+					this.positions += game.length;
+				}
+				this.games += batch.size();
+				batch.clear();
+			}
+			long now = System.nanoTime();
+			if (this.reportMillis > 0 && now - lastReport >= this.reportMillis * 1000000) {
+				System.out.println(this.games + " games, " + this.positions + " positions, "
+						+ (this.positions - lastPositions) * 1000000000L / (now - lastReport) + " positions/s, queue "
+						+ queue.size() + " of " + this.queueCapacity);
+				lastReport = now;
+				lastPositions = this.positions;
+			}
+		}
+		out.write(buffer.array(), 0, buffer.position());
+		out.flush();
+	}
+
+	/**
+	 *
+	 * @return the number of games written in the last run.
+	 */
+	public long getGames() {
+		return this.games;
+	}
+
+	/**
+	 *
+	 * @return the number of positions written in the last run.
+	 */
+	public long getPositions() {
+		return this.positions;
+	}
+
+	/**
+	 *
+	 * @return the positions written per second in the last run.
+	 */
+	public long getPositionsPerSecond() {
+		return this.elapsedNanos == 0 ? 0 : this.positions * 1000000000L / this.elapsedNanos;
+	}
+
+	/**
+	 *
+	 * @return the average number of games on the queue when the writer took
+	 *         them in the last run.
+	 */
+	public float getAverageQueue() {
+		return this.queueSamples == 0 ? 0 : (float) this.queueTotal / this.queueSamples;
+	}
+
+	/**
+	 *
+	 * @return the most games on the queue when the writer took them in the last
+	 *         run.
+	 */
+	public int getMaxQueue() {
+		return this.queueMax;
+	}
+
+	/**
+	 *
+	 * @return a line about the last run, for printing.
+	 */
+	public String getStatistics() {
+		return this.games + " games, " + this.positions + " positions in " + this.elapsedNanos / 1000000 + " ms on "
+				+ this.threads + " threads, " + getPositionsPerSecond() + " positions/s, queue "
+				+ String.format("%.1f", getAverageQueue()) + " of " + this.queueCapacity + " on average, "
+				+ this.queueMax + " at most";
+	}
+
+	/**
+	 * The search players of a worker share one table, cleared for each game so
+	 * the games don't depend on which worker plays them.
+	 */
+	private static final long SEARCH_TABLE_BYTES = 1L << 20;
+	private static final ThreadLocal<TranspositionTable> SEARCH_TABLE = ThreadLocal
+			.withInitial(() -> new TranspositionTable(SEARCH_TABLE_BYTES, false));
+
+	/**
+	 *
+	 * @param name random, greedy, search or mcts
+	 * @return the Players that make players of that name, searching 4 moves
+	 *         deep to the end of the game, or playing out for 10 ms a move.
+	 */
+	static Players players(String name) {
+		return switch (name) {
+		case "random" -> (othello, player, seed) -> new PlayerRandom(othello, player, seed);
+		case "greedy" -> (othello, player, seed) -> new PlayerGreedy(othello, player);
+		case "search" -> (othello, player, seed) -> {
+			TranspositionTable table = SEARCH_TABLE.get();
+			table.clear();
+			PlayerSearch search = new PlayerSearch(othello, player, Long.MAX_VALUE);
+			search.setTable(table);
+			search.setMaxDepth(4);
+			search.setSolveEmpties(0);
+			return search;
+		};
+		case "mcts" -> (othello, player, seed) -> new PlayerMCTS(othello, player, 10, 1 << 12, seed);
+		default -> throw new IllegalArgumentException("no player " + name);
+		};
+	}
+
+	/**
+	 * Run main to play games and write their positions.
+	 *
+	 * @param args the file to write, then optionally the number of games (10000
+	 *             by default), the players P1 and P2 (random, greedy, search or
+	 *             mcts; random and greedy by default), the seed, the number of
+	 *             threads and the queue capacity
+	 * @throws IOException if the file can't be written
+	 */
+	public static void main(String[] args) throws IOException {
+		if (args.length < 1) {
+			System.out.println("usage: SelfPlay positions.bin [games] [p1] [p2] [seed] [threads] [queue]");
+			return;
+		}
+		long numGames = args.length > 1 ? Long.parseLong(args[1]) : 10000;
+		Players p1 = players(args.length > 2 ? args[2] : "random");
+		Players p2 = players(args.length > 3 ? args[3] : "greedy");
+		long seed = args.length > 4 ? Long.parseLong(args[4]) : System.nanoTime();
+		SelfPlay selfPlay = new SelfPlay(p1, p2, seed);
+		if (args.length > 5) {
+			selfPlay.setThreads(Integer.parseInt(args[5]));
+		}
+		if (args.length > 6) {
+			selfPlay.setQueueCapacity(Integer.parseInt(args[6]));
+		}
+		selfPlay.setReportMillis(1000);
+		selfPlay.run(Path.of(args[0]), numGames);
+		System.out.println("seed " + seed + ": " + selfPlay.getStatistics());
+	}
+}
@@ -0,0 +1,173 @@
+package othello;
+
+/**
+ * The 8 symmetries of the 8x8 board: turning it by a quarter turn at a time,
+ * and reflecting it. Positions that are turns or reflections of each other
+ * play the same, so a book or a database can keep one of them, the canonical
+ * one, and find the rest through it.
+ *
+ * A transform t, in {0,...,7}, transposes the board (swaps rows and columns) if
+ * t has bit 2 set, then flips it upside down if t has bit 1 set, then mirrors
+ * it left to right if t has bit 0 set. Each step is a few shifts and masks on
+ * the 64-bit masks of an OthelloBitBoard.
+ *
+ * The canonical form of a position is the transform of it with the smallest
+ * P1 mask, then the smallest P2 mask, compared as unsigned numbers, and its
+ * canonical key is the Zobrist key of that transform.
+ *
+ */
+public final class Symmetry {
+
+	public static final int TRANSFORMS = 8;
+
+	private static final int[] INVERSE = new int[TRANSFORMS];
+	private static final int[][] SQUARES = new int[TRANSFORMS][64];
+
+	static {
+		for (int t = 0; t < TRANSFORMS; t++) {
+			for (int square = 0; square < 64; square++) {
+				SQUARES[t][square] = Long.numberOfTrailingZeros(transform(1L << square, t));
+			}
+		}
+		// A mask that no symmetry leaves alone tells the transforms apart
+		long test = 0x0000000000000107L;
+		for (int t = 0; t < TRANSFORMS; t++) {
+			for (int u = 0; u < TRANSFORMS; u++) {
+				if (transform(transform(test, t), u) == test) {
+					INVERSE[t] = u;
+				}
+			}
+		}
+	}
+
+	private Symmetry() {
+	}
+
+	/**
+	 *
+	 * @return mask turned upside down, row 0 swapped with row 7 and so on.
+	 */
+	public static long flipVertical(long mask) {
+		return Long.reverseBytes(mask);
+	}
+
+	/**
+	 *
+	 * @return mask mirrored left to right, column 0 swapped with column 7 and so on.
+	 */
+	public static long mirror(long mask) {
+		mask = ((mask >>> 1) & 0x5555555555555555L) | ((mask & 0x5555555555555555L) << 1);
+		mask = ((mask >>> 2) & 0x3333333333333333L) | ((mask & 0x3333333333333333L) << 2);
+		return ((mask >>> 4) & 0x0f0f0f0f0f0f0f0fL) | ((mask & 0x0f0f0f0f0f0f0f0fL) << 4);
+	}
+
+	/**
+	 *
+	 * @return mask transposed, (row, col) swapped with (col, row).
+	 */
+	public static long transpose(long mask) {
+		long t = 0x0f0f0f0f00000000L & (mask ^ (mask << 28));
+		mask ^= t ^ (t >>> 28);
+		t = 0x3333000033330000L & (mask ^ (mask << 14));
+		mask ^= t ^ (t >>> 14);
+		t = 0x5500550055005500L & (mask ^ (mask << 7));
+		return mask ^ t ^ (t >>> 7);
+	}
+
+	/**
+	 *
+	 * @param mask the tokens to transform
+	 * @param t    a transform, in {0,...,7}
+	 * @return mask transformed by t.
+	 */
+	public static long transform(long mask, int t) {
+		if ((t & 4) != 0) {
+			mask = transpose(mask);
+		}
+		if ((t & 2) != 0) {
+			mask = flipVertical(mask);
+		}
+		if ((t & 1) != 0) {
+			mask = mirror(mask);
+		}
+		return mask;
+	}
+
+	/**
+	 *
+	 * @param t a transform, in {0,...,7}
+	 * @return the transform that undoes t.
+	 */
+	public static int inverse(int t) {
+		return INVERSE[t];
+	}
+
+	/**
+	 *
+	 * @param square a square, row * 8 + col
+	 * @param t      a transform, in {0,...,7}
+	 * @return the square that t moves square to.
+	 */
+	public static int transformSquare(int square, int t) {
+		return SQUARES[t][square];
+	}
+
+	/**
+	 *
+	 * @param p1 the tokens of P1
+	 * @param p2 the tokens of P2
+	 * @return the transform taking the position to its canonical form, the
+	 *         smallest if several do.
+	 */
+	public static int canonical(long p1, long p2) {
+		int best = 0;
+		long bestP1 = p1, bestP2 = p2;
+		for (int t = 1; t < TRANSFORMS; t++) {
+			long tp1 = transform(p1, t);
+			int compare = Long.compareUnsigned(tp1, bestP1);
+			if (compare < 0 || compare == 0 && Long.compareUnsigned(transform(p2, t), bestP2) < 0) {
+				best = t;
+				bestP1 = tp1;
+				bestP2 = transform(p2, t);
+			}
+		}
+		return best;
+	}
+
+	/**
+	 *
+	 * @param p1     the tokens of P1
+	 * @param p2     the tokens of P2
+	 * @param toMove P1 or P2
+	 * @return the Zobrist key of the canonical form of the position, the same for
+	 *         every transform of it.
+	 */
+	public static long canonicalKey(long p1, long p2, char toMove) {
+		int t = canonical(p1, p2);
+		long hash = OthelloBitBoard.hash(transform(p1, t), transform(p2, t));
+		return toMove == OthelloBoard.P2 ? hash ^ Zobrist.SIDE : hash;
+	}
+
+	/**
+	 * Where a move goes in the canonical form of the position. When the position
+	 * is symmetric, several transforms give the canonical form; the smallest
+	 * square any of them moves square to is taken, so that moves that are
+	 * reflections of each other in the position come out the same.
+	 *
+	 * @param p1     the tokens of P1
+	 * @param p2     the tokens of P2
+	 * @param square a square, row * 8 + col
+	 * @return the square of the move in the canonical form.
+	 */
+	public static int canonicalSquare(long p1, long p2, int square) {
+		int t = canonical(p1, p2);
+		long canonicalP1 = transform(p1, t), canonicalP2 = transform(p2, t);
+		int best = transformSquare(square, t);
+		for (int u = 0; u < TRANSFORMS; u++) {
+			if (transform(p1, u) == canonicalP1 && transform(p2, u) == canonicalP2) {
+				best = Math.min(best, transformSquare(square, u));
+			}
+		}
+		return best;
+	}
+}
@@ -0,0 +1,289 @@
+package othello;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A fixed size table of search results, keyed by the Zobrist key of a
+ * position, that any number of search threads can probe and store into at
+ * once without locks.
+ *
+ * Each entry is two longs: a data word packing the best move, depth, bound,
+ * score and age of the search, and the key XORed with the data word. A probe
+ * only accepts an entry when XORing the data back out gives its own key, so an
+ * entry torn by two threads writing it at the same time reads as a miss, never
+ * as a wrong answer.
+ *
+ * Entries come in buckets of 4 (64 bytes, one cache line). A store replaces the
+ * entry for the same key if there is one, otherwise the entry left by the
+ * oldest search, with the shallowest depth breaking ties.
+ *
+ * The table lives on the heap in a long[], or off the heap in a MemorySegment
+ * so that tables of several gigabytes add nothing to garbage collection. Close
+ * the table to free off heap memory.
+ *
+ */
+public class TranspositionTable implements AutoCloseable {
+
+	public static final int EXACT = 1, LOWER = 2, UPPER = 3; // bounds on the stored score
+	public static final int NO_MOVE = 127;
+
+	private static final int BUCKET = 4; // entries per bucket
+	private static final int LONGS_PER_BUCKET = 2 * BUCKET;
+
+	private final long[] table;
+	private final Arena arena;
+	private final MemorySegment segment;
+	private final long bucketMask;
+	private int age = 0;
+
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private final LongAdder collisions = new LongAdder();
+	private final LongAdder overwrites = new LongAdder();
+
+	/**
+	 * Constructs a new, empty TranspositionTable using at most bytes of memory.
+	 * The number of buckets is rounded down to a power of two.
+	 *
+	 * @param bytes   the most memory to use, at least 64
+	 * @param offHeap whether to keep the entries in off heap memory
+	 */
+	public TranspositionTable(long bytes, boolean offHeap) {
+		long buckets = Long.highestOneBit(Math.max(1, bytes / (LONGS_PER_BUCKET * Long.BYTES)));
+		if (!offHeap && buckets * LONGS_PER_BUCKET > Integer.MAX_VALUE - 8) {
+			throw new IllegalArgumentException("table of " + bytes + " bytes is too big for the heap, use offHeap");
+		}
+		this.bucketMask = buckets - 1;
+		if (offHeap) {
+			this.table = null;
+			this.arena = Arena.ofShared();
+			this.segment = this.arena.allocate(buckets * LONGS_PER_BUCKET * Long.BYTES, 64);
+			this.segment.fill((byte) 0);
+		} else {
+			this.table = new long[(int) (buckets * LONGS_PER_BUCKET)];
+			this.arena = null;
+			this.segment = null;
+		}
+	}
+
+	/**
+	 * Pack a search result into a data word. The bound is never 0, so neither is
+	 * a data word.
+	 *
+	 * @param move  the best move, a square in {0,...,63}, or NO_MOVE
+	 * @param depth the depth searched, in {0,...,255}
+	 * @param bound EXACT, LOWER or UPPER
+	 * @param score the score, in {-32768,...,32767}
+	 * @param age   the age of the search, in {0,...,255}
+	 * @return the data word.
+	 */
+	static long pack(int move, int depth, int bound, int score, int age) {
+		return (move & 0x7fL) | (depth & 0xffL) << 8 | (bound & 0x3L) << 16 | (age & 0xffL) << 24
+				| (score & 0xffffL) << 32;
+	}
+
+	/**
+	 *
+	 * @param data a data word returned by probe
+	 * @return the best move stored, a square in {0,...,63}, or NO_MOVE.
+	 */
+	public static int move(long data) {
+		return (int) (data & 0x7f);
+	}
+
+	/**
+	 *
+	 * @param data a data word returned by probe
+	 * @return the depth the stored score was searched to.
+	 */
+	public static int depth(long data) {
+		return (int) (data >>> 8) & 0xff;
+	}
+
+	/**
+	 *
+	 * @param data a data word returned by probe
+	 * @return EXACT, LOWER or UPPER.
+	 */
+	public static int bound(long data) {
+		return (int) (data >>> 16) & 0x3;
+	}
+
+	/**
+	 *
+	 * @param data a data word returned by probe
+	 * @return the stored score.
+	 */
+	public static int score(long data) {
+		return (short) (data >>> 32);
+	}
+
+	private static int age(long data) {
+		return (int) (data >>> 24) & 0xff;
+	}
+
+	private long read(long index) {
+		if (this.segment == null) {
+			return this.table[(int) index];
+		}
+		return this.segment.getAtIndex(ValueLayout.JAVA_LONG, index);
+	}
+
+	private void write(long index, long value) {
+		if (this.segment == null) {
+			this.table[(int) index] = value;
+		} else {
+			this.segment.setAtIndex(ValueLayout.JAVA_LONG, index, value);
+		}
+	}
+
+	/**
+	 *
+	 * @param key the Zobrist key of a position
+	 * @return the index of the first long of the bucket for key.
+	 */
+	private long bucket(long key) {
+		return (key & this.bucketMask) * LONGS_PER_BUCKET;
+	}
+
+	/**
+	 * Look up the stored result for a position.
+	 *
+	 * @param key the Zobrist key of the position
+	 * @return the data word stored for key, to be read with move, depth, bound and
+	 *         score, or 0 if there is none.
+	 */
+	public long probe(long key) {
+		long bucket = bucket(key);
+		boolean occupied = false;
+		for (int i = 0; i < BUCKET; i++) {
+			long data = read(bucket + 2 * i + 1);
+			if (data == 0) {
+				continue;
+			}
+			if ((read(bucket + 2 * i) ^ data) == key) {
+				this.hits.increment();
+				return data;
+			}
+			occupied = true;
+		}
+		if (occupied) {
+			this.collisions.increment();
+		} else {
+			this.misses.increment();
+		}
+		return 0;
+	}
+
+	/**
+	 * Store a search result for a position, following the replacement policy
+	 * described above.
+	 *
+	 * @param key   the Zobrist key of the position
+	 * @param move  the best move found, a square in {0,...,63}, or NO_MOVE
+	 * @param depth the depth searched, in {0,...,255}
+	 * @param bound EXACT, LOWER or UPPER
+	 * @param score the score, in {-32768,...,32767}
+	 */
+	public void store(long key, int move, int depth, int bound, int score) {
+		long bucket = bucket(key);
+		int victim = 0, victimWorth = Integer.MAX_VALUE;
+		for (int i = 0; i < BUCKET; i++) {
+			long data = read(bucket + 2 * i + 1);
+			if (data == 0 || (read(bucket + 2 * i) ^ data) == key) {
+				victim = i;
+				victimWorth = -1;
+				break;
+			}
+			// Entries from older searches go first, then the shallowest
+			int worth = depth(data) + (age(data) == this.age ? 256 : 0);
+			if (worth < victimWorth) {
+				victim = i;
+				victimWorth = worth;
+			}
+		}
+		if (victimWorth >= 0) {
+			this.overwrites.increment();
+		}
+		long data = pack(move, depth, bound, score, this.age);
+		write(bucket + 2 * victim, key ^ data);
+		write(bucket + 2 * victim + 1, data);
+	}
+
+	/**
+	 * Start a new search, so that entries stored from now on are preferred over
+	 * the ones stored by earlier searches.
+	 */
+	public void newSearch() {
+		this.age = (this.age + 1) & 0xff;
+	}
+
+	/**
+	 * Remove every entry, and reset the statistics.
+	 */
+	public void clear() {
+		if (this.segment == null) {
+			Arrays.fill(this.table, 0);
+		} else {
+			this.segment.fill((byte) 0);
+		}
+		this.hits.reset();
+		this.misses.reset();
+		this.collisions.reset();
+		this.overwrites.reset();
+	}
+
+	/**
+	 *
+	 * @return the number of entries the table holds.
+	 */
+	public long getCapacity() {
+		return (this.bucketMask + 1) * BUCKET;
+	}
+
+	/**
+	 *
+	 * @return the number of probes that found an entry for their key.
+	 */
+	public long getHits() {
+		return this.hits.sum();
+	}
+
+	/**
+	 *
+	 * @return the number of probes that found an empty bucket.
+	 */
+	public long getMisses() {
+		return this.misses.sum();
+	}
+
+	/**
+	 *
+	 * @return the number of probes that found their bucket holding only other keys.
+	 */
+	public long getCollisions() {
+		return this.collisions.sum();
+	}
+
+	/**
+	 *
+	 * @return the number of stores that replaced an entry for another key.
+	 */
+	public long getOverwrites() {
+		return this.overwrites.sum();
+	}
+
+	/**
+	 * Free the off heap memory, if any. The table must not be used afterwards.
+	 */
+	@Override
+	public void close() {
+		if (this.arena != null) {
+			this.arena.close();
+		}
+	}
+}
@@ -0,0 +1,59 @@
+package othello;
+
+/**
+ * Fixed random keys for Zobrist hashing of positions. The key of a position is
+ * the XOR of the keys of the tokens on the board, along with SIDE when P2 is to
+ * move, so placing or flipping a token changes the key with one XOR each.
+ *
+ * The keys are generated by SplitMix64 from a fixed seed, rather than by
+ * java.util.Random, so they are the same on every run and every machine and can
+ * be written to files, such as an opening book.
+ *
+ */
+public final class Zobrist {
+
+	private static final long SEED = 0x4f7468656c6c6f00L; // "Othello"
+	private static final long GAMMA = 0x9e3779b97f4a7c15L;
+
+	/**
+	 * XORed into the key of a position when P2 is the one to move.
+	 */
+	public static final long SIDE = mix(SEED);
+
+	private Zobrist() {
+	}
+
+	/**
+	 *
+	 * @param player P1 or P2
+	 * @param square row * dim + col
+	 * @return the key of a token of player at square.
+	 */
+	public static long key(char player, int square) {
+		int index = 2 * square + (player == OthelloBoard.P2 ? 1 : 0) + 1;
+		return mix(SEED + GAMMA * index);
+	}
+
+	/**
+	 *
+	 * @param player  P1 or P2
+	 * @param squares the number of squares on the board
+	 * @return the keys of a token of player at squares 0 to squares - 1.
+	 */
+	public static long[] keys(char player, int squares) {
+		long[] keys = new long[squares];
+		for (int square = 0; square < squares; square++) {
+			keys[square] = key(player, square);
+		}
+		return keys;
+	}
+
+	/**
+	 * The SplitMix64 finalizer, which spreads every bit of z over the result.
+	 */
+	static long mix(long z) {
+		z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+		z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+		return z ^ (z >>> 31);
+	}
+}
@@ -0,0 +1,92 @@
+package othello;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.*;
+
+public class EndgameSolverTest {
+
+    @Test
+    public void testSolve() {
+        // Up to 9 empties against a plain negamax, then the table (used from 10 empties) against no table.
+        Random rand = new Random(17);
+        TranspositionTable table = new TranspositionTable(1 << 20, false);
+        EndgameSolver plain = new EndgameSolver(null, new AtomicBoolean());
+        EndgameSolver solver = new EndgameSolver(table, new AtomicBoolean());
+        for (int empties = 1; empties <= 14; empties++) {
+            for (int i = 0; i < 10; i++) {
+                Othello othello = PlayerSearchTest.randomGame(rand, empties);
+                if (othello.isGameOver()) {
+                    continue;
+                }
+                char player = othello.getWhosTurn();
+                OthelloBitBoard board = new OthelloBitBoard(othello.board);
+                long own = board.getMask(player), opp = board.getMask(OthelloBoard.otherPlayer(player));
+                int expected;
+                if (empties <= 9) {
+                    expected = PlayerSearchTest.solve(own, opp);
+                } else {
+                    plain.reset(false, 0, 0);
+                    expected = AlphaBetaSearch.finalScore(plain.solve(own, opp));
+                }
+
+                solver.reset(false, 0, 0);
+                int difference = solver.solve(own, opp);
+                assertEquals(expected, AlphaBetaSearch.finalScore(difference), "exact score");
+
+                int square = solver.getBestMove();
+                long flips = OthelloBitBoard.flips(square, own, opp);
+                assertNotEquals(0, flips, "valid move");
+                if (empties <= 9) {
+                    long newOwn = own | flips | (1L << square), newOpp = opp & ~flips;
+                    int afterMove = OthelloBitBoard.moves(newOpp, newOwn) == 0
+                            ? PlayerSearchTest.solve(newOwn, newOpp) : -PlayerSearchTest.solve(newOpp, newOwn);
+                    assertEquals(expected, afterMove, "best move keeps the score");
+                }
+
+                solver.reset(false, 0, 0);
+                assertEquals(Integer.signum(expected), solver.winLossDraw(own, opp), "win, loss or draw");
+            }
+        }
+        table.close();
+    }
+
+    @Test
+    public void testLimits() {
+        Othello othello = PlayerSearchTest.randomGame(new Random(1), 24);
+        OthelloBitBoard board = new OthelloBitBoard(othello.board);
+        char player = othello.getWhosTurn();
+        AtomicBoolean stop = new AtomicBoolean();
+        EndgameSolver solver = new EndgameSolver(null, stop);
+        solver.reset(true, Long.MAX_VALUE, 10000);
+        solver.solve(board.getMask(player), board.getMask(OthelloBoard.otherPlayer(player)));
+        assertTrue(solver.isAborted());
+        assertTrue(stop.get(), "stop set for everyone");
+    }
+
+    @Test
+    public void testPlayerSearchSolves() {
+        Random rand = new Random(23);
+        for (int i = 0; i < 5; i++) {
+            Othello othello = PlayerSearchTest.randomGame(rand, 14);
+            if (othello.isGameOver()) {
+                continue;
+            }
+            char player = othello.getWhosTurn();
+            PlayerSearch search = new PlayerSearch(othello, player, Long.MAX_VALUE);
+            Move move = search.getMove();
+            assertTrue(search.isSolved());
+            assertEquals(othello.board.getCount(OthelloBoard.EMPTY), search.getDepthReached());
+            assertTrue(othello.board.validMove(move.getRow(), move.getCol(), player));
+
+            // Searching every move to the end must agree
+            PlayerSearch deep = new PlayerSearch(othello, player, Long.MAX_VALUE);
+            deep.setSolveEmpties(0);
+            deep.getMove();
+            assertEquals(deep.getScore(), search.getScore());
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package othello;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.*;
+
+public class GameAnalysisTest {
+
+    @Test
+    public void testAnalysis() throws IOException {
+        for (boolean compress : new boolean[] { false, true }) {
+            Random rand = new Random(23);
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            long games = 10000, moves = 0, passes = 0, p1Wins = 0, p2Wins = 0, draws = 0;
+            Map<String, Long> rows = new HashMap<>();
+            try (GameRecordWriter writer = new GameRecordWriter(bytes, compress)) {
+                for (int i = 0; i < games; i++) {
+                    int[] game = GameRecordTest.randomGame(rand);
+                    writer.write(game);
+                    // Replay it with Othello: a pass is a player moving twice in a row
+                    Othello othello = new Othello();
+                    char last = OthelloBoard.EMPTY;
+                    for (int square : game) {
+                        passes += othello.getWhosTurn() == last ? 1 : 0;
+                        last = othello.getWhosTurn();
+                        othello.move(square / 8, square % 8);
+                    }
+                    moves += game.length;
+                    if (othello.isGameOver()) {
+                        char winner = othello.getWinner();
+                        p1Wins += winner == OthelloBoard.P1 ? 1 : 0;
+                        p2Wins += winner == OthelloBoard.P2 ? 1 : 0;
+                        draws += winner == OthelloBoard.EMPTY ? 1 : 0;
+                        int difference = othello.board.getCount(OthelloBoard.P1) - othello.board.getCount(OthelloBoard.P2);
+                        rows.merge("differences," + difference, 1L, Long::sum);
+                    }
+                    rows.merge("lengths," + game.length, 1L, Long::sum);
+                }
+            }
+
+            GameAnalysis analysis = new GameAnalysis();
+            analysis.setThreads(3);
+            analysis.setOpeningMoves(1);
+            try (GameRecordReader reader = new GameRecordReader(new ByteArrayInputStream(bytes.toByteArray()))) {
+                analysis.run(reader);
+                assertEquals(games, reader.getGames(), "every block handed out");
+            }
+            assertEquals(games, analysis.getGames());
+            assertEquals(moves, analysis.getMoves());
+            assertEquals(passes, analysis.getPasses());
+            assertEquals(p1Wins, analysis.getP1Wins());
+            assertEquals(p2Wins, analysis.getP2Wins());
+            assertEquals(draws, analysis.getDraws());
+
+            String[] csv = analysis.toCsv().split("\n");
+            assertEquals("statistic,key,games,p1_wins,p2_wins,draws", csv[0]);
+            assertEquals("results,all," + games + "," + p1Wins + "," + p2Wins + "," + draws, csv[1]);
+            long passGames = 0;
+            for (String line : Arrays.copyOfRange(csv, 1, csv.length)) {
+                String[] row = line.split(",");
+                long[] counts = Arrays.stream(row, 2, 6).mapToLong(Long::parseLong).toArray();
+                assertTrue(counts[1] + counts[2] + counts[3] <= counts[0], line);
+                if (row[0].equals("differences") || row[0].equals("lengths")) {
+                    assertEquals(rows.get(row[0] + "," + row[1]), counts[0], line);
+                    rows.remove(row[0] + "," + row[1]);
+                } else if (row[0].equals("passes")) {
+                    passGames += counts[0];
+                } else if (row[0].equals("openings")) {
+                    assertEquals("e3", row[1], "the first moves are all reflections of one");
+                }
+            }
+            assertEquals(games, passGames);
+            assertTrue(rows.isEmpty(), "rows missing: " + rows);
+
+            analysis.setStatistics(GameAnalysis.Statistic.RESULTS, GameAnalysis.Statistic.OPENINGS);
+            String json = analysis.toJson();
+            assertTrue(json.startsWith("{\n  \"games\": " + games + ",\n  \"moves\": " + moves), json);
+            assertTrue(json.contains("\"results\": [\n    {\"key\": \"all\", \"games\": " + games), json);
+            assertFalse(json.contains("\"lengths\""), json);
+        }
+    }
+
+    @Test
+    public void testNotValid() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (GameRecordWriter writer = new GameRecordWriter(bytes, false)) {
+            for (int i = 0; i < 1000; i++) {
+                writer.write(GameRecordTest.randomGame(new Random(i)));
+            }
+        }
+        byte[] cut = Arrays.copyOf(bytes.toByteArray(), bytes.size() - 100);
+        GameAnalysis analysis = new GameAnalysis();
+        analysis.setThreads(2);
+        try (GameRecordReader reader = new GameRecordReader(new ByteArrayInputStream(cut))) {
+            assertThrows(IOException.class, () -> analysis.run(reader));
+        }
+
+        // An Error in a thread is thrown as it is, once every thread stops
+        try (GameRecordReader reader = new GameRecordReader(new ByteArrayInputStream(bytes.toByteArray())) {
+            @Override
+            public boolean readBlock(GameRecordReader to) throws IOException {
+                if (getGames() > 0) {
+                    throw new AssertionError("no block");
+                }
+                return super.readBlock(to);
+            }
+        }) {
+            assertThrows(AssertionError.class, () -> analysis.run(reader));
+        }
+        assertThrows(IllegalArgumentException.class, () -> analysis.setOpeningMoves(0));
+    }
+}
@@ -0,0 +1,157 @@
+package othello;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+public class GameDatabaseTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    public void testSort() {
+        Random rand = new Random(3);
+        long[] keys = new long[5000], values = new long[5000];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = rand.nextInt(4) == 0 ? keys[rand.nextInt(i + 1)] : rand.nextLong();
+            values[i] = i;
+        }
+        long[] expected = keys.clone();
+        GameDatabaseBuilder.sort(keys, values, 4000);
+        for (int i = 1; i < 4000; i++) {
+            int order = Long.compareUnsigned(keys[i - 1], keys[i]);
+            assertTrue(order < 0 || order == 0 && values[i - 1] < values[i], "sorted, and stable");
+        }
+        for (int i = 0; i < 4000; i++) {
+            assertEquals(expected[(int) values[i]], keys[i], "values moved with their keys");
+        }
+        assertArrayEquals(Arrays.copyOfRange(expected, 4000, 5000), Arrays.copyOfRange(keys, 4000, 5000));
+    }
+
+    @Test
+    public void testDatabase() throws IOException {
+        Random rand = new Random(11);
+        int[][] games = new int[2000][];
+        try (GameDatabaseBuilder builder = new GameDatabaseBuilder(dir, 1000)) {
+            for (int i = 0; i < games.length; i++) {
+                games[i] = GameRecordTest.randomGame(rand, i % 10 == 0 ? 20 : 60);
+                builder.add(games[i], games[i].length);
+            }
+        }
+        assertEquals(0, Files.list(dir).filter(file -> file.toString().endsWith(".tmp")).count(), "runs deleted");
+
+        try (GameDatabase database = GameDatabase.open(dir)) {
+            assertEquals(games.length, database.getGames());
+            long entries = Arrays.stream(games).mapToLong(game -> game.length).sum();
+            assertEquals(entries, database.getEntries());
+            for (long entry = 1; entry < database.getEntries(); entry++) {
+                assertTrue(Long.compareUnsigned(database.getKey(entry - 1), database.getKey(entry)) <= 0, "sorted by key");
+            }
+
+            int[] squares = new int[64];
+            for (int i = 0; i < games.length; i += 7) {
+                int length = database.readGame(i, squares);
+                assertArrayEquals(games[i], Arrays.copyOf(squares, length));
+                Othello othello = replay(games[i], games[i].length);
+                assertEquals(othello.isGameOver() ? othello.board.getCount(OthelloBoard.P1)
+                        - othello.board.getCount(OthelloBoard.P2) : GameDatabase.UNFINISHED, database.getResult(i));
+            }
+
+            // Positions and prefixes of a few games, against a scan of them all
+            long[][] keys = new long[games.length][];
+            for (int g = 0; g < games.length; g++) {
+                keys[g] = new long[games[g].length];
+                Othello replay = new Othello();
+                for (int p = 0; p < games[g].length; p++) {
+                    replay.move(games[g][p] / 8, games[g][p] % 8);
+                    keys[g][p] = GameDatabase.key(replay);
+                }
+            }
+            for (int i = 0; i < games.length; i += 97) {
+                for (int ply : new int[] { 1, 3, 8, games[i].length }) {
+                    int[] prefix = Arrays.copyOf(games[i], ply);
+                    long key = GameDatabase.key(replay(prefix, ply));
+                    long reached = 0;
+                    long[] results = new long[4];
+                    int[] started = new int[games.length];
+                    int count = 0;
+                    for (int g = 0; g < games.length; g++) {
+                        if (Arrays.stream(keys[g]).anyMatch(k -> k == key)) {
+                            reached++;
+                            int result = database.getResult(g);
+                            results[result == GameDatabase.UNFINISHED ? 3 : result > 0 ? 0 : result < 0 ? 1 : 2]++;
+                        }
+                        if (games[g].length >= ply && Arrays.equals(games[g], 0, ply, prefix, 0, ply)) {
+                            started[count++] = g;
+                        }
+                    }
+                    assertEquals(reached, database.count(key), "games reaching the position, counted once each");
+                    assertArrayEquals(results, database.results(key));
+                    assertArrayEquals(Arrays.copyOf(started, count), database.findGames(prefix, Integer.MAX_VALUE));
+                    assertEquals(Math.min(count, 1), database.findGames(prefix, 1).length);
+                }
+            }
+
+            Othello othello = new Othello();
+            othello.move(2, 2); // an invalid opening
+            assertEquals(-1, database.find(GameDatabase.key(othello)));
+            assertThrows(IllegalArgumentException.class, () -> database.findGames(new int[] { 0 }, 1));
+            assertThrows(IllegalArgumentException.class, () -> database.findGames(new int[0], 1));
+        }
+    }
+
+    @Test
+    public void testMergePasses() throws IOException {
+        // Over 100 runs, 4 merged at a time, take several passes, and give the same index as one pass
+        byte[][] positions = new byte[2][];
+        for (int mergeRuns : new int[] { 4, Integer.MAX_VALUE }) {
+            Random rand = new Random(13);
+            Path to = dir.resolve("merge" + mergeRuns);
+            try (GameDatabaseBuilder builder = new GameDatabaseBuilder(to, 100, mergeRuns)) {
+                for (int i = 0; i < 200; i++) {
+                    int[] game = GameRecordTest.randomGame(rand, 60);
+                    builder.add(game, game.length);
+                }
+            }
+            assertEquals(0, Files.list(to).filter(file -> file.toString().endsWith(".tmp")).count(), "runs deleted");
+            positions[mergeRuns == 4 ? 0 : 1] = Files.readAllBytes(to.resolve(GameDatabase.POSITIONS));
+        }
+        assertArrayEquals(positions[1], positions[0]);
+        try (GameDatabase database = GameDatabase.open(dir.resolve("merge4"))) {
+            for (long entry = 1; entry < database.getEntries(); entry++) {
+                assertTrue(Long.compareUnsigned(database.getKey(entry - 1), database.getKey(entry)) <= 0, "sorted by key");
+            }
+        }
+    }
+
+    private static Othello replay(int[] game, int length) {
+        Othello othello = new Othello();
+        for (int i = 0; i < length; i++) {
+            othello.move(game[i] / 8, game[i] % 8);
+        }
+        return othello;
+    }
+
+    @Test
+    public void testNotADatabase() throws IOException {
+        try (GameDatabaseBuilder builder = new GameDatabaseBuilder(dir)) {
+            builder.add(new int[] { 20, 21 }, 2);
+        }
+        try (GameDatabase database = GameDatabase.open(dir)) {
+            assertEquals(1, database.getGames());
+            assertEquals(2, database.getEntries());
+        }
+        Files.write(dir.resolve(GameDatabase.RESULTS), new byte[] { 1, 2, 3 });
+        assertThrows(IOException.class, () -> GameDatabase.open(dir));
+        Files.delete(dir.resolve(GameDatabase.RESULTS));
+        assertThrows(IOException.class, () -> GameDatabase.open(dir));
+    }
+}
@@ -0,0 +1,122 @@
+package othello;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+
+import org.junit.jupiter.api.*;
+
+public class GameListenerTest {
+
+    /**
+     * Counts the events of a game, and checks they come in order.
+     */
+    static class Counter implements GameListener {
+        int started, moves, passes, ended;
+        char winner;
+
+        @Override
+        public void gameStarted(Othello othello) {
+            assertEquals(0, started + moves + ended);
+            started++;
+        }
+
+        @Override
+        public void moveMade(Othello othello, char player, Move move) {
+            assertEquals(1, started);
+            assertTrue(othello.getWhosTurn() != player || othello.isPass() || othello.isGameOver(), "turns change");
+            moves++;
+        }
+
+        @Override
+        public void passed(Othello othello, char player) {
+            assertNotEquals(player, othello.getWhosTurn());
+            passes++;
+        }
+
+        @Override
+        public void gameEnded(Othello othello, char winner) {
+            assertTrue(othello.isGameOver());
+            ended++;
+            this.winner = winner;
+        }
+    }
+
+    @Test
+    public void testEvents() {
+        for (long seed = 0; seed < 200; seed++) {
+            OthelloControllerRandomVSRandom quiet = new OthelloControllerRandomVSRandom(seed);
+            char expected = quiet.play();
+
+            OthelloControllerRandomVSRandom oc = new OthelloControllerRandomVSRandom(seed);
+            Counter counter = new Counter();
+            oc.setListener(counter);
+            char winner = oc.play();
+            assertEquals(expected, winner, "the listener doesn't change the game");
+            assertEquals(1, counter.ended);
+            assertEquals(winner, counter.winner);
+            assertEquals(oc.othello.getCount(OthelloBoard.P1) + oc.othello.getCount(OthelloBoard.P2) - 4, counter.moves,
+                    "one token placed per move");
+            assertTrue(counter.passes <= counter.moves);
+        }
+    }
+
+    @Test
+    public void testNotValid() {
+        OthelloControllerRandomVSRandom quiet = new OthelloControllerRandomVSRandom(7);
+        Counter expected = new Counter();
+        quiet.setListener(expected);
+        quiet.play();
+
+        // A player that tries an occupied square, then one off the board, before each move
+        OthelloControllerRandomVSRandom oc = new OthelloControllerRandomVSRandom(7);
+        Player random = oc.player1;
+        oc.player1 = new Player(oc.othello, OthelloBoard.P1) {
+            int tries;
+
+            @Override
+            public Move getMove() {
+                switch (tries++ % 3) {
+                case 0:
+                    return Move.of(3, 3);
+                case 1:
+                    return Move.of(8, 0);
+                default:
+                    return random.getMove();
+                }
+            }
+        };
+        Counter counter = new Counter() {
+            @Override
+            public void moveMade(Othello othello, char player, Move move) {
+                assertTrue(othello.board.get(move.getRow(), move.getCol()) == player, "the move was made");
+                super.moveMade(othello, player, move);
+            }
+        };
+        oc.setListener(counter);
+        assertEquals(expected.winner, oc.play(), "the same game");
+        assertEquals(expected.moves, counter.moves, "no events for moves not made");
+        assertEquals(expected.passes, counter.passes, "no events for moves not made");
+        assertEquals(1, counter.ended);
+    }
+
+    @Test
+    public void testConsole() {
+        PrintStream out = System.out;
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(bytes));
+        char winner;
+        try {
+            OthelloControllerRandomVSGreedy oc = new OthelloControllerRandomVSGreedy(3);
+            oc.setListener(new ConsoleListener());
+            winner = oc.play();
+        } finally {
+            System.setOut(out);
+        }
+        String printed = bytes.toString();
+        assertTrue(printed.contains("X makes move "), printed);
+        assertTrue(printed.contains("O moves next"), printed);
+        assertTrue(printed.endsWith(winner + " won\n" + System.lineSeparator()), printed);
+    }
+}
@@ -0,0 +1,128 @@
+package othello;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+public class GameRecordTest {
+
+    @TempDir
+    Path dir;
+
+    /**
+     * A random game, played to the end or stopped early.
+     */
+    static int[] randomGame(Random rand) {
+        return randomGame(rand, rand.nextInt(4) == 0 ? rand.nextInt(60) : 60);
+    }
+
+    static int[] randomGame(Random rand, int maxMoves) {
+        Othello othello = new Othello();
+        int[] game = new int[60], squares = new int[64];
+        int moves = 0;
+        while (!othello.isGameOver() && moves < maxMoves) {
+            int count = othello.board.getMoves(othello.getWhosTurn(), squares);
+            game[moves] = squares[rand.nextInt(count)];
+            othello.move(game[moves] / 8, game[moves] % 8);
+            moves++;
+        }
+        return Arrays.copyOf(game, moves);
+    }
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        for (boolean compress : new boolean[] { false, true }) {
+            Random rand = new Random(21);
+            int[][] games = new int[8000][];
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (GameRecordWriter writer = new GameRecordWriter(bytes, compress)) {
+                for (int i = 0; i < games.length; i++) {
+                    games[i] = randomGame(rand);
+                    writer.write(games[i]);
+                }
+                assertThrows(IllegalArgumentException.class, () -> writer.write(new int[] { 0 }), "invalid move");
+                writer.write(new int[0]);
+                assertEquals(games.length + 1, writer.getGames());
+            }
+            assertTrue(bytes.size() > GameRecordWriter.BLOCK_BYTES, "several blocks");
+            assertTrue(bytes.size() < 25 * games.length, bytes.size() / games.length + " bytes a game");
+
+            try (GameRecordReader reader = new GameRecordReader(new ByteArrayInputStream(bytes.toByteArray()))) {
+                int[] squares = new int[64];
+                for (int i = 0; i < games.length; i++) {
+                    int length = reader.read(squares);
+                    assertArrayEquals(games[i], Arrays.copyOf(squares, length), "game " + i);
+                }
+                assertEquals(0, reader.read(squares), "the empty game");
+                assertEquals(-1, reader.read(squares), "the end");
+                assertEquals(games.length + 1, reader.getGames());
+            }
+        }
+    }
+
+    @Test
+    public void testRecorder() throws IOException {
+        Path file = dir.resolve("games.bin");
+        OthelloSimulation simulation;
+        try (GameRecordWriter writer = new GameRecordWriter(file, true)) {
+            simulation = new OthelloSimulation(seed -> {
+                OthelloControllerRandomVSGreedy oc = new OthelloControllerRandomVSGreedy(seed);
+                oc.setListener(new GameRecorder(writer));
+                return oc.play();
+            }, 5);
+            simulation.setThreads(2);
+            simulation.run(3000);
+        }
+
+        // Replayed, the games end the same way
+        long p1Wins = 0, p2Wins = 0;
+        try (GameRecordReader reader = new GameRecordReader(file)) {
+            int[] squares = new int[64];
+            for (int length = reader.read(squares); length >= 0; length = reader.read(squares)) {
+                Othello othello = new Othello();
+                for (int i = 0; i < length; i++) {
+                    assertTrue(othello.move(squares[i] / 8, squares[i] % 8));
+                }
+                assertTrue(othello.isGameOver());
+                p1Wins += othello.getWinner() == OthelloBoard.P1 ? 1 : 0;
+                p2Wins += othello.getWinner() == OthelloBoard.P2 ? 1 : 0;
+            }
+            assertEquals(3000, reader.getGames());
+        }
+        assertEquals(simulation.getP1Wins(), p1Wins);
+        assertEquals(simulation.getP2Wins(), p2Wins);
+
+        // The records only hold games on the 8x8 board
+        try (GameRecordWriter writer = new GameRecordWriter(dir.resolve("big.bin"), false)) {
+            OthelloControllerHumanVSGreedy oc = new OthelloControllerHumanVSGreedy(16);
+            oc.setListener(new GameRecorder(writer));
+            assertThrows(IllegalArgumentException.class, () -> oc.play());
+        }
+    }
+
+    @Test
+    public void testNotARecord() throws IOException {
+        Path file = dir.resolve("book.bin");
+        Files.write(file, new byte[] { 1, 2, 3 });
+        assertThrows(IOException.class, () -> new GameRecordReader(file));
+
+        // A block cut short
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (GameRecordWriter writer = new GameRecordWriter(bytes, true)) {
+            writer.write(randomGame(new Random(1)));
+        }
+        byte[] cut = Arrays.copyOf(bytes.toByteArray(), bytes.size() - 3);
+        try (GameRecordReader reader = new GameRecordReader(new ByteArrayInputStream(cut))) {
+            assertThrows(IOException.class, () -> reader.read(new int[64]));
+        }
+    }
+}
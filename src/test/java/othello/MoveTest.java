@@ -3,7 +3,7 @@ package othello;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 
-import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.*;
 
 public class MoveTest {
     Move move;
@@ -31,4 +31,32 @@ public class MoveTest {
     void testToString1() {
         assertEquals("(3,5)", move.toString(), "toString");
     }
+
+    @org.junit.jupiter.api.Test
+    void testOf() {
+        assertSame(Move.of(29), Move.of(3, 5), "one Move per square");
+        assertEquals(move, Move.of(29), "equals");
+        assertEquals(move.hashCode(), Move.of(29).hashCode(), "hashCode");
+        assertEquals(29, move.getSquare(), "getSquare");
+        for (int square = 0; square < 64; square++) {
+            assertEquals(square, Move.of(square).getSquare());
+        }
+        assertEquals(new Move(9, 2), Move.of(9, 2), "off the 8x8 board");
+        assertThrows(IllegalStateException.class, () -> Move.of(9, 2).getSquare());
+        assertThrows(IllegalStateException.class, () -> Move.of(0, 9).getSquare());
+        assertEquals(9 * 16 + 2, Move.of(9, 2).getSquare(16));
+        assertNotEquals(Move.of(0, 9).getSquare(16), Move.of(1, 1).getSquare(16));
+        assertEquals(-1, Move.PASS.getSquare(16));
+    }
+
+    @org.junit.jupiter.api.Test
+    void testPass() {
+        assertSame(Move.PASS, Move.of(-1));
+        assertSame(Move.PASS, Move.of(-1, -1));
+        assertTrue(Move.PASS.isPass());
+        assertFalse(move.isPass());
+        assertEquals(-1, Move.PASS.getSquare());
+        assertEquals("pass", Move.PASS.toString());
+        assertNotEquals(Move.PASS, Move.of(0));
+    }
 }
@@ -0,0 +1,112 @@
+package othello;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+public class OpeningBookTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    public void testParse() {
+        assertArrayEquals(new int[]{37, 43, 18}, OpeningBookBuilder.parse("f5 d6 C3"));
+        new OpeningBookBuilder().addGame("c5e6f3");
+        assertThrows(IllegalArgumentException.class, () -> OpeningBookBuilder.parse("f5d"));
+        assertThrows(IllegalArgumentException.class, () -> OpeningBookBuilder.parse("f5i9"));
+        assertThrows(IllegalArgumentException.class, () -> new OpeningBookBuilder().addGame("a1"));
+    }
+
+    @Test
+    public void testBook() throws IOException {
+        OpeningBookBuilder builder = new OpeningBookBuilder(4);
+        builder.addGame("c5e6f3e3f4");
+        builder.addGame("c5c6d6c4");
+        builder.addGame("c5e6f5");
+        builder.addGame("d6c4");
+        // Random games played to the end, so that scores get filled in
+        Random rand = new Random(8);
+        int[] squares = new int[64];
+        for (int i = 0; i < 50; i++) {
+            Othello othello = new Othello();
+            int[] game = new int[60];
+            int moves = 0;
+            while (!othello.isGameOver()) {
+                int count = othello.board.getMoves(othello.getWhosTurn(), squares);
+                game[moves] = squares[rand.nextInt(count)];
+                othello.move(game[moves] / 8, game[moves] % 8);
+                moves++;
+            }
+            builder.addGame(Arrays.copyOf(game, moves));
+        }
+        Path file = dir.resolve("book.bin");
+        builder.write(file);
+
+        OpeningBook book = OpeningBook.open(file);
+        assertEquals(16 + 16 * book.size(), Files.size(file));
+        for (int i = 1; i < book.size(); i++) {
+            assertTrue(book.getKey(i - 1) <= book.getKey(i), "sorted by key");
+        }
+
+        Othello othello = new Othello();
+        int record = book.find(key(othello));
+        assertTrue(record >= 0, "start position in the book");
+        assertEquals(1, countMoves(book, record), "the 4 opening moves are all reflections of each other");
+        assertEquals(builder.getGames(), book.getWeight(record));
+
+        othello.move(4, 2); // c5
+        int square = book.lookup(mask(othello, OthelloBoard.P1), mask(othello, OthelloBoard.P2), othello.getWhosTurn());
+        Othello e6 = new Othello();
+        e6.move(4, 2);
+        e6.move(5, 4);
+        othello.move(square / 8, square % 8);
+        assertEquals(key(e6), key(othello), "e6, played twice after c5, or a reflection of it");
+        othello.move(2, 5);
+        othello.move(2, 4);
+        assertEquals(-1, book.find(key(othello)), "only 4 moves kept");
+
+        PlayerSearch outOfBook = new PlayerSearch(othello, othello.getWhosTurn());
+        outOfBook.setOpeningBook(book);
+        outOfBook.setNodeLimit(10000);
+        outOfBook.getMove();
+        assertTrue(outOfBook.getNodes() > 0, "searched");
+
+        Othello start = new Othello();
+        PlayerSearch search = new PlayerSearch(start, start.getWhosTurn());
+        search.setOpeningBook(book);
+        Move move = search.getMove();
+        assertTrue(start.move(move.getRow(), move.getCol()), "a valid opening move");
+        assertEquals("book move", search.getStatistics());
+    }
+
+    private static long mask(Othello othello, char player) {
+        return new OthelloBitBoard(othello.board).getMask(player);
+    }
+
+    private static long key(Othello othello) {
+        return Symmetry.canonicalKey(mask(othello, OthelloBoard.P1), mask(othello, OthelloBoard.P2), othello.getWhosTurn());
+    }
+
+    private static int countMoves(OpeningBook book, int record) {
+        int count = 0;
+        while (record + count < book.size() && book.getKey(record + count) == book.getKey(record)) {
+            count++;
+        }
+        return count;
+    }
+
+    @Test
+    public void testNotABook() throws IOException {
+        Path file = dir.resolve("games.txt");
+        Files.writeString(file, "f5d6c3d3c4\n");
+        assertThrows(IOException.class, () -> OpeningBook.open(file));
+    }
+}
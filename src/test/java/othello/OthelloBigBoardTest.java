@@ -0,0 +1,89 @@
+package othello;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.*;
+
+public class OthelloBigBoardTest {
+
+    @Test
+    public void testSameAsOthelloBoard() {
+        // Play random games on both boards, comparing every answer along the way;
+        // 13 and 16 have rows across word boundaries, and 16 has more than 4 words
+        Random rand = new Random(25);
+        for (int dim : new int[] { 3, 4, 6, 8, 10, 13, 16 }) {
+            for (int game = 0; game < 5; game++) {
+                OthelloBoard expected = new OthelloBoard(dim);
+                OthelloBigBoard actual = new OthelloBigBoard(dim);
+                assertEquals(expected.toString(), actual.toString(), "start position");
+                char player = OthelloBoard.P1;
+                int[] expectedMoves = new int[dim * dim], actualMoves = new int[dim * dim];
+                while (expected.hasMove() != OthelloBoard.EMPTY) {
+                    assertEquals(expected.hasMove(), actual.hasMove(), "hasMove");
+                    assertArrayEquals(expected.greediestMove(player), actual.greediestMove(player), "greediestMove");
+                    assertEquals(expected.greediestSquare(player), actual.greediestSquare(player), "greediestSquare");
+                    int count = expected.getMoves(player, expectedMoves);
+                    assertEquals(count, actual.getMoves(player, actualMoves), "getMoves");
+                    assertArrayEquals(expectedMoves, actualMoves, "getMoves");
+                    for (int row = -1; row <= dim; row++) {
+                        for (int col = -1; col <= dim; col++) {
+                            assertEquals(expected.validMove(row, col, player), actual.validMove(row, col, player), "validMove");
+                        }
+                    }
+
+                    // Try a move and take it back, then make a move, now and then an invalid one
+                    int square = expectedMoves[rand.nextInt(count)];
+                    long undo = actual.makeMove(square / dim, square % dim, player);
+                    assertNotEquals(0, undo);
+                    actual.undoMove(square / dim, square % dim, player, undo);
+                    assertEquals(expected.toString(), actual.toString(), "undone");
+                    assertEquals(expected.getKey(player), actual.getKey(player), "undone");
+                    int row = square / dim, col = square % dim;
+                    if (rand.nextInt(4) == 0) {
+                        row = rand.nextInt(dim);
+                        col = rand.nextInt(dim);
+                    }
+                    assertEquals(expected.move(row, col, player), actual.move(row, col, player), "move");
+                    assertEquals(expected.toString(), actual.toString(), "board after move");
+                    assertEquals(expected.getKey(player), actual.getKey(player), "getKey");
+                    for (char token : new char[] { OthelloBoard.P1, OthelloBoard.P2, OthelloBoard.EMPTY }) {
+                        assertEquals(expected.getCount(token), actual.getCount(token), "getCount");
+                    }
+                    char other = OthelloBoard.otherPlayer(player);
+                    if (expected.hasMove() == OthelloBoard.BOTH || expected.hasMove() == other) {
+                        player = other;
+                    }
+                }
+                assertEquals(OthelloBoard.EMPTY, actual.hasMove(), "game over");
+                assertEquals(expected.isFull(), actual.isFull(), "isFull");
+            }
+        }
+    }
+
+    @Test
+    public void testOthello() {
+        assertInstanceOf(OthelloBitBoard.class, new Othello().board);
+        assertInstanceOf(OthelloBitBoard.class, new Othello(8).board);
+        assertThrows(IllegalArgumentException.class, () -> new Othello(1));
+        assertThrows(IllegalArgumentException.class, () -> new Othello(OthelloBigBoard.MAX_DIMENSION + 1));
+
+        // Random and greedy players play whole games on big boards
+        for (int dim : new int[] { 12, 32 }) {
+            Othello othello = new Othello(dim);
+            assertInstanceOf(OthelloBigBoard.class, othello.board);
+            PlayerRandom random = new PlayerRandom(othello, OthelloBoard.P1, dim);
+            PlayerGreedy greedy = new PlayerGreedy(othello, OthelloBoard.P2);
+            int moves = 0;
+            while (!othello.isGameOver()) {
+                Move move = othello.getWhosTurn() == OthelloBoard.P1 ? random.getMove() : greedy.getMove();
+                assertTrue(othello.move(move.getRow(), move.getCol()), "a valid move");
+                moves++;
+            }
+            assertTrue(moves > dim, moves + " moves");
+            assertEquals(dim * dim, othello.getCount(OthelloBoard.P1) + othello.getCount(OthelloBoard.P2)
+                    + othello.board.getCount(OthelloBoard.EMPTY));
+        }
+    }
+}
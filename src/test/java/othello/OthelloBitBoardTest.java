@@ -0,0 +1,147 @@
+package othello;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.*;
+
+public class OthelloBitBoardTest {
+    OthelloBitBoard board;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        board = new OthelloBitBoard();
+        board.move(2, 4, OthelloBoard.P1);
+        board.move(2, 5, OthelloBoard.P2);
+        board.move(2, 6, OthelloBoard.P1);
+        board.move(2, 3, OthelloBoard.P2);
+
+        // Board now looks like
+        //   0 1 2 3 4 5 6 7
+        //  +-+-+-+-+-+-+-+-+
+        // 2| | | |O|X|X|X| |2
+        //  +-+-+-+-+-+-+-+-+
+        // 3| | | |O|O| | | |3
+        //  +-+-+-+-+-+-+-+-+
+        // 4| | | |O|X| | | |4
+        //  +-+-+-+-+-+-+-+-+
+        //   0 1 2 3 4 5 6 7
+        //
+        // X:4 O:4  X moves next
+    }
+
+    @Test
+    public void testOthelloBitBoard() {
+        OthelloBitBoard b = new OthelloBitBoard();
+        assertEquals(OthelloBoard.P1, b.get(3, 3), "Initial tokens P1");
+        assertEquals(OthelloBoard.P1, b.get(4, 4), "Initial tokens P1");
+        assertEquals(OthelloBoard.P2, b.get(3, 4), "Initial tokens P2");
+        assertEquals(OthelloBoard.P2, b.get(4, 3), "Initial tokens P2");
+
+        for (int row = 0; row < Othello.DIMENSION; row++) {
+            for (int col = 0; col < Othello.DIMENSION; col++) {
+                if ((row == 3 || row == 4) && (col == 3 || col == 4)) continue;
+                assertEquals(OthelloBoard.EMPTY, b.get(row, col), "Initial empty spots");
+            }
+        }
+        assertEquals(new OthelloBoard(Othello.DIMENSION).toString(), b.toString(), "Same drawing as OthelloBoard");
+    }
+
+    @Test
+    public void testGet() {
+        int dim = Othello.DIMENSION;
+        OthelloBitBoard b = new OthelloBitBoard();
+        assertEquals(OthelloBoard.EMPTY, b.get(-7, 12), "Off board get");
+        assertEquals(OthelloBoard.EMPTY, b.get(3, 11), "Off board get");
+        assertEquals(OthelloBoard.EMPTY, b.get(0, dim), "Off board get");
+        assertEquals(OthelloBoard.EMPTY, b.get(dim, 0), "Off board get");
+    }
+
+    @Test
+    public void testHasMove() {
+        assertEquals(OthelloBoard.BOTH, board.hasMove());
+    }
+
+    @Test
+    public void testMove() {
+        String beforeMove = board.toString();
+        assertFalse(board.move(2, 3, OthelloBoard.P1), "bad move spot occupied");
+        assertFalse(board.move(4, 0, OthelloBoard.P1), "bad move no neighbours");
+        assertFalse(board.move(3, 5, OthelloBoard.P1), "bad move no flips");
+        assertFalse(board.move(-1, 8, OthelloBoard.P1), "bad move off board");
+        assertEquals(beforeMove, board.toString(), "board unchanged for bad move");
+
+        assertTrue(board.move(2, 2, OthelloBoard.P1));
+        for (int col = 2; col <= 6; col++) {
+            assertEquals(OthelloBoard.P1, board.get(2, col));
+        }
+        assertEquals(OthelloBoard.P1, board.get(3, 3));
+        assertEquals(OthelloBoard.P2, board.get(3, 4));
+        assertEquals(OthelloBoard.P2, board.get(4, 3));
+    }
+
+    @Test
+    public void testMakeMoveUndoMove() {
+        OthelloBoardTest.checkMakeMoveUndoMove(board);
+    }
+
+    @Test
+    public void testGetCount() {
+        assertEquals(4, board.getCount(OthelloBoard.P1), "counting P1");
+        assertEquals(4, board.getCount(OthelloBoard.P2), "counting P2");
+        board.move(2, 2, OthelloBoard.P1);
+        assertEquals(7, board.getCount(OthelloBoard.P1), "counting P1");
+        assertEquals(2, board.getCount(OthelloBoard.P2), "counting P2");
+        assertEquals(55, board.getCount(OthelloBoard.EMPTY), "counting EMPTY");
+    }
+
+    @Test
+    public void testGetKey() {
+        // Keys are fixed, so books and other files keyed by position stay valid between runs.
+        OthelloBitBoard b = new OthelloBitBoard();
+        assertEquals(0x4d6e58a5af9a97faL, b.getKey(OthelloBoard.P1), "start position key");
+        assertEquals(b.getKey(OthelloBoard.P1) ^ Zobrist.SIDE, b.getKey(OthelloBoard.P2), "side to move");
+        assertEquals(new OthelloBoard(Othello.DIMENSION).getKey(OthelloBoard.P1), b.getKey(OthelloBoard.P1));
+
+        b.move(2, 3, OthelloBoard.P1);
+        b.move(2, 2, OthelloBoard.P2);
+        assertEquals(OthelloBitBoard.hash(b.getMask(OthelloBoard.P1), b.getMask(OthelloBoard.P2)), b.getKey(OthelloBoard.P1),
+                "kept key same as key worked out from scratch");
+    }
+
+    @Test
+    public void testSameAsOthelloBoard() {
+        // Play random games on both boards, comparing every answer along the way.
+        Random rand = new Random(42);
+        for (int game = 0; game < 50; game++) {
+            OthelloBoard expected = new OthelloBoard(Othello.DIMENSION);
+            OthelloBitBoard actual = new OthelloBitBoard();
+            char player = OthelloBoard.P1;
+            while (expected.hasMove() != OthelloBoard.EMPTY) {
+                assertEquals(expected.hasMove(), actual.hasMove(), "hasMove");
+                assertArrayEquals(expected.greediestMove(player), actual.greediestMove(player), "greediestMove");
+                assertEquals(expected.greediestSquare(player), actual.greediestSquare(player), "greediestSquare");
+                int[] expectedMoves = new int[64], actualMoves = new int[64];
+                assertEquals(expected.getMoves(player, expectedMoves), actual.getMoves(player, actualMoves), "getMoves");
+                assertArrayEquals(expectedMoves, actualMoves, "getMoves");
+                for (int row = 0; row < Othello.DIMENSION; row++) {
+                    for (int col = 0; col < Othello.DIMENSION; col++) {
+                        assertEquals(expected.validMove(row, col, player), actual.validMove(row, col, player), "validMove");
+                    }
+                }
+                int row = rand.nextInt(Othello.DIMENSION), col = rand.nextInt(Othello.DIMENSION);
+                assertEquals(expected.move(row, col, player), actual.move(row, col, player), "move");
+                assertEquals(expected.toString(), actual.toString(), "board after move");
+                assertEquals(expected.getKey(player), actual.getKey(player), "getKey");
+                char other = OthelloBoard.otherPlayer(player);
+                if (expected.hasMove() == OthelloBoard.BOTH || expected.hasMove() == other) {
+                    player = other;
+                }
+            }
+            assertEquals(OthelloBoard.EMPTY, actual.hasMove(), "game over");
+            assertEquals(expected.getCount(OthelloBoard.P1), actual.getCount(OthelloBoard.P1), "final count");
+            assertEquals(expected.getCount(OthelloBoard.P2), actual.getCount(OthelloBoard.P2), "final count");
+        }
+    }
+}
@@ -176,6 +176,42 @@ public class OthelloBoardTest {
 
     }
 
+    @Test
+    public void testMakeMoveUndoMove() {
+        checkMakeMoveUndoMove(board);
+    }
+
+    /**
+     * Try every move on board, set up as in setUp, and check undoMove puts
+     * everything back. Shared by the tests of every Board.
+     */
+    static void checkMakeMoveUndoMove(Board board) {
+        String beforeMove = board.toString();
+        long beforeKey = board.getKey(OthelloBoard.P1);
+        assertEquals(0, board.makeMove(2, 3, OthelloBoard.P1), "bad move spot occupied");
+        assertEquals(0, board.makeMove(3, 5, OthelloBoard.P1), "bad move no flips");
+        assertEquals(beforeMove, board.toString(), "board unchanged for bad move");
+
+        for (char player : new char[]{OthelloBoard.P1, OthelloBoard.P2}) {
+            for (int row = 0; row < Othello.DIMENSION; row++) {
+                for (int col = 0; col < Othello.DIMENSION; col++) {
+                    boolean valid = board.validMove(row, col, player);
+                    long undo = board.makeMove(row, col, player);
+                    assertEquals(valid, undo != 0, "undo record for valid moves only");
+                    if (undo != 0) {
+                        assertEquals(player, board.get(row, col));
+                        assertNotEquals(beforeKey, board.getKey(OthelloBoard.P1), "key changed by move");
+                        board.undoMove(row, col, player, undo);
+                    }
+                    assertEquals(beforeKey, board.getKey(OthelloBoard.P1), "key restored by undoMove");
+                    assertEquals(beforeMove, board.toString(), "board restored by undoMove");
+                    assertEquals(4, board.getCount(OthelloBoard.P1), "counts restored by undoMove");
+                    assertEquals(4, board.getCount(OthelloBoard.P2), "counts restored by undoMove");
+                }
+            }
+        }
+    }
+
     @Test
     public void testGetCount() {
         assertEquals(4, board.getCount(OthelloBoard.P1), "counting P1");
@@ -183,5 +219,7 @@ public class OthelloBoardTest {
         board.move(2, 2, OthelloBoard.P1);
         assertEquals(7, board.getCount(OthelloBoard.P1), "counting P1");
         assertEquals(2, board.getCount(OthelloBoard.P2), "counting P2");
+        assertEquals(55, board.getCount(OthelloBoard.EMPTY), "counting EMPTY");
+        assertFalse(board.isFull());
     }
 }
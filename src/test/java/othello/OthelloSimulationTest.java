@@ -0,0 +1,71 @@
+package othello;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.*;
+
+public class OthelloSimulationTest {
+
+    @Test
+    public void testSeededPlayer() {
+        Othello a = new Othello(), b = new Othello();
+        PlayerRandom playerA = new PlayerRandom(a, OthelloBoard.P1, 42), playerB = new PlayerRandom(b, OthelloBoard.P1, 42);
+        PlayerRandom otherA = new PlayerRandom(a, OthelloBoard.P2, 43), otherB = new PlayerRandom(b, OthelloBoard.P2, 43);
+        while (!a.isGameOver()) {
+            Move move = (a.getWhosTurn() == OthelloBoard.P1 ? playerA : otherA).getMove();
+            assertEquals(move.toString(), (b.getWhosTurn() == OthelloBoard.P1 ? playerB : otherB).getMove().toString());
+            a.move(move.getRow(), move.getCol());
+            b.move(move.getRow(), move.getCol());
+        }
+    }
+
+    @Test
+    public void testSameTallyOnAnyThreads() {
+        // Not a multiple of CHUNK, so the last chunk is short
+        long games = 3 * OthelloSimulation.CHUNK + 100;
+        long[] expected = null;
+        for (int threads = 1; threads <= 4; threads++) {
+            OthelloSimulation simulation = new OthelloSimulation(seed -> new OthelloControllerRandomVSRandom(seed).play(), 2024);
+            simulation.setThreads(threads);
+            simulation.run(games);
+            assertEquals(games, simulation.getGames());
+            long[] tally = { simulation.getP1Wins(), simulation.getP2Wins(), simulation.getDraws() };
+            if (expected == null) {
+                expected = tally;
+            }
+            assertArrayEquals(expected, tally, threads + " threads");
+        }
+
+        OthelloSimulation other = new OthelloSimulation(seed -> new OthelloControllerRandomVSRandom(seed).play(), 2025);
+        other.run(games);
+        assertFalse(other.getP1Wins() == expected[0] && other.getP2Wins() == expected[1], "another seed, other games");
+    }
+
+    @Test
+    public void testRandomVSGreedy() {
+        OthelloSimulation simulation = new OthelloSimulation(seed -> new OthelloControllerRandomVSGreedy(seed).play(), 7);
+        simulation.setThreads(2);
+        simulation.run(1000);
+        assertEquals(1000, simulation.getP1Wins() + simulation.getP2Wins() + simulation.getDraws());
+        assertTrue(simulation.getP2Wins() > simulation.getP1Wins(), "greedy beats random");
+        assertTrue(simulation.getGamesPerSecond() > 0);
+    }
+
+    @Test
+    public void testFailure() {
+        // The first failure of a game is thrown, whatever it is, once the other threads stop
+        for (Throwable failure : new Throwable[] { new IllegalStateException("game"), new AssertionError("game") }) {
+            OthelloSimulation simulation = new OthelloSimulation(seed -> {
+                if (seed % 7 == 0) {
+                    if (failure instanceof Error error) {
+                        throw error;
+                    }
+                    throw (RuntimeException) failure;
+                }
+                return OthelloBoard.EMPTY;
+            }, 1);
+            simulation.setThreads(3);
+            assertSame(failure, assertThrows(Throwable.class, () -> simulation.run(10000)));
+        }
+    }
+}
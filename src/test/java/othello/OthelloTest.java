@@ -1,6 +1,9 @@
 package othello;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
 
 import org.junit.jupiter.api.BeforeEach;
 
@@ -102,4 +105,28 @@ public class OthelloTest {
         assertEquals(true, o.isGameOver(), "After winner");
     }
 
+    @org.junit.jupiter.api.Test
+    public void testIsPass() {
+        // Random games, checking the turn state kept by Othello against the board.
+        Random rand = new Random(7);
+        int[] squares = new int[64];
+        int passes = 0;
+        for (int game = 0; game < 500; game++) {
+            Othello o = new Othello();
+            while (!o.isGameOver()) {
+                char player = o.getWhosTurn();
+                int square = squares[rand.nextInt(o.board.getMoves(player, squares))];
+                assertTrue(o.move(square / 8, square % 8));
+                char movers = o.board.hasMove();
+                assertEquals(movers == OthelloBoard.EMPTY, o.isGameOver(), "game over");
+                assertEquals(movers == player, o.isPass(), "pass");
+                if (o.isPass()) {
+                    assertEquals(player, o.getWhosTurn(), "same player moves again after a pass");
+                    passes++;
+                }
+            }
+        }
+        assertTrue(passes > 0, "some games had a pass");
+    }
+
 }
@@ -0,0 +1,79 @@
+package othello;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.*;
+
+public class PatternEvaluatorTest {
+
+    /**
+     * The tokens of mask turned a quarter turn clockwise.
+     */
+    static long rotate(long mask) {
+        long rotated = 0;
+        for (; mask != 0; mask &= mask - 1) {
+            int square = Long.numberOfTrailingZeros(mask);
+            rotated |= 1L << ((square % 8) * 8 + 7 - square / 8);
+        }
+        return rotated;
+    }
+
+    @Test
+    public void testPatterns() {
+        assertEquals(38, PatternEvaluator.getPatterns());
+        PatternEvaluator evaluator = new PatternEvaluator();
+        assertEquals(0, evaluator.evaluate(OthelloBoard.P1), "empty board");
+
+        evaluator.set(0x8000000000000001L, 0);
+        assertTrue(evaluator.evaluate(OthelloBoard.P1) > 100, "two corners");
+        evaluator.set(0x0000000000000200L, 0);
+        int xSquare = evaluator.evaluate(OthelloBoard.P1);
+        assertTrue(xSquare < 0, "X square next to an empty corner");
+        evaluator.set(0x0000000000000001L, 0);
+        int corner = evaluator.evaluate(OthelloBoard.P1);
+        evaluator.set(0x0000000000000201L, 0);
+        assertTrue(evaluator.evaluate(OthelloBoard.P1) - corner > xSquare, "X square next to a corner of our own");
+    }
+
+    @Test
+    public void testIncremental() {
+        Random rand = new Random(4);
+        int[] squares = new int[64];
+        PatternEvaluator incremental = new PatternEvaluator(), fresh = new PatternEvaluator();
+        for (int game = 0; game < 20; game++) {
+            OthelloBitBoard board = new OthelloBitBoard();
+            incremental.set(board.getMask(OthelloBoard.P1), board.getMask(OthelloBoard.P2));
+            char player = OthelloBoard.P1;
+            while (board.hasMove() != OthelloBoard.EMPTY) {
+                if (board.getMoves(player, squares) == 0) {
+                    player = OthelloBoard.otherPlayer(player);
+                }
+                int count = board.getMoves(player, squares);
+                int before = incremental.evaluate(player);
+
+                // Try a move and take it back
+                int square = squares[rand.nextInt(count)];
+                long flips = board.play(square, player);
+                incremental.play(square, player, flips);
+                board.undo(square, player, flips);
+                incremental.undo(square, player, flips);
+                assertEquals(before, incremental.evaluate(player), "taken back");
+
+                square = squares[rand.nextInt(count)];
+                flips = board.play(square, player);
+                incremental.play(square, player, flips);
+                long p1 = board.getMask(OthelloBoard.P1), p2 = board.getMask(OthelloBoard.P2);
+                fresh.set(p1, p2);
+                assertEquals(fresh.evaluate(OthelloBoard.P1), incremental.evaluate(OthelloBoard.P1));
+                assertEquals(fresh.evaluate(OthelloBoard.P2), incremental.evaluate(OthelloBoard.P2));
+                assertEquals(-fresh.evaluate(OthelloBoard.P1), fresh.evaluate(OthelloBoard.P2), "zero sum");
+
+                fresh.set(rotate(p1), rotate(p2));
+                assertEquals(incremental.evaluate(OthelloBoard.P1), fresh.evaluate(OthelloBoard.P1), "rotated");
+                player = OthelloBoard.otherPlayer(player);
+            }
+        }
+    }
+}
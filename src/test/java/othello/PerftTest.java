@@ -0,0 +1,83 @@
+package othello;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.*;
+
+public class PerftTest {
+
+    static final long[] START = { 1, 4, 12, 56, 244, 1396, 8200, 55092, 390216 };
+
+    /**
+     * Count move by move on an OthelloBoard, passing the way Othello.move does.
+     */
+    static long naive(Board board, char player, int depth) {
+        if (depth == 0) {
+            return 1;
+        }
+        int[] squares = new int[64];
+        int count = board.getMoves(player, squares);
+        char other = OthelloBoard.otherPlayer(player);
+        if (count == 0) {
+            return board.getMoves(other, new int[64]) == 0 ? 1 : naive(board, other, depth);
+        }
+        long total = 0;
+        for (int i = 0; i < count; i++) {
+            int row = squares[i] / 8, col = squares[i] % 8;
+            long undo = board.makeMove(row, col, player);
+            total += naive(board, other, depth - 1);
+            board.undoMove(row, col, player, undo);
+        }
+        return total;
+    }
+
+    @Test
+    public void testStart() {
+        Othello othello = new Othello();
+        Perft perft = new Perft();
+        for (int depth = 0; depth < START.length; depth++) {
+            assertEquals(START[depth], perft.count(othello, depth), "depth " + depth);
+        }
+        assertTrue(perft.getNodesPerSecond() > 0);
+    }
+
+    @Test
+    public void testPasses() {
+        // Late positions, where players pass and games end before the depth runs out
+        Random rand = new Random(20);
+        Perft perft = new Perft();
+        for (int game = 0; game < 30; game++) {
+            Othello othello = new Othello();
+            othello.board = new OthelloBoard(Othello.DIMENSION);
+            int empties = 4 + rand.nextInt(10);
+            int[] squares = new int[64];
+            while (!othello.isGameOver() && othello.board.getCount(OthelloBoard.EMPTY) > empties) {
+                int count = othello.board.getMoves(othello.getWhosTurn(), squares);
+                int square = squares[rand.nextInt(count)];
+                othello.move(square / 8, square % 8);
+            }
+            for (int depth = 1; depth <= 5; depth++) {
+                assertEquals(naive(othello.board, othello.getWhosTurn(), depth), perft.count(othello, depth),
+                        "game " + game + " depth " + depth);
+            }
+        }
+    }
+
+    @Test
+    public void testParallelAndHashed() {
+        Othello othello = PlayerSearchTest.randomGame(new Random(4), 44);
+        long expected = new Perft().count(othello, 6);
+
+        for (int threads = 1; threads <= 3; threads++) {
+            for (long bytes : new long[] { 0, 1 << 10, 1 << 20 }) {
+                Perft perft = new Perft();
+                perft.setThreads(threads);
+                perft.setTableBytes(bytes);
+                assertEquals(expected, perft.count(othello, 6), threads + " threads, " + bytes + " bytes");
+                assertEquals(START[8], perft.count(new Othello(), 8), threads + " threads, " + bytes + " bytes");
+            }
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package othello;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.*;
+
+public class PlayerMCTSTest {
+
+    @Test
+    public void testWholeGame() {
+        // A small pool fills up early in the game, the tree must stop growing but go on playing.
+        for (int nodes : new int[]{64, 5000, 1 << 16}) {
+            Othello othello = new Othello();
+            PlayerMCTS mcts = new PlayerMCTS(othello, OthelloBoard.P1, Long.MAX_VALUE, nodes, 42);
+            mcts.setPlayoutLimit(500);
+            PlayerRandom random = new PlayerRandom(othello, OthelloBoard.P2);
+            while (!othello.isGameOver()) {
+                char player = othello.getWhosTurn();
+                Move move = player == OthelloBoard.P1 ? mcts.getMove() : random.getMove();
+                assertTrue(othello.move(move.getRow(), move.getCol()), "valid move " + move);
+                if (player == OthelloBoard.P1) {
+                    assertEquals(500, mcts.getPlayouts());
+                    assertTrue(mcts.getNodes() <= nodes);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testTreeReuse() {
+        Othello othello = new Othello();
+        PlayerMCTS mcts = new PlayerMCTS(othello, OthelloBoard.P1, Long.MAX_VALUE, 1 << 16, 1);
+        PlayerGreedy greedy = new PlayerGreedy(othello, OthelloBoard.P2);
+        mcts.setPlayoutLimit(2000);
+        Move move = mcts.getMove();
+        assertEquals(0, mcts.getReusedNodes(), "nothing to reuse on the first move");
+        int nodes = mcts.getNodes();
+        assertTrue(nodes > 1);
+
+        mcts.getMove();
+        assertEquals(nodes, mcts.getReusedNodes(), "same position, the whole tree is kept");
+
+        othello.move(move.getRow(), move.getCol());
+        move = greedy.getMove();
+        othello.move(move.getRow(), move.getCol());
+        mcts.getMove();
+        assertTrue(mcts.getReusedNodes() > 0, "the reply was tried, so it is in the tree");
+        assertTrue(mcts.getReusedNodes() < mcts.getNodes());
+
+        // Further than 3 moves down, the position is not looked for
+        PlayerGreedy greedyP1 = new PlayerGreedy(othello, OthelloBoard.P1);
+        for (int i = 0; i < 4; i++) {
+            move = othello.getWhosTurn() == OthelloBoard.P1 ? greedyP1.getMove() : greedy.getMove();
+            othello.move(move.getRow(), move.getCol());
+        }
+        mcts.getMove();
+        assertEquals(0, mcts.getReusedNodes(), "a new tree");
+    }
+
+    @Test
+    public void testFindsTheWin() {
+        // With few empty squares and plenty of playouts, the most tried move must be a winning one.
+        Random rand = new Random(9);
+        int checked = 0;
+        while (checked < 10) {
+            Othello othello = PlayerSearchTest.randomGame(rand, 6);
+            if (othello.isGameOver()) {
+                continue;
+            }
+            char player = othello.getWhosTurn();
+            OthelloBitBoard board = new OthelloBitBoard(othello.board);
+            long own = board.getMask(player), opp = board.getMask(OthelloBoard.otherPlayer(player));
+            if (PlayerSearchTest.solve(own, opp) <= 0) {
+                continue;
+            }
+            PlayerMCTS mcts = new PlayerMCTS(othello, player, Long.MAX_VALUE, 1 << 16, checked + 1);
+            mcts.setPlayoutLimit(20000);
+            Move move = mcts.getMove();
+            int square = move.getRow() * 8 + move.getCol();
+            long flips = OthelloBitBoard.flips(square, own, opp);
+            long newOwn = own | flips | (1L << square), newOpp = opp & ~flips;
+            int afterMove = OthelloBitBoard.moves(newOpp, newOwn) == 0 ? PlayerSearchTest.solve(newOwn, newOpp)
+                    : -PlayerSearchTest.solve(newOpp, newOwn);
+            assertTrue(afterMove > 0, "winning move");
+            checked++;
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package othello;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.*;
+
+public class PlayerSearchTest {
+
+    /**
+     * Play random moves until only empties squares are left, or the game ends.
+     */
+    static Othello randomGame(Random rand, int empties) {
+        // Each move fills a square, so empties are left after 60 - empties moves
+        Othello othello = new Othello();
+        for (int square : GameRecordTest.randomGame(rand, 60 - empties)) {
+            othello.move(square / 8, square % 8);
+        }
+        return othello;
+    }
+
+    /**
+     * A plain negamax to the end of the game, with none of the search's tricks.
+     */
+    static int solve(long own, long opp) {
+        long moves = OthelloBitBoard.moves(own, opp);
+        if (moves == 0) {
+            if (OthelloBitBoard.moves(opp, own) == 0) {
+                return AlphaBetaSearch.finalScore(own, opp);
+            }
+            return -solve(opp, own);
+        }
+        int best = -AlphaBetaSearch.INFINITY;
+        for (; moves != 0; moves &= moves - 1) {
+            int square = Long.numberOfTrailingZeros(moves);
+            long flips = OthelloBitBoard.flips(square, own, opp);
+            best = Math.max(best, -solve(opp & ~flips, own | flips | (1L << square)));
+        }
+        return best;
+    }
+
+    @Test
+    public void testGetMove() {
+        Othello othello = new Othello();
+        PlayerSearch search = new PlayerSearch(othello, OthelloBoard.P1);
+        search.setNodeLimit(20000);
+        Move move = search.getMove();
+        assertTrue(othello.board.validMove(move.getRow(), move.getCol(), OthelloBoard.P1));
+        assertTrue(search.getDepthReached() > 0);
+        assertTrue(search.getNodes() > 0);
+    }
+
+    @Test
+    public void testExactNearTheEnd() {
+        // Searching as deep as there are empty squares plays the game out, so the score must be exact.
+        Random rand = new Random(3);
+        for (int i = 0; i < 20; i++) {
+            Othello othello = randomGame(rand, 9);
+            if (othello.isGameOver()) {
+                continue;
+            }
+            char player = othello.getWhosTurn();
+            OthelloBitBoard board = new OthelloBitBoard(othello.board);
+            int expected = solve(board.getMask(player), board.getMask(OthelloBoard.otherPlayer(player)));
+
+            PlayerSearch search = new PlayerSearch(othello, player, Long.MAX_VALUE);
+            search.setSolveEmpties(0);
+            Move move = search.getMove();
+            assertFalse(search.isSolved());
+            assertEquals(board.getCount(OthelloBoard.EMPTY), search.getDepthReached(), "searched to the end");
+            assertEquals(expected, search.getScore(), "exact score");
+
+            long flips = board.play(move.getRow() * 8 + move.getCol(), player);
+            assertNotEquals(0, flips, "valid move");
+            long own = board.getMask(player), opp = board.getMask(OthelloBoard.otherPlayer(player));
+            int afterMove = OthelloBitBoard.moves(opp, own) == 0 ? solve(own, opp) : -solve(opp, own);
+            assertEquals(expected, afterMove, "best move keeps the score");
+        }
+    }
+
+    @Test
+    public void testNodeLimit() {
+        // Without a time limit, a node limit makes the search repeatable.
+        Othello othello = randomGame(new Random(5), 40);
+        PlayerSearch first = new PlayerSearch(othello, othello.getWhosTurn(), Long.MAX_VALUE);
+        PlayerSearch second = new PlayerSearch(othello, othello.getWhosTurn(), Long.MAX_VALUE);
+        first.setNodeLimit(50000);
+        second.setNodeLimit(50000);
+        assertEquals(first.getMove().toString(), second.getMove().toString());
+        assertEquals(first.getDepthReached(), second.getDepthReached());
+        assertTrue(first.getNodes() < 50000 + 4096, "stopped near the limit");
+
+        // A solve that can't finish leaves the rest of the nodes to the search
+        PlayerSearch solver = new PlayerSearch(othello, othello.getWhosTurn(), Long.MAX_VALUE);
+        solver.setNodeLimit(50000);
+        solver.setSolveEmpties(30);
+        Move move = solver.getMove();
+        assertFalse(solver.isSolved());
+        assertTrue(solver.getDepthReached() > 0, "searched after the solve");
+        assertTrue(othello.board.validMove(move.getRow(), move.getCol(), othello.getWhosTurn()));
+        assertTrue(solver.getNodes() < 50000 + 2 * 4096, "solve and search stopped near the limit");
+    }
+
+    @Test
+    public void testThreads() {
+        // Helpers share the table with the main search, which must still find exact scores.
+        Random rand = new Random(11);
+        for (int i = 0; i < 10; i++) {
+            Othello othello = randomGame(rand, 10);
+            if (othello.isGameOver()) {
+                continue;
+            }
+            char player = othello.getWhosTurn();
+            OthelloBitBoard board = new OthelloBitBoard(othello.board);
+            int expected = solve(board.getMask(player), board.getMask(OthelloBoard.otherPlayer(player)));
+
+            PlayerSearch search = new PlayerSearch(othello, player, Long.MAX_VALUE);
+            search.setThreads(4);
+            search.setSolveEmpties(0);
+            Move move = search.getMove();
+            assertTrue(othello.board.validMove(move.getRow(), move.getCol(), player));
+            assertEquals(expected, search.getScore(), "exact score");
+        }
+        assertThrows(IllegalArgumentException.class, () -> new PlayerSearch(new Othello(), OthelloBoard.P1).setThreads(0));
+    }
+}
@@ -0,0 +1,81 @@
+package othello;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.*;
+
+public class RandomPlayoutTest {
+
+    @Test
+    public void testSelect() {
+        Random rand = new Random(17);
+        for (int i = 0; i < 1000; i++) {
+            long mask = rand.nextLong() & rand.nextLong();
+            long bits = mask;
+            for (int k = 0; k < Long.bitCount(mask); k++) {
+                assertEquals(Long.numberOfTrailingZeros(bits), RandomPlayout.select(mask, k));
+                bits &= bits - 1;
+            }
+        }
+        assertEquals(63, RandomPlayout.select(-1L, 63));
+    }
+
+    @Test
+    public void testFastRandom() {
+        FastRandom rand = new FastRandom(0);
+        int[] counts = new int[10];
+        for (int i = 0; i < 100000; i++) {
+            counts[rand.nextInt(10)]++;
+        }
+        for (int count : counts) {
+            assertTrue(count > 9500 && count < 10500, "about even: " + count);
+        }
+        FastRandom a = new FastRandom(5), b = new FastRandom(5);
+        for (int i = 0; i < 100; i++) {
+            assertEquals(a.nextLong(), b.nextLong());
+        }
+
+        // Every opening move, about as often
+        Othello othello = new Othello();
+        PlayerRandom player = new PlayerRandom(othello, OthelloBoard.P1, 9);
+        int[] squares = new int[64];
+        for (int i = 0; i < 4000; i++) {
+            Move move = player.getMove();
+            squares[move.getRow() * 8 + move.getCol()]++;
+        }
+        for (int square : new int[] { 20, 29, 34, 43 }) {
+            assertTrue(squares[square] > 900 && squares[square] < 1100, "square " + square + ": " + squares[square]);
+        }
+    }
+
+    @Test
+    public void testPlay() {
+        FastRandom rand = new FastRandom(3);
+        int p1Wins = 0, p2Wins = 0;
+        for (int i = 0; i < 500; i++) {
+            // The same moves played out move by move on an Othello
+            Othello othello = PlayerSearchTest.randomGame(new Random(i), 20);
+            OthelloBitBoard board = (OthelloBitBoard) othello.board;
+            char player = othello.getWhosTurn();
+            int difference = RandomPlayout.play(board.getMask(player), board.getMask(OthelloBoard.otherPlayer(player)),
+                    new FastRandom(i));
+            FastRandom moves = new FastRandom(i);
+            while (!othello.isGameOver()) {
+                int square = moves.nextSquare(board.getMoveMask(othello.getWhosTurn()));
+                assertTrue(othello.move(square / 8, square % 8));
+            }
+            assertEquals(othello.getCount(player) - othello.getCount(OthelloBoard.otherPlayer(player)), difference);
+
+            char winner = RandomPlayout.playGame(rand);
+            if (winner == OthelloBoard.P1) {
+                p1Wins++;
+            } else if (winner == OthelloBoard.P2) {
+                p2Wins++;
+            }
+        }
+        // Random games from the start are won about as often by either side
+        assertTrue(p1Wins > 200 && p2Wins > 200, p1Wins + " to " + p2Wins);
+    }
+}
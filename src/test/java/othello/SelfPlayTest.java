@@ -0,0 +1,108 @@
+package othello;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.*;
+
+public class SelfPlayTest {
+
+    /**
+     * Play games, and read back their positions as one string per game.
+     */
+    private static List<String> play(SelfPlay selfPlay, int games) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        selfPlay.run(bytes, games);
+        assertEquals(games, selfPlay.getGames());
+        assertEquals(8 + SelfPlay.POSITION_BYTES * selfPlay.getPositions(), bytes.size());
+
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+        assertEquals(SelfPlay.MAGIC, in.readLong());
+        List<String> played = new ArrayList<>();
+        StringBuilder game = null;
+        long own = 0, opp = 0;
+        int result = 0, last = 0;
+        for (long i = 0; i < selfPlay.getPositions(); i++) {
+            long nextOwn = in.readLong(), nextOpp = in.readLong();
+            int square = in.readByte(), difference = in.readByte();
+            if (nextOwn == RandomPlayout.START_P1 && nextOpp == RandomPlayout.START_P2) {
+                if (game != null) {
+                    played.add(game.toString());
+                }
+                game = new StringBuilder();
+            } else {
+                // Follows from the last position by its move, with the same result
+                assertNotNull(game, "starts with the start position");
+                long flips = OthelloBitBoard.flips(last, own, opp);
+                long mover = own | flips | 1L << last, other = opp & ~flips;
+                if (nextOwn == other) {
+                    assertEquals(mover, nextOpp);
+                    assertEquals(-result, difference);
+                } else {
+                    assertEquals(mover, nextOwn, "the other player passed");
+                    assertEquals(other, nextOpp);
+                    assertEquals(result, difference);
+                }
+            }
+            assertTrue((OthelloBitBoard.moves(nextOwn, nextOpp) & 1L << square) != 0, "a valid move");
+            game.append(square).append(' ');
+            own = nextOwn;
+            opp = nextOpp;
+            result = difference;
+            last = square;
+        }
+        played.add(game.toString());
+        assertEquals(games, played.size());
+        played.sort(null);
+        return played;
+    }
+
+    @Test
+    public void testSelfPlay() throws IOException {
+        SelfPlay selfPlay = new SelfPlay(SelfPlay.players("random"), SelfPlay.players("greedy"), 5);
+        selfPlay.setThreads(1);
+        List<String> games = play(selfPlay, 300);
+
+        selfPlay.setThreads(3);
+        selfPlay.setQueueCapacity(2);
+        assertEquals(games, play(selfPlay, 300), "the same games, whatever the threads");
+        assertTrue(selfPlay.getMaxQueue() <= 2);
+        assertTrue(selfPlay.getAverageQueue() >= 1);
+        assertTrue(selfPlay.getStatistics().startsWith("300 games, " + selfPlay.getPositions() + " positions"));
+
+        SelfPlay other = new SelfPlay(SelfPlay.players("random"), SelfPlay.players("random"), 6);
+        assertNotEquals(games, play(other, 300));
+
+        // Search players keep their table from game to game, but not what is in it
+        SelfPlay search = new SelfPlay(SelfPlay.players("search"), SelfPlay.players("random"), 7);
+        search.setThreads(1);
+        List<String> searched = play(search, 20);
+        search.setThreads(2);
+        assertEquals(searched, play(search, 20), "the same games, whatever the threads");
+    }
+
+    @Test
+    public void testFailure() {
+        SelfPlay selfPlay = new SelfPlay(SelfPlay.players("random"), (othello, player, seed) -> {
+            throw new IllegalStateException("no player");
+        }, 1);
+        selfPlay.setThreads(2);
+        assertThrows(IllegalStateException.class, () -> selfPlay.run(new ByteArrayOutputStream(), 100));
+
+        // An Error stops the other workers too, and is thrown as it is
+        SelfPlay error = new SelfPlay(SelfPlay.players("random"), (othello, player, seed) -> {
+            throw new AssertionError("no player");
+        }, 1);
+        error.setThreads(2);
+        assertTimeoutPreemptively(Duration.ofSeconds(10),
+                () -> assertThrows(AssertionError.class, () -> error.run(new ByteArrayOutputStream(), 10)));
+        assertThrows(IllegalArgumentException.class, () -> SelfPlay.players("nobody"));
+    }
+}
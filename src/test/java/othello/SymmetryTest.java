@@ -0,0 +1,95 @@
+package othello;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.jupiter.api.*;
+
+public class SymmetryTest {
+
+    /**
+     * Move every token of mask one square at a time, with the row and column of
+     * each square worked out the slow way.
+     */
+    static long naive(long mask, int t) {
+        long result = 0;
+        for (int square = 0; square < 64; square++) {
+            if ((mask & (1L << square)) == 0) {
+                continue;
+            }
+            int row = square / 8, col = square % 8;
+            if ((t & 4) != 0) {
+                int swap = row;
+                row = col;
+                col = swap;
+            }
+            if ((t & 2) != 0) {
+                row = 7 - row;
+            }
+            if ((t & 1) != 0) {
+                col = 7 - col;
+            }
+            result |= 1L << (row * 8 + col);
+        }
+        return result;
+    }
+
+    @Test
+    public void testTransforms() {
+        Random rand = new Random(6);
+        for (int i = 0; i < 1000; i++) {
+            long mask = rand.nextLong();
+            for (int t = 0; t < Symmetry.TRANSFORMS; t++) {
+                assertEquals(naive(mask, t), Symmetry.transform(mask, t), "transform " + t);
+                assertEquals(mask, Symmetry.transform(Symmetry.transform(mask, t), Symmetry.inverse(t)), "inverse");
+            }
+        }
+        Set<Long> seen = new HashSet<>();
+        for (int t = 0; t < Symmetry.TRANSFORMS; t++) {
+            seen.add(Symmetry.transform(0x107L, t));
+            for (int square = 0; square < 64; square++) {
+                assertEquals(1L << Symmetry.transformSquare(square, t), Symmetry.transform(1L << square, t));
+                assertEquals(square, Symmetry.transformSquare(Symmetry.transformSquare(square, t), Symmetry.inverse(t)));
+            }
+        }
+        assertEquals(8, seen.size(), "8 different transforms");
+    }
+
+    @Test
+    public void testCanonical() {
+        Random rand = new Random(12);
+        int[] squares = new int[64];
+        for (int game = 0; game < 20; game++) {
+            Othello othello = PlayerSearchTest.randomGame(rand, rand.nextInt(50));
+            OthelloBitBoard board = new OthelloBitBoard(othello.board);
+            long p1 = board.getMask(OthelloBoard.P1), p2 = board.getMask(OthelloBoard.P2);
+            char player = othello.getWhosTurn();
+            long key = Symmetry.canonicalKey(p1, p2, player);
+            assertNotEquals(key, Symmetry.canonicalKey(p1, p2, OthelloBoard.otherPlayer(player)), "side to move");
+
+            int count = board.getMoves(player, squares);
+            for (int t = 0; t < Symmetry.TRANSFORMS; t++) {
+                long tp1 = Symmetry.transform(p1, t), tp2 = Symmetry.transform(p2, t);
+                assertEquals(key, Symmetry.canonicalKey(tp1, tp2, player), "same key for every transform");
+                for (int i = 0; i < count; i++) {
+                    assertEquals(Symmetry.canonicalSquare(p1, p2, squares[i]),
+                            Symmetry.canonicalSquare(tp1, tp2, Symmetry.transformSquare(squares[i], t)), "same move");
+                }
+            }
+        }
+
+        // The start position is the same turned a half turn, and reflected along either diagonal
+        Othello start = new Othello();
+        OthelloBitBoard board = new OthelloBitBoard(start.board);
+        long p1 = board.getMask(OthelloBoard.P1), p2 = board.getMask(OthelloBoard.P2);
+        int count = board.getMoves(OthelloBoard.P1, squares);
+        assertEquals(4, count);
+        for (int i = 1; i < count; i++) {
+            assertEquals(Symmetry.canonicalSquare(p1, p2, squares[0]), Symmetry.canonicalSquare(p1, p2, squares[i]),
+                    "every opening move is the same");
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package othello;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.*;
+
+public class TranspositionTableTest {
+
+    @Test
+    public void testStoreAndProbe() {
+        for (boolean offHeap : new boolean[]{false, true}) {
+            try (TranspositionTable tt = new TranspositionTable(1 << 16, offHeap)) {
+                assertEquals(4096, tt.getCapacity(), "64KB holds 4096 entries");
+                assertEquals(0, tt.probe(12345L), "empty table");
+
+                tt.store(12345L, 19, 7, TranspositionTable.LOWER, -1234);
+                long data = tt.probe(12345L);
+                assertEquals(19, TranspositionTable.move(data), "move");
+                assertEquals(7, TranspositionTable.depth(data), "depth");
+                assertEquals(TranspositionTable.LOWER, TranspositionTable.bound(data), "bound");
+                assertEquals(-1234, TranspositionTable.score(data), "score");
+                assertEquals(1, tt.getHits());
+                assertEquals(1, tt.getMisses());
+
+                tt.store(12345L, TranspositionTable.NO_MOVE, 3, TranspositionTable.EXACT, 5);
+                data = tt.probe(12345L);
+                assertEquals(TranspositionTable.NO_MOVE, TranspositionTable.move(data), "same key replaced");
+                assertEquals(5, TranspositionTable.score(data), "same key replaced");
+                assertEquals(0, tt.getOverwrites());
+
+                tt.clear();
+                assertEquals(0, tt.probe(12345L), "cleared");
+            }
+        }
+    }
+
+    @Test
+    public void testReplacement() {
+        try (TranspositionTable tt = new TranspositionTable(64, false)) {
+            // One bucket of 4 entries, so every key shares it.
+            for (int key = 1; key <= 4; key++) {
+                tt.store(key, 0, 10 + key, TranspositionTable.EXACT, key);
+            }
+            tt.store(5, 0, 20, TranspositionTable.EXACT, 5);
+            assertEquals(0, tt.probe(1), "shallowest entry replaced");
+            assertNotEquals(0, tt.probe(2));
+            assertEquals(1, tt.getOverwrites());
+
+            tt.newSearch();
+            tt.store(6, 0, 1, TranspositionTable.EXACT, 6);
+            tt.store(7, 0, 1, TranspositionTable.EXACT, 7);
+            assertEquals(0, tt.probe(2), "older search replaced before deeper depth");
+            assertEquals(0, tt.probe(3), "older search replaced before deeper depth");
+            assertNotEquals(0, tt.probe(6));
+            assertNotEquals(0, tt.probe(5));
+
+            long collisions = tt.getCollisions();
+            assertEquals(0, tt.probe(8));
+            assertEquals(collisions + 1, tt.getCollisions(), "bucket full of other keys");
+            assertEquals(0, tt.getMisses(), "bucket never empty");
+        }
+    }
+
+    @Test
+    public void testConcurrentAccess() throws InterruptedException {
+        for (boolean offHeap : new boolean[]{false, true}) {
+            try (TranspositionTable tt = new TranspositionTable(1 << 12, offHeap)) {
+                // Each thread stores a score derived from the key, so any other score read back is a torn entry.
+                Thread[] threads = new Thread[4];
+                boolean[] failed = new boolean[1];
+                for (int t = 0; t < threads.length; t++) {
+                    long seed = t;
+                    threads[t] = new Thread(() -> {
+                        SplittableRandom rand = new SplittableRandom(seed);
+                        for (int i = 0; i < 200000; i++) {
+                            long key = rand.nextLong(1000) * 0x9e3779b97f4a7c15L;
+                            long data = tt.probe(key);
+                            if (data != 0 && TranspositionTable.score(data) != (short) (key >>> 40)) {
+                                failed[0] = true;
+                            }
+                            tt.store(key, (int) (key & 63), rand.nextInt(20), TranspositionTable.EXACT, (short) (key >>> 40));
+                        }
+                    });
+                    threads[t].start();
+                }
+                for (Thread thread : threads) {
+                    thread.join();
+                }
+                assertFalse(failed[0], "no probe returned another key's data");
+                assertTrue(tt.getHits() > 0);
+            }
+        }
+    }
+}